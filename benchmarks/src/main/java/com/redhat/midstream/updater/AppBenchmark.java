@@ -0,0 +1,116 @@
+package com.redhat.midstream.updater;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.concurrent.TimeUnit;
+
+import com.redhat.midstream.updater.git.GitRepository;
+import com.redhat.midstream.updater.git.JGitRepository;
+import org.apache.commons.io.FileUtils;
+import org.eclipse.jgit.api.Git;
+import org.eclipse.jgit.lib.Constants;
+import org.eclipse.jgit.lib.ObjectId;
+import org.eclipse.jgit.lib.RefUpdate;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Runs the full pipeline on a generated workload with a cloned repository and the issue caches
+ * but without the commit range state and the commit cache, so the scaling curve is reported by
+ * java -jar benchmarks/target/benchmarks.jar AppBenchmark -p commits=1000,10000,100000
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx4g", "-Dorg.slf4j.simpleLogger.log.com.redhat.midstream.updater=error"})
+public class AppBenchmark {
+
+   @Param("1000")
+   private int commits;
+
+   @Param("4")
+   private int parallelism;
+
+   private File workloadDir;
+   private File preparedTargetDir;
+   private File targetDir;
+   private ObjectId midstreamTip;
+
+   @Setup
+   public void setUp() throws Exception {
+      workloadDir = Files.createTempDirectory("workload").toFile();
+      new WorkloadGenerator().setCommits(commits).generate(workloadDir);
+
+      try (Git midstreamGit = Git.open(getMidstreamRepository())) {
+         midstreamTip = midstreamGit.getRepository().resolve(Constants.R_HEADS + WorkloadGenerator.MIDSTREAM_BRANCH);
+      }
+
+      // Prepare the target dir of a previous run, the repository is cloned and fetched
+      preparedTargetDir = new File(workloadDir, "prepared-target");
+      GitRepository gitRepository = new JGitRepository().clone(getMidstreamRepository().toURI().toString(),
+                                                               new File(preparedTargetDir, "activemq-artemis-repo"));
+      gitRepository.remoteAdd("upstream", getUpstreamRepository().toURI().toString());
+      gitRepository.fetch("upstream", WorkloadGenerator.UPSTREAM_BRANCH);
+      for (String fileName : new String[] {WorkloadGenerator.UPSTREAM_ISSUES_FILE,
+         WorkloadGenerator.DOWNSTREAM_ISSUES_FILE, WorkloadGenerator.USERS_FILE}) {
+         FileUtils.copyFileToDirectory(new File(workloadDir, fileName), preparedTargetDir);
+      }
+
+      targetDir = new File(workloadDir, "target");
+   }
+
+   @Setup(Level.Iteration)
+   public void setUpIteration() throws Exception {
+      // Restore the midstream branch pushed by the previous run
+      try (Git midstreamGit = Git.open(getMidstreamRepository())) {
+         RefUpdate refUpdate = midstreamGit.getRepository().updateRef(Constants.R_HEADS + WorkloadGenerator.MIDSTREAM_BRANCH);
+         refUpdate.setNewObjectId(midstreamTip);
+         refUpdate.setForceUpdate(true);
+         refUpdate.update();
+      }
+
+      FileUtils.deleteDirectory(targetDir);
+      FileUtils.copyDirectory(preparedTargetDir, targetDir);
+   }
+
+   @TearDown
+   public void tearDown() throws Exception {
+      FileUtils.deleteDirectory(workloadDir);
+   }
+
+   private File getUpstreamRepository() {
+      return new File(workloadDir, WorkloadGenerator.UPSTREAM_REPOSITORY);
+   }
+
+   private File getMidstreamRepository() {
+      return new File(workloadDir, WorkloadGenerator.MIDSTREAM_REPOSITORY);
+   }
+
+   @Benchmark
+   public void run() throws Exception {
+      App.main(new String[] {
+         "--target-dir", targetDir.getPath(),
+         "--upstream-repository", getUpstreamRepository().toURI().toString(),
+         "--midstream-repository", getMidstreamRepository().toURI().toString(),
+         "--assignee", WorkloadGenerator.ASSIGNEE,
+         "--release", WorkloadGenerator.RELEASE,
+         "--qualifier", WorkloadGenerator.QUALIFIER,
+         "--upstream-branch", WorkloadGenerator.UPSTREAM_BRANCH,
+         "--midstream-branch", WorkloadGenerator.MIDSTREAM_BRANCH,
+         "--commit-task-parallelism", Integer.toString(parallelism),
+         "--skip-commit-test"});
+   }
+}
@@ -0,0 +1,100 @@
+package com.redhat.midstream.updater;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.eclipse.jgit.api.Git;
+import org.eclipse.jgit.revwalk.RevCommit;
+import org.eclipse.jgit.revwalk.RevWalk;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Compares the commit message scanner with the previous regular expression chain over the
+ * messages of the ARTEMIS repository, i.e.
+ * java -jar benchmarks/target/benchmarks.jar CommitMetadataBenchmark -p repository=target/activemq-artemis-repo
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class CommitMetadataBenchmark {
+   private final static Pattern upstreamIssuePattern = Pattern.compile("ARTEMIS-[0-9]+");
+   private final static Pattern cherryPickedCommitPattern = Pattern.compile("cherry picked from commit ([0-9a-f]{40})");
+   private final static Pattern prepareReleaseCommitPattern = Pattern.compile("Prepare release ([0-9]+\\.[0-9]+\\.[0-9]+.[0-9A-Za-z]+)");
+
+   @Param("target/activemq-artemis-repo")
+   private String repository;
+
+   @Param("HEAD")
+   private String revision;
+
+   private List<String> subjects;
+   private List<String> messages;
+
+   @Setup
+   public void setUp() throws Exception {
+      subjects = new ArrayList<>();
+      messages = new ArrayList<>();
+
+      try (Git git = Git.open(new File(repository)); RevWalk revWalk = new RevWalk(git.getRepository())) {
+         revWalk.markStart(revWalk.parseCommit(git.getRepository().resolve(revision)));
+         for (RevCommit commit : revWalk) {
+            subjects.add(commit.getShortMessage());
+            messages.add(commit.getFullMessage());
+         }
+      }
+   }
+
+   @Benchmark
+   public void regexChain(Blackhole blackhole) {
+      for (int i = 0; i < messages.size(); i++) {
+         String subject = subjects.get(i);
+
+         // Matched once in App and twice in CommitProcessor
+         Matcher upstreamIssueMatcher = upstreamIssuePattern.matcher(subject);
+         if (upstreamIssueMatcher.find()) {
+            blackhole.consume(upstreamIssueMatcher.group());
+            blackhole.consume(upstreamIssueMatcher.find());
+         }
+         blackhole.consume(upstreamIssuePattern.matcher(subject).find());
+         blackhole.consume(subject.startsWith("NO-JIRA"));
+
+         Matcher prepareReleaseCommitMatcher = prepareReleaseCommitPattern.matcher(subject);
+         if (prepareReleaseCommitMatcher.find()) {
+            blackhole.consume(prepareReleaseCommitMatcher.group(1));
+         } else if (subject.startsWith("7.8.")) {
+            blackhole.consume(subject);
+         }
+
+         Matcher cherryPickedCommitMatcher = cherryPickedCommitPattern.matcher(messages.get(i));
+         if (cherryPickedCommitMatcher.find()) {
+            blackhole.consume(cherryPickedCommitMatcher.group(1));
+         }
+      }
+   }
+
+   @Benchmark
+   public void scanner(Blackhole blackhole) {
+      CommitMetadataScanner scanner = new CommitMetadataScanner("ARTEMIS");
+      for (String message : messages) {
+         blackhole.consume(scanner.scan(message));
+      }
+   }
+}
@@ -0,0 +1,402 @@
+package com.redhat.midstream.updater;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TimeZone;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.redhat.midstream.updater.git.CherryPickCheck;
+import com.redhat.midstream.updater.git.CherryPickConflictMemo;
+import com.redhat.midstream.updater.git.CommitIndex;
+import com.redhat.midstream.updater.git.GitCommit;
+import com.redhat.midstream.updater.git.GitRepository;
+import com.redhat.midstream.updater.git.LogFilter;
+import com.redhat.midstream.updater.issues.InMemoryIssueManager;
+import com.redhat.midstream.updater.issues.Issue;
+import com.redhat.midstream.updater.issues.IssueManager;
+import com.redhat.midstream.updater.issues.IssueState;
+import com.redhat.midstream.updater.issues.IssueType;
+import org.apache.commons.io.FileUtils;
+import org.eclipse.jgit.lib.Constants;
+import org.eclipse.jgit.lib.ObjectId;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Measures the processing of the upstream commits against in-memory issues and repository,
+ * so only the journal and the pending commits are written to the disk, i.e.
+ * java -jar benchmarks/target/benchmarks.jar CommitProcessorBenchmark -prof gc
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Dorg.slf4j.simpleLogger.log.com.redhat.midstream.updater=error")
+public class CommitProcessorBenchmark {
+   private static final ReleaseVersion CANDIDATE_RELEASE_VERSION = new ReleaseVersion("7.11.0.CR1");
+   private static final Date COMMIT_WHEN = new Date(1672531200000L);
+
+   @Param("1000")
+   private int commits;
+
+   @Param("4")
+   private int parallelism;
+
+   private List<GitCommit> upstreamCommits;
+   private CommitIndex upstreamCommitIndex;
+   private Map<ObjectId, CherryPickedCommit> cherryPickedCommits;
+   private IssueManager upstreamIssueManager;
+   private IssueManager downstreamIssueManager;
+   private AssigneeResolver assigneeResolver;
+   private GitRepository gitRepository;
+   private CommitTaskScheduler commitTaskScheduler;
+   private File workDir;
+
+   @Setup
+   public void setUp() throws Exception {
+      User[] users = new User[10];
+      for (int i = 0; i < users.length; i++) {
+         users[i] = new User().setUsername("user" + i).setUpstreamUsername("upstream" + i)
+            .setDownstreamUsername("downstream" + i).setEmailAddresses(new String[] {"user" + i + "@example.com"});
+      }
+      UserResolver userResolver = new UserResolver(users);
+      assigneeResolver = new AssigneeResolver(userResolver, users[0]);
+
+      upstreamCommits = new ArrayList<>();
+      upstreamCommitIndex = new CommitIndex();
+      cherryPickedCommits = new HashMap<>();
+      workDir = Files.createTempDirectory("commit-processor").toFile();
+
+      // The issue tasks are never confirmed, so no mutation is recorded
+      upstreamIssueManager = new InMemoryIssueManager("ARTEMIS", new File(workDir, "upstream-issue-mutations.jsonl"));
+      downstreamIssueManager = new InMemoryIssueManager("ENTMQBR", new File(workDir, "downstream-issue-mutations.jsonl"));
+
+      // Mix skipped commits, commits without downstream issues, commits to cherry-pick
+      // with and without the required target release and commits already cherry-picked
+      for (int i = 1; i <= commits; i++) {
+         String upstreamIssueKey = "ARTEMIS-" + (1000 + i);
+         String downstreamIssueKey = "ENTMQBR-" + (1000 + i);
+         String subject = (i % 10 == 0 ? "NO-JIRA" : upstreamIssueKey) + " Fix the broker component " + i;
+
+         FakeGitCommit upstreamCommit = new FakeGitCommit(newObjectId("upstream-" + i),
+            subject + "\n\nChange the broker component " + i + " and its test.\n", "user" + (i % 12) + "@example.com");
+         upstreamCommits.add(upstreamCommit);
+         upstreamCommitIndex.add(upstreamCommit);
+
+         Issue upstreamIssue = new Issue().setKey(upstreamIssueKey).setType(IssueType.BUG).setState(IssueState.CLOSED)
+            .setSummary(subject).setDescription("The broker component " + i + " fails.")
+            .setAssignee("upstream" + (i % 12)).setReporter("upstream" + (i % 5)).setCreator("upstream" + (i % 5));
+         upstreamIssueManager.cacheIssue(upstreamIssue);
+
+         if (i % 4 != 0) {
+            Issue downstreamIssue = new Issue().setKey(downstreamIssueKey).setType(IssueType.BUG).setState(IssueState.IN_PROGRESS)
+               .setSummary(subject).setDescription("The broker component " + i + " fails.")
+               .setAssignee("downstream" + (i % 10)).setReporter("downstream" + (i % 3)).setCreator("downstream" + (i % 3))
+               .setTargetRelease(i % 4 == 2 ? "AMQ 7.10.2.GA" : "AMQ 7.11.0.GA")
+               .setCustomer(true).setCustomerPriority(CustomerPriority.HIGH).setSecurityImpact(SecurityImpact.NONE);
+            downstreamIssue.getIssues().add(upstreamIssueKey);
+            downstreamIssueManager.cacheIssue(downstreamIssue);
+            upstreamIssue.getIssues().add(downstreamIssueKey);
+
+            if (i % 4 == 3) {
+               cherryPickedCommits.put(upstreamCommit.getId(), new CherryPickedCommit(
+                  CANDIDATE_RELEASE_VERSION, newObjectId("downstream-" + i).getName(), 1));
+            }
+         }
+      }
+
+      gitRepository = new FakeGitRepository();
+      commitTaskScheduler = new CommitTaskScheduler(parallelism, parallelism * 16);
+   }
+
+   @TearDown
+   public void tearDown() throws Exception {
+      commitTaskScheduler.close();
+      FileUtils.deleteDirectory(workDir);
+   }
+
+   @Benchmark
+   public void process(Blackhole blackhole) throws Exception {
+      // A new journal for each run because the journaled commits are not processed again
+      RunJournal runJournal = new RunJournal(new File(workDir, "run-journal.jsonl"));
+      CommitPusher commitPusher = new CommitPusher(gitRepository, "origin", "main", 10, 0,
+                                                   new File(workDir, "pending-commits.json"));
+      CommitProcessor commitProcessor = new CommitProcessor(gitRepository, CANDIDATE_RELEASE_VERSION, false,
+         upstreamIssueManager, downstreamIssueManager, assigneeResolver, upstreamCommitIndex,
+         new CommitMetadataScanner("ARTEMIS"), new ConcurrentHashMap<>(cherryPickedCommits),
+         new CherryPickConflictMemo(), commitPusher, commitTaskScheduler, runJournal, new ConfirmedTaskStore(),
+         null, null, CustomerPriority.LOW, SecurityImpact.LOW, true, false, true);
+
+      try {
+         List<CompletableFuture<Commit>> commitFutures = new ArrayList<>(upstreamCommits.size());
+         for (GitCommit upstreamCommit : upstreamCommits) {
+            commitFutures.add(commitProcessor.process(upstreamCommit));
+         }
+         commitProcessor.flush();
+
+         for (CompletableFuture<Commit> commitFuture : commitFutures) {
+            blackhole.consume(commitFuture.join());
+         }
+      } finally {
+         runJournal.delete();
+      }
+   }
+
+   private static ObjectId newObjectId(String seed) {
+      return ObjectId.fromRaw(Constants.newMessageDigest().digest(seed.getBytes(StandardCharsets.UTF_8)));
+   }
+
+   private static class FakeGitCommit implements GitCommit {
+      private final ObjectId id;
+      private final String fullMessage;
+      private final String email;
+
+      FakeGitCommit(ObjectId id, String fullMessage, String email) {
+         this.id = id;
+         this.fullMessage = fullMessage;
+         this.email = email;
+      }
+
+      @Override
+      public String getFullMessage() {
+         return fullMessage;
+      }
+
+      @Override
+      public ObjectId getId() {
+         return id;
+      }
+
+      @Override
+      public String getName() {
+         return id.getName();
+      }
+
+      @Override
+      public String getAuthorName() {
+         return email.substring(0, email.indexOf('@'));
+      }
+
+      @Override
+      public String getAuthorEmail() {
+         return email;
+      }
+
+      @Override
+      public Date getAuthorWhen() {
+         return COMMIT_WHEN;
+      }
+
+      @Override
+      public TimeZone getAuthorTimeZone() {
+         return TimeZone.getTimeZone("UTC");
+      }
+
+      @Override
+      public String getCommitterName() {
+         return getAuthorName();
+      }
+
+      @Override
+      public String getCommitterEmail() {
+         return email;
+      }
+
+      @Override
+      public Date getCommitterWhen() {
+         return COMMIT_WHEN;
+      }
+
+      @Override
+      public TimeZone getCommitterTimeZone() {
+         return TimeZone.getTimeZone("UTC");
+      }
+
+      @Override
+      public String getShortMessage() {
+         return fullMessage.substring(0, fullMessage.indexOf('\n'));
+      }
+   }
+
+   /**
+    * Serves the changed files of the upstream commits and cherry-picks them in-core.
+    */
+   private static class FakeGitRepository implements GitRepository {
+      private static final List<String> CHANGED_TESTS = Collections.singletonList(
+         "tests/integration-tests/src/test/java/org/apache/activemq/artemis/tests/integration/BrokerComponentTest.java");
+
+      private final AtomicLong cherryPickCount = new AtomicLong();
+      private final GitCommit head = new FakeGitCommit(newObjectId("head"), "Head\n", "user0@example.com");
+
+      @Override
+      public File getDirectory() {
+         throw new UnsupportedOperationException();
+      }
+
+      @Override
+      public GitRepository open(File dir) {
+         throw new UnsupportedOperationException();
+      }
+
+      @Override
+      public GitRepository clone(String uri, File dir) {
+         throw new UnsupportedOperationException();
+      }
+
+      @Override
+      public GitRepository init(File dir, File mirrorDir) {
+         throw new UnsupportedOperationException();
+      }
+
+      @Override
+      public GitCommit resolveCommit(String name) {
+         return head;
+      }
+
+      @Override
+      public List<GitCommit> resolveCommits(List<String> names) {
+         throw new UnsupportedOperationException();
+      }
+
+      @Override
+      public boolean isAncestor(String ancestor, String descendant) {
+         throw new UnsupportedOperationException();
+      }
+
+      @Override
+      public String getMergeBase(String revisionX, String revisionY) {
+         throw new UnsupportedOperationException();
+      }
+
+      @Override
+      public boolean cherryPick(GitCommit commit) {
+         throw new UnsupportedOperationException();
+      }
+
+      @Override
+      public void resetHard() {
+         throw new UnsupportedOperationException();
+      }
+
+      @Override
+      public void resetHard(String revision) {
+         throw new UnsupportedOperationException();
+      }
+
+      @Override
+      public GitCommit cherryPickCommit(GitCommit commit, String message, String authorName, String authorEmail,
+                                        Date authorWhen, TimeZone authorTimezone, String committerName, String committerEmail) {
+         return new FakeGitCommit(newObjectId(commit.getName() + cherryPickCount.incrementAndGet()), message, authorEmail);
+      }
+
+      @Override
+      public List<String> getChangedFiles(GitCommit commit) {
+         throw new UnsupportedOperationException();
+      }
+
+      @Override
+      public List<String> getChangedFiles(GitCommit commit, String pathSuffix) {
+         return commit.getId().getFirstByte() % 2 == 0 ? CHANGED_TESTS : Collections.emptyList();
+      }
+
+      @Override
+      public Map<String, String> getPatchIds(Collection<GitCommit> commits) {
+         throw new UnsupportedOperationException();
+      }
+
+      @Override
+      public Map<String, int[]> getMinHashSignatures(Collection<GitCommit> commits) {
+         throw new UnsupportedOperationException();
+      }
+
+      @Override
+      public Map<String, String> getChangedBlobIds(GitCommit commit, String revision) {
+         Map<String, String> changedBlobIds = new HashMap<>();
+         changedBlobIds.put(CHANGED_TESTS.get(0), commit.getName());
+         return changedBlobIds;
+      }
+
+      @Override
+      public List<CherryPickCheck> checkCherryPicks(String revision, List<GitCommit> commits) {
+         throw new UnsupportedOperationException();
+      }
+
+      @Override
+      public GitCommit commit(String message, String authorName, String authorEmail, Date authorWhen,
+                              TimeZone authorTimezone, String committerName, String committerEmail) {
+         throw new UnsupportedOperationException();
+      }
+
+      @Override
+      public void push(String remote, String name) {
+      }
+
+      @Override
+      public void fetch(String remote, String... branches) {
+         throw new UnsupportedOperationException();
+      }
+
+      @Override
+      public void fetchBundle(File bundleFile) {
+         throw new UnsupportedOperationException();
+      }
+
+      @Override
+      public void remoteAdd(String name, String uri) {
+         throw new UnsupportedOperationException();
+      }
+
+      @Override
+      public boolean branchExists(String name) {
+         throw new UnsupportedOperationException();
+      }
+
+      @Override
+      public void branchCreate(String name, String startPoint) {
+         throw new UnsupportedOperationException();
+      }
+
+      @Override
+      public void branchDelete(String name) {
+         throw new UnsupportedOperationException();
+      }
+
+      @Override
+      public void checkout(String name) {
+         throw new UnsupportedOperationException();
+      }
+
+      @Override
+      public Iterable<GitCommit> log(String addStart, String... notStarts) {
+         throw new UnsupportedOperationException();
+      }
+
+      @Override
+      public Iterable<GitCommit> log(LogFilter filter, String addStart, String... notStarts) {
+         throw new UnsupportedOperationException();
+      }
+   }
+}
@@ -0,0 +1,64 @@
+package com.redhat.midstream.updater;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Compares the release comparison that parses both releases on every call with the comparison
+ * of the registered release versions, i.e.
+ * java -jar benchmarks/target/benchmarks.jar ReleaseVersionBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class ReleaseVersionBenchmark {
+
+   private List<String> releases;
+
+   @Setup
+   public void setUp() {
+      releases = new ArrayList<>();
+      for (int minor = 8; minor <= 12; minor++) {
+         for (int patch = 0; patch <= 5; patch++) {
+            releases.add("AMQ 7." + minor + "." + patch + ".GA");
+            releases.add("7." + minor + "." + patch + ".CR" + (patch + 1));
+         }
+      }
+   }
+
+   @Benchmark
+   public void parsedCompare(Blackhole blackhole) {
+      for (String releaseX : releases) {
+         for (String releaseY : releases) {
+            blackhole.consume(new ReleaseVersion(releaseX).compareTo(new ReleaseVersion(releaseY)));
+            blackhole.consume(new ReleaseVersion(releaseX).compareWithoutQualifierTo(new ReleaseVersion(releaseY)));
+         }
+      }
+   }
+
+   @Benchmark
+   public void registeredCompare(Blackhole blackhole) {
+      for (String releaseX : releases) {
+         for (String releaseY : releases) {
+            blackhole.consume(ReleaseVersion.compare(releaseX, releaseY));
+            blackhole.consume(ReleaseVersion.compareWithoutQualifier(releaseX, releaseY));
+         }
+      }
+   }
+}
@@ -0,0 +1,81 @@
+package com.redhat.midstream.updater;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Measures the user lookups of the assignee resolution, a quarter of them missing, i.e.
+ * java -jar benchmarks/target/benchmarks.jar UserResolverBenchmark -prof gc
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class UserResolverBenchmark {
+
+   @Param("200")
+   private int users;
+
+   private UserResolver userResolver;
+   private List<String> emailAddresses;
+   private List<String> upstreamUsernames;
+   private List<String> downstreamUsernames;
+
+   @Setup
+   public void setUp() {
+      User[] usersArray = new User[users];
+      for (int i = 0; i < users; i++) {
+         usersArray[i] = new User().setUsername("user" + i)
+            .setUpstreamUsername("upstream" + i)
+            .setDownstreamUsername("downstream" + i)
+            .setEmailAddresses(new String[] {"user" + i + "@example.com", "User." + i + "@Example.org"});
+      }
+      userResolver = new UserResolver(usersArray);
+
+      Random random = new Random(0);
+      emailAddresses = new ArrayList<>();
+      upstreamUsernames = new ArrayList<>();
+      downstreamUsernames = new ArrayList<>();
+      for (int i = 0; i < users * 4 / 3; i++) {
+         emailAddresses.add(random.nextBoolean() ? "user" + i + "@example.com" : "user." + i + "@example.org");
+         upstreamUsernames.add("upstream" + i);
+         downstreamUsernames.add("downstream" + i);
+      }
+      Collections.shuffle(emailAddresses, random);
+      Collections.shuffle(upstreamUsernames, random);
+      Collections.shuffle(downstreamUsernames, random);
+   }
+
+   @Benchmark
+   public void getUserFromEmailAddress(Blackhole blackhole) {
+      for (String emailAddress : emailAddresses) {
+         blackhole.consume(userResolver.getUserFromEmailAddress(emailAddress));
+      }
+   }
+
+   @Benchmark
+   public void getUserFromUsernames(Blackhole blackhole) {
+      for (int i = 0; i < upstreamUsernames.size(); i++) {
+         blackhole.consume(userResolver.getUserFromUpstreamUsername(upstreamUsernames.get(i)));
+         blackhole.consume(userResolver.getUserFromDownstreamUsername(downstreamUsernames.get(i)));
+      }
+   }
+}
@@ -0,0 +1,536 @@
+package com.redhat.midstream.updater;
+
+import java.io.File;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TimeZone;
+import java.util.TreeMap;
+
+import com.google.gson.GsonBuilder;
+import com.redhat.midstream.updater.issues.Issue;
+import com.redhat.midstream.updater.issues.IssueState;
+import com.redhat.midstream.updater.issues.IssueType;
+import com.redhat.midstream.updater.issues.JiraIssueManager;
+import org.apache.commons.io.FileUtils;
+import org.eclipse.jgit.api.Git;
+import org.eclipse.jgit.internal.storage.file.ObjectDirectory;
+import org.eclipse.jgit.lib.CommitBuilder;
+import org.eclipse.jgit.lib.Constants;
+import org.eclipse.jgit.lib.FileMode;
+import org.eclipse.jgit.lib.ObjectId;
+import org.eclipse.jgit.lib.ObjectInserter;
+import org.eclipse.jgit.lib.PersonIdent;
+import org.eclipse.jgit.lib.RefUpdate;
+import org.eclipse.jgit.lib.Repository;
+import org.eclipse.jgit.lib.TreeFormatter;
+
+/**
+ * Generates an upstream repository, a midstream repository with the cherry-picks of part of the
+ * upstream commits, the upstream and downstream issues related to the commits and the users, i.e.
+ * java -cp benchmarks/target/benchmarks.jar com.redhat.midstream.updater.WorkloadGenerator target/workload 10000
+ *
+ * Every upstream commit changes a slot of a component and optionally of its test, the slots are
+ * separated by unchanged lines so only the commits that change the slot of a commit not
+ * cherry-picked conflict when they are cherry-picked.
+ */
+public class WorkloadGenerator {
+   public static final String UPSTREAM_REPOSITORY = "upstream.git";
+   public static final String MIDSTREAM_REPOSITORY = "midstream.git";
+   public static final String UPSTREAM_BRANCH = "main";
+   public static final String MIDSTREAM_BRANCH = "2.28.0.jbossorg-x";
+   public static final String UPSTREAM_ISSUES_FILE = "upstream-issues.json";
+   public static final String DOWNSTREAM_ISSUES_FILE = "downstream-issues.json";
+   public static final String USERS_FILE = "users.json";
+   public static final String RELEASE = "AMQ 7.11.0.GA";
+   public static final String QUALIFIER = "CR1";
+   public static final String ASSIGNEE = "user0";
+
+   private static final int COMMITS_PER_COMPONENT = 20;
+   private static final int COMPONENTS_PER_MODULE = 50;
+   private static final long BASE_TIME = 1577836800000L;
+   private static final long COMMIT_INTERVAL = 600000L;
+   private static final String PACKAGE_PATH = "src/main/java/org/apache/activemq/artemis/";
+   private static final String TEST_PACKAGE_PATH = "src/test/java/org/apache/activemq/artemis/";
+   private static final String FUTURE_GA_RELEASE = "AMQ Future GA";
+   private static final String[] DOWNSTREAM_LABELS = {"CR1", "CR2", "upstream-test-coverage", "no-testing-needed", "regression"};
+
+   private int commits = 1000;
+   private double cherryPickRatio = 0.3;
+   private double trailerRatio = 0.9;
+   private double conflictRatio = 0.02;
+   private double testRatio = 0.4;
+   private double noIssueRatio = 0.05;
+   private double sharedIssueRatio = 0.1;
+   private double linkRatio = 0.4;
+   private int releaseInterval = 100;
+   private int users = 20;
+   private long seed = 0;
+
+   private Random random;
+   private List<Component> components;
+   private TreeNode upstreamTree;
+   private TreeNode midstreamTree;
+   private JiraIssueManager upstreamIssueManager;
+   private JiraIssueManager downstreamIssueManager;
+   private int downstreamIssueCount;
+
+   public int getCommits() {
+      return commits;
+   }
+
+   public WorkloadGenerator setCommits(int commits) {
+      this.commits = commits;
+      return this;
+   }
+
+   public double getCherryPickRatio() {
+      return cherryPickRatio;
+   }
+
+   public WorkloadGenerator setCherryPickRatio(double cherryPickRatio) {
+      this.cherryPickRatio = cherryPickRatio;
+      return this;
+   }
+
+   public double getTrailerRatio() {
+      return trailerRatio;
+   }
+
+   public WorkloadGenerator setTrailerRatio(double trailerRatio) {
+      this.trailerRatio = trailerRatio;
+      return this;
+   }
+
+   public double getConflictRatio() {
+      return conflictRatio;
+   }
+
+   public WorkloadGenerator setConflictRatio(double conflictRatio) {
+      this.conflictRatio = conflictRatio;
+      return this;
+   }
+
+   public double getTestRatio() {
+      return testRatio;
+   }
+
+   public WorkloadGenerator setTestRatio(double testRatio) {
+      this.testRatio = testRatio;
+      return this;
+   }
+
+   public double getNoIssueRatio() {
+      return noIssueRatio;
+   }
+
+   public WorkloadGenerator setNoIssueRatio(double noIssueRatio) {
+      this.noIssueRatio = noIssueRatio;
+      return this;
+   }
+
+   public double getSharedIssueRatio() {
+      return sharedIssueRatio;
+   }
+
+   public WorkloadGenerator setSharedIssueRatio(double sharedIssueRatio) {
+      this.sharedIssueRatio = sharedIssueRatio;
+      return this;
+   }
+
+   public double getLinkRatio() {
+      return linkRatio;
+   }
+
+   public WorkloadGenerator setLinkRatio(double linkRatio) {
+      this.linkRatio = linkRatio;
+      return this;
+   }
+
+   public int getReleaseInterval() {
+      return releaseInterval;
+   }
+
+   public WorkloadGenerator setReleaseInterval(int releaseInterval) {
+      this.releaseInterval = releaseInterval;
+      return this;
+   }
+
+   public int getUsers() {
+      return users;
+   }
+
+   public WorkloadGenerator setUsers(int users) {
+      this.users = users;
+      return this;
+   }
+
+   public long getSeed() {
+      return seed;
+   }
+
+   public WorkloadGenerator setSeed(long seed) {
+      this.seed = seed;
+      return this;
+   }
+
+   public static void main(String[] args) throws Exception {
+      if (args.length < 1) {
+         throw new IllegalArgumentException("Usage: WorkloadGenerator <dir> [<commits>]");
+      }
+
+      WorkloadGenerator workloadGenerator = new WorkloadGenerator();
+      if (args.length > 1) {
+         workloadGenerator.setCommits(Integer.parseInt(args[1]));
+      }
+      workloadGenerator.generate(new File(args[0]));
+   }
+
+   public void generate(File dir) throws Exception {
+      if (dir.exists()) {
+         FileUtils.deleteDirectory(dir);
+      }
+      dir.mkdirs();
+
+      random = new Random(seed);
+      components = new ArrayList<>();
+      upstreamTree = new TreeNode();
+      midstreamTree = new TreeNode();
+      upstreamIssueManager = new JiraIssueManager(null, null, "ARTEMIS");
+      downstreamIssueManager = new JiraIssueManager(null, null, "ENTMQBR");
+      downstreamIssueCount = 0;
+
+      int componentCount = Math.max(8, (commits + COMMITS_PER_COMPONENT - 1) / COMMITS_PER_COMPONENT);
+      for (int i = 0; i < componentCount; i++) {
+         components.add(new Component(i, COMMITS_PER_COMPONENT * 2));
+      }
+
+      try (Repository upstreamRepository = createRepository(new File(dir, UPSTREAM_REPOSITORY), UPSTREAM_BRANCH);
+           Repository midstreamRepository = createRepository(new File(dir, MIDSTREAM_REPOSITORY), MIDSTREAM_BRANCH);
+           ObjectInserter upstreamInserter = ((ObjectDirectory)upstreamRepository.getObjectDatabase()).newPackInserter();
+           ObjectInserter midstreamInserter = ((ObjectDirectory)midstreamRepository.getObjectDatabase()).newPackInserter()) {
+
+         // The base commit is the merge base of the upstream and midstream branches
+         putBlob(upstreamInserter, upstreamTree, "pom.xml", renderPom("2.28.0"));
+         putBlob(midstreamInserter, midstreamTree, "pom.xml", renderPom("2.28.0"));
+         for (Component component : components) {
+            putBlob(upstreamInserter, upstreamTree, component.path, component.renderSource(component.upstreamValues));
+            putBlob(midstreamInserter, midstreamTree, component.path, component.renderSource(component.midstreamValues));
+            putBlob(upstreamInserter, upstreamTree, component.testPath, component.renderTest(component.upstreamTestValues));
+            putBlob(midstreamInserter, midstreamTree, component.testPath, component.renderTest(component.midstreamTestValues));
+         }
+
+         PersonIdent baseIdent = new PersonIdent("User 0", "user0@example.com", new Date(BASE_TIME), TimeZone.getTimeZone("UTC"));
+         String baseMessage = "NO-JIRA Import the broker components\n";
+         ObjectId upstreamTip = insertCommit(upstreamInserter, upstreamTree, null, baseMessage, baseIdent, baseIdent);
+         ObjectId midstreamTip = insertCommit(midstreamInserter, midstreamTree, null, baseMessage, baseIdent, baseIdent);
+
+         Issue upstreamIssue = null;
+         int release = 0;
+         int releaseCherryPicks = 0;
+         for (int i = 1; i <= commits; i++) {
+            // Change a new slot or the slot changed by a commit not cherry-picked to conflict
+            Component component = null;
+            int slot = -1;
+            if (random.nextDouble() < conflictRatio) {
+               for (int attempt = 0; attempt < 10 && slot < 0; attempt++) {
+                  component = components.get(random.nextInt(components.size()));
+                  slot = component.getDivergentSlot(random.nextInt(component.upstreamValues.length));
+               }
+            }
+            if (slot < 0) {
+               int componentIndex = random.nextInt(components.size());
+               component = components.get(componentIndex);
+               while (component.usedSlots == component.upstreamValues.length) {
+                  componentIndex = (componentIndex + 1) % components.size();
+                  component = components.get(componentIndex);
+               }
+               slot = component.usedSlots++;
+            }
+            component.upstreamValues[slot] = i;
+
+            boolean testChanged = random.nextDouble() < testRatio;
+            putBlob(upstreamInserter, upstreamTree, component.path, component.renderSource(component.upstreamValues));
+            if (testChanged) {
+               component.upstreamTestValues[slot] = i;
+               putBlob(upstreamInserter, upstreamTree, component.testPath, component.renderTest(component.upstreamTestValues));
+            }
+
+            // Select the upstream issue, some commits share the issue of the previous commit
+            boolean noIssue = random.nextDouble() < noIssueRatio;
+            if (noIssue) {
+               upstreamIssue = null;
+            } else if (upstreamIssue == null || random.nextDouble() >= sharedIssueRatio) {
+               upstreamIssue = createUpstreamIssue(component);
+            }
+
+            int author = random.nextInt(users * 2);
+            PersonIdent authorIdent = new PersonIdent("User " + author, "user" + author + "@example.com",
+                                                      new Date(BASE_TIME + i * COMMIT_INTERVAL), TimeZone.getTimeZone("UTC"));
+            String subject = (upstreamIssue != null ? upstreamIssue.getKey() : "NO-JIRA") + " " +
+               (upstreamIssue != null ? upstreamIssue.getSummary() : "Clean up the component " + component.index);
+            String message = subject + "\n\nSet the value " + slot + " of the component " + component.index + " to " + i + ".\n";
+            upstreamTip = insertCommit(upstreamInserter, upstreamTree, upstreamTip, message, authorIdent, authorIdent);
+
+            boolean cherryPicked = random.nextDouble() < cherryPickRatio;
+            String targetRelease = "AMQ 7.10." + release + ".GA";
+            Issue downstreamIssue = null;
+            if (upstreamIssue != null) {
+               if (upstreamIssue.getIssues().size() > 0) {
+                  downstreamIssue = downstreamIssueManager.getIssue(upstreamIssue.getIssues().get(0));
+               } else if (cherryPicked) {
+                  downstreamIssue = createDownstreamIssue(upstreamIssue, targetRelease, true);
+               } else if (random.nextDouble() < linkRatio) {
+                  downstreamIssue = createDownstreamIssue(upstreamIssue, getRandomTargetRelease(), false);
+               }
+            }
+
+            if (cherryPicked) {
+               component.midstreamValues[slot] = i;
+               putBlob(midstreamInserter, midstreamTree, component.path, component.renderSource(component.midstreamValues));
+               if (testChanged) {
+                  component.midstreamTestValues[slot] = i;
+                  putBlob(midstreamInserter, midstreamTree, component.testPath, component.renderTest(component.midstreamTestValues));
+               }
+
+               // The cherry-picks without trailers are matched by patch id
+               String cherryPickMessage = message;
+               if (random.nextDouble() < trailerRatio) {
+                  cherryPickMessage += "\n(cherry picked from commit " + upstreamTip.getName() + ")\n";
+                  if (downstreamIssue != null) {
+                     cherryPickMessage += "\n" + CommitMetadata.DOWNSTREAM_TRAILER + ": " + downstreamIssue.getKey() + "\n";
+                  }
+               }
+               PersonIdent committerIdent = new PersonIdent("Midstream Updater", "midstream-updater@example.com",
+                                                            authorIdent.getWhen(), authorIdent.getTimeZone());
+               midstreamTip = insertCommit(midstreamInserter, midstreamTree, midstreamTip, cherryPickMessage, authorIdent, committerIdent);
+
+               // The release commit assigns its release to the previous cherry-picks
+               if (++releaseCherryPicks == releaseInterval) {
+                  String releaseVersion = "7.10." + release + "." + QUALIFIER;
+                  putBlob(midstreamInserter, midstreamTree, "pom.xml", renderPom(releaseVersion));
+                  midstreamTip = insertCommit(midstreamInserter, midstreamTree, midstreamTip,
+                                              "Prepare release " + releaseVersion + "\n", committerIdent, committerIdent);
+                  release++;
+                  releaseCherryPicks = 0;
+               }
+            }
+         }
+
+         upstreamInserter.flush();
+         midstreamInserter.flush();
+
+         updateBranch(upstreamRepository, UPSTREAM_BRANCH, upstreamTip);
+         updateBranch(midstreamRepository, MIDSTREAM_BRANCH, midstreamTip);
+      }
+
+      upstreamIssueManager.storeIssues(new File(dir, UPSTREAM_ISSUES_FILE));
+      downstreamIssueManager.storeIssues(new File(dir, DOWNSTREAM_ISSUES_FILE));
+
+      User[] usersArray = new User[users];
+      for (int i = 0; i < users; i++) {
+         usersArray[i] = new User().setUsername("user" + i)
+            .setUpstreamUsername("upstream-user" + i)
+            .setDownstreamUsername("downstream-user" + i)
+            .setEmailAddresses(new String[] {"user" + i + "@example.com"});
+      }
+      FileUtils.writeStringToFile(new File(dir, USERS_FILE), new GsonBuilder().setPrettyPrinting().create()
+         .toJson(usersArray), Charset.defaultCharset());
+   }
+
+   private Issue createUpstreamIssue(Component component) {
+      int user = random.nextInt(users * 2);
+      double typeRandom = random.nextDouble();
+      Issue issue = new Issue()
+         .setKey("ARTEMIS-" + (1000 + upstreamIssueManager.getIssues().size()))
+         .setType(typeRandom < 0.6 ? IssueType.BUG : typeRandom < 0.85 ? IssueType.IMPROVEMENT :
+            typeRandom < 0.95 ? IssueType.NEW_FEATURE : IssueType.TASK)
+         .setState(IssueState.CLOSED)
+         .setSummary("Fix the value of the component " + component.index)
+         .setDescription("The component " + component.index + " uses a wrong value.")
+         .setAssignee("upstream-user" + user)
+         .setReporter("upstream-user" + random.nextInt(users * 2))
+         .setCreator("upstream-user" + user);
+      upstreamIssueManager.cacheIssue(issue);
+
+      return issue;
+   }
+
+   private Issue createDownstreamIssue(Issue upstreamIssue, String targetRelease, boolean cherryPicked) {
+      double typeRandom = random.nextDouble();
+      boolean customer = random.nextDouble() < 0.3;
+      Issue issue = new Issue()
+         .setKey("ENTMQBR-" + (1000 + downstreamIssueCount++))
+         .setType(typeRandom < 0.7 ? IssueType.BUG : typeRandom < 0.9 ? IssueType.IMPROVEMENT : IssueType.TASK)
+         .setState(cherryPicked ? (random.nextBoolean() ? IssueState.CLOSED : IssueState.READY_FOR_REVIEW) :
+            IssueState.values()[random.nextInt(IssueState.values().length)])
+         .setSummary(upstreamIssue.getSummary())
+         .setDescription(upstreamIssue.getDescription())
+         .setAssignee(random.nextDouble() < 0.8 ? "downstream-user" + random.nextInt(users * 2) : null)
+         .setReporter("downstream-user" + random.nextInt(users * 2))
+         .setCreator("downstream-user" + random.nextInt(users * 2))
+         .setTargetRelease(targetRelease)
+         .setCustomer(customer)
+         .setCustomerPriority(customer ? CustomerPriority.values()[random.nextInt(CustomerPriority.values().length)] : CustomerPriority.NONE)
+         .setPatch(random.nextDouble() < 0.05)
+         .setSecurity(random.nextDouble() < 0.05)
+         .setSecurityImpact(SecurityImpact.NONE);
+
+      for (String label : DOWNSTREAM_LABELS) {
+         if (random.nextDouble() < (cherryPicked && label.equals(QUALIFIER) ? 0.9 : 0.15)) {
+            issue.getLabels().add(label);
+         }
+      }
+
+      issue.getIssues().add(upstreamIssue.getKey());
+      upstreamIssue.getIssues().add(issue.getKey());
+      downstreamIssueManager.cacheIssue(issue);
+
+      return issue;
+   }
+
+   private String getRandomTargetRelease() {
+      double releaseRandom = random.nextDouble();
+      if (releaseRandom < 0.5) {
+         return RELEASE;
+      } else if (releaseRandom < 0.7) {
+         return "AMQ 7.10." + random.nextInt(4) + ".GA";
+      } else if (releaseRandom < 0.85) {
+         return FUTURE_GA_RELEASE;
+      } else if (releaseRandom < 0.95) {
+         return null;
+      } else {
+         return "AMQ 7.12.0.GA";
+      }
+   }
+
+   private static Repository createRepository(File dir, String branch) throws Exception {
+      return Git.init().setBare(true).setDirectory(dir).setInitialBranch(branch).call().getRepository();
+   }
+
+   private static void updateBranch(Repository repository, String branch, ObjectId commitId) throws Exception {
+      RefUpdate refUpdate = repository.updateRef(Constants.R_HEADS + branch);
+      refUpdate.setNewObjectId(commitId);
+      refUpdate.setForceUpdate(true);
+      RefUpdate.Result result = refUpdate.update();
+      if (result != RefUpdate.Result.NEW && result != RefUpdate.Result.FORCED) {
+         throw new IllegalStateException("Error updating " + branch + ": " + result);
+      }
+   }
+
+   private static void putBlob(ObjectInserter inserter, TreeNode tree, String path, String content) throws Exception {
+      tree.put(path, inserter.insert(Constants.OBJ_BLOB, content.getBytes(StandardCharsets.UTF_8)));
+   }
+
+   private static ObjectId insertCommit(ObjectInserter inserter, TreeNode tree, ObjectId parentId, String message,
+                                        PersonIdent author, PersonIdent committer) throws Exception {
+      CommitBuilder commitBuilder = new CommitBuilder();
+      commitBuilder.setTreeId(tree.write(inserter));
+      if (parentId != null) {
+         commitBuilder.setParentId(parentId);
+      }
+      commitBuilder.setAuthor(author);
+      commitBuilder.setCommitter(committer);
+      commitBuilder.setMessage(message);
+      return inserter.insert(commitBuilder);
+   }
+
+   private static String renderPom(String version) {
+      return "<project>\n" +
+         "  <groupId>org.apache.activemq</groupId>\n" +
+         "  <artifactId>artemis-pom</artifactId>\n" +
+         "  <version>" + version + "</version>\n" +
+         "</project>\n";
+   }
+
+   private static class Component {
+      private final int index;
+      private final String path;
+      private final String testPath;
+      private final int[] upstreamValues;
+      private final int[] midstreamValues;
+      private final int[] upstreamTestValues;
+      private final int[] midstreamTestValues;
+      private int usedSlots;
+
+      Component(int index, int slots) {
+         String modulePath = String.format("artemis-module%03d/", index / COMPONENTS_PER_MODULE);
+         this.index = index;
+         this.path = modulePath + PACKAGE_PATH + "Component" + index + ".java";
+         this.testPath = modulePath + TEST_PACKAGE_PATH + "Component" + index + "Test.java";
+         this.upstreamValues = new int[slots];
+         this.midstreamValues = new int[slots];
+         this.upstreamTestValues = new int[slots];
+         this.midstreamTestValues = new int[slots];
+      }
+
+      int getDivergentSlot(int start) {
+         for (int i = 0; i < usedSlots; i++) {
+            int slot = (start + i) % usedSlots;
+            if (upstreamValues[slot] != midstreamValues[slot]) {
+               return slot;
+            }
+         }
+         return -1;
+      }
+
+      String renderSource(int[] values) {
+         return render("Component" + index, "value", values);
+      }
+
+      String renderTest(int[] values) {
+         return render("Component" + index + "Test", "expectedValue", values);
+      }
+
+      private static String render(String className, String fieldPrefix, int[] values) {
+         // Three unchanged lines between the slots to merge the changes of different slots
+         StringBuilder content = new StringBuilder();
+         content.append("package org.apache.activemq.artemis;\n\npublic class ").append(className).append(" {\n");
+         for (int slot = 0; slot < values.length; slot++) {
+            content.append("\n   // The ").append(fieldPrefix).append(" of the slot ").append(slot).append('\n');
+            content.append("   private int ").append(fieldPrefix).append(slot).append(" = ").append(values[slot]).append(";\n");
+            content.append("   // End of the slot ").append(slot).append('\n');
+         }
+         content.append("}\n");
+         return content.toString();
+      }
+   }
+
+   /**
+    * Keeps the ids of the unchanged subtrees, so only the trees on the changed paths are written.
+    */
+   private static class TreeNode {
+      private final TreeMap<String, Object> entries = new TreeMap<>();
+      private ObjectId id;
+
+      void put(String path, ObjectId blobId) {
+         int separatorIndex = path.indexOf('/');
+         if (separatorIndex < 0) {
+            entries.put(path, blobId);
+         } else {
+            TreeNode child = (TreeNode)entries.computeIfAbsent(path.substring(0, separatorIndex), name -> new TreeNode());
+            child.put(path.substring(separatorIndex + 1), blobId);
+         }
+         id = null;
+      }
+
+      ObjectId write(ObjectInserter inserter) throws Exception {
+         if (id == null) {
+            TreeFormatter treeFormatter = new TreeFormatter();
+            for (Map.Entry<String, Object> entry : entries.entrySet()) {
+               if (entry.getValue() instanceof TreeNode) {
+                  treeFormatter.append(entry.getKey(), FileMode.TREE, ((TreeNode)entry.getValue()).write(inserter));
+               } else {
+                  treeFormatter.append(entry.getKey(), FileMode.REGULAR_FILE, (ObjectId)entry.getValue());
+               }
+            }
+            id = inserter.insert(treeFormatter);
+         }
+         return id;
+      }
+   }
+}
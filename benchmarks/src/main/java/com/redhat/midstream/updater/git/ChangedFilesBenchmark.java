@@ -0,0 +1,108 @@
+package com.redhat.midstream.updater.git;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.jgit.api.Git;
+import org.eclipse.jgit.diff.DiffEntry;
+import org.eclipse.jgit.lib.ObjectReader;
+import org.eclipse.jgit.revwalk.RevCommit;
+import org.eclipse.jgit.revwalk.RevWalk;
+import org.eclipse.jgit.treewalk.AbstractTreeIterator;
+import org.eclipse.jgit.treewalk.CanonicalTreeParser;
+import org.eclipse.jgit.treewalk.EmptyTreeIterator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Compares the test discovery over the full history of the ARTEMIS repository, i.e.
+ * java -jar benchmarks/target/benchmarks.jar ChangedFilesBenchmark -p repository=target/activemq-artemis-repo
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@Fork(1)
+public class ChangedFilesBenchmark {
+   private static final String TEST_PATH = "src/test/java/";
+   private static final String TEST_SUFFIX = "Test.java";
+
+   @Param("target/activemq-artemis-repo")
+   private String repository;
+
+   @Param("HEAD")
+   private String revision;
+
+   private Git git;
+   private List<RevCommit> commits;
+
+   @Setup
+   public void setUp() throws Exception {
+      git = Git.open(new File(repository));
+      commits = new ArrayList<>();
+
+      try (RevWalk revWalk = new RevWalk(git.getRepository())) {
+         revWalk.markStart(revWalk.parseCommit(git.getRepository().resolve(revision)));
+         for (RevCommit commit : revWalk) {
+            commits.add(commit);
+         }
+      }
+   }
+
+   @TearDown
+   public void tearDown() {
+      git.close();
+   }
+
+   @Benchmark
+   public void diffCommand(Blackhole blackhole) throws Exception {
+      try (ObjectReader reader = git.getRepository().newObjectReader()) {
+         for (RevCommit commit : commits) {
+            AbstractTreeIterator oldTreeIter;
+            if (commit.getParentCount() > 0) {
+               CanonicalTreeParser oldTreeParser = new CanonicalTreeParser();
+               oldTreeParser.reset(reader, commit.getParent(0).getTree());
+               oldTreeIter = oldTreeParser;
+            } else {
+               oldTreeIter = new EmptyTreeIterator();
+            }
+            CanonicalTreeParser newTreeIter = new CanonicalTreeParser();
+            newTreeIter.reset(reader, commit.getTree());
+
+            for (DiffEntry diffEntry : git.diff().setOldTree(oldTreeIter).setNewTree(newTreeIter).call()) {
+               String diffEntryPath = diffEntry.getNewPath();
+               if (diffEntryPath.contains(TEST_PATH) && diffEntryPath.endsWith(TEST_SUFFIX)) {
+                  blackhole.consume(diffEntryPath);
+               }
+            }
+         }
+      }
+   }
+
+   @Benchmark
+   public void changeDetector(Blackhole blackhole) throws Exception {
+      try (JGitChangeDetector changeDetector = new JGitChangeDetector(git.getRepository(), TEST_SUFFIX)) {
+         for (RevCommit commit : commits) {
+            for (String changedFile : changeDetector.getChangedFiles(commit)) {
+               if (changedFile.contains(TEST_PATH)) {
+                  blackhole.consume(changedFile);
+               }
+            }
+         }
+      }
+   }
+}
@@ -0,0 +1,82 @@
+package com.redhat.midstream.updater.git;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.jgit.lib.ObjectId;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Measures the load/store of a commit cache with the patch ids and the signatures of the
+ * upstream commits, i.e.
+ * java -jar benchmarks/target/benchmarks.jar CommitCacheBenchmark -prof gc
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class CommitCacheBenchmark {
+
+   @Param("10000")
+   private int commits;
+
+   private CommitCache commitCache;
+   private File commitCacheFile;
+
+   @Setup
+   public void setUp() throws Exception {
+      Random random = new Random(0);
+      Map<String, String> patchIds = new HashMap<>();
+      Map<String, int[]> signatures = new HashMap<>();
+      for (int i = 0; i < commits; i++) {
+         String commitName = randomObjectId(random).getName();
+         patchIds.put(commitName, randomObjectId(random).getName());
+         signatures.put(commitName, random.ints(CommitSimilarityIndex.SIGNATURE_LENGTH).toArray());
+      }
+
+      commitCache = new CommitCache().putPatchIds(patchIds).putSignatures(signatures);
+      commitCacheFile = Files.createTempFile("commit-cache", ".json").toFile();
+      commitCache.store(commitCacheFile);
+   }
+
+   @TearDown
+   public void tearDown() {
+      commitCacheFile.delete();
+   }
+
+   private static ObjectId randomObjectId(Random random) {
+      byte[] raw = new byte[20];
+      random.nextBytes(raw);
+      return ObjectId.fromRaw(raw);
+   }
+
+   @Benchmark
+   public void load(Blackhole blackhole) throws Exception {
+      CommitCache loadingCommitCache = new CommitCache();
+      loadingCommitCache.load(commitCacheFile);
+      blackhole.consume(loadingCommitCache);
+   }
+
+   @Benchmark
+   public void store() throws Exception {
+      commitCache.store(commitCacheFile);
+   }
+}
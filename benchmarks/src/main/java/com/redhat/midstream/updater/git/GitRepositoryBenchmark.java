@@ -0,0 +1,102 @@
+package com.redhat.midstream.updater.git;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Compares the latency of the JGit and the native git implementations for each operation
+ * on the same local repository, i.e.
+ * java -jar benchmarks/target/benchmarks.jar GitRepositoryBenchmark -p repository=target/activemq-artemis-repo
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@Fork(1)
+public class GitRepositoryBenchmark {
+   private static final String TEST_SUFFIX = "Test.java";
+
+   @Param({"jgit", "cli"})
+   private String backend;
+
+   @Param("target/activemq-artemis-repo")
+   private String repository;
+
+   @Param("HEAD")
+   private String revision;
+
+   @Param("HEAD~1000")
+   private String base;
+
+   private GitRepository gitRepository;
+   private List<GitCommit> commits;
+   private List<String> commitNames;
+
+   @Setup
+   public void setUp() throws Exception {
+      gitRepository = "cli".equals(backend) ? new CliGitRepository() : new JGitRepository();
+      gitRepository.open(new File(repository));
+
+      commits = new ArrayList<>();
+      commitNames = new ArrayList<>();
+      for (GitCommit commit : gitRepository.log(revision, base)) {
+         commits.add(commit);
+         commitNames.add(commit.getName());
+      }
+   }
+
+   @Benchmark
+   public void log(Blackhole blackhole) throws Exception {
+      for (GitCommit commit : gitRepository.log(revision)) {
+         blackhole.consume(commit.getShortMessage());
+      }
+   }
+
+   @Benchmark
+   public void logRange(Blackhole blackhole) throws Exception {
+      for (GitCommit commit : gitRepository.log(revision, base)) {
+         blackhole.consume(commit.getShortMessage());
+      }
+   }
+
+   @Benchmark
+   public void resolveCommits(Blackhole blackhole) throws Exception {
+      blackhole.consume(gitRepository.resolveCommits(commitNames));
+   }
+
+   @Benchmark
+   public void changedFiles(Blackhole blackhole) throws Exception {
+      for (GitCommit commit : commits) {
+         blackhole.consume(gitRepository.getChangedFiles(commit, TEST_SUFFIX));
+      }
+   }
+
+   @Benchmark
+   public void changedBlobIds(Blackhole blackhole) throws Exception {
+      for (GitCommit commit : commits) {
+         blackhole.consume(gitRepository.getChangedBlobIds(commit, revision));
+      }
+   }
+
+   @Benchmark
+   public void mergeBase(Blackhole blackhole) throws Exception {
+      blackhole.consume(gitRepository.getMergeBase(revision, base));
+      blackhole.consume(gitRepository.isAncestor(base, revision));
+   }
+}
@@ -0,0 +1,67 @@
+package com.redhat.midstream.updater.issues;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Measures the mapping of the Jira state and type names parsed from the issues, i.e.
+ * java -jar benchmarks/target/benchmarks.jar IssueNameBenchmark -prof gc
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class IssueNameBenchmark {
+   private static final String[] STATE_NAMES = {"New", "Open", "Reopened", "Closed", "Resolved",
+      "In Progress", "Blocked", "Ready for Review", "To Do"};
+   private static final String[] TYPE_NAMES = {"Bug", "Dependency upgrade", "Improvement", "Enhancement",
+      "New Feature", "Wish", "Test", "Epic", "Task", "Sub-task"};
+
+   private List<String> stateNames;
+   private List<String> typeNames;
+
+   @Setup
+   public void setUp() {
+      // Copy the names because the parsed names are never the literals of the switch
+      Random random = new Random(0);
+      stateNames = new ArrayList<>();
+      typeNames = new ArrayList<>();
+      for (int i = 0; i < 100; i++) {
+         stateNames.add(new String(STATE_NAMES[i % STATE_NAMES.length].toCharArray()));
+         typeNames.add(new String(TYPE_NAMES[i % TYPE_NAMES.length].toCharArray()));
+      }
+      Collections.shuffle(stateNames, random);
+      Collections.shuffle(typeNames, random);
+   }
+
+   @Benchmark
+   public void stateFromName(Blackhole blackhole) {
+      for (String stateName : stateNames) {
+         blackhole.consume(IssueState.fromName(stateName));
+      }
+   }
+
+   @Benchmark
+   public void typeFromName(Blackhole blackhole) {
+      for (String typeName : typeNames) {
+         blackhole.consume(IssueType.fromName(typeName));
+      }
+   }
+}
@@ -0,0 +1,99 @@
+package com.redhat.midstream.updater.issues;
+
+import java.io.File;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.concurrent.TimeUnit;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import org.apache.commons.io.IOUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Measures the parsing of a search page with all the fields and the load/store of the issues
+ * cache, i.e.
+ * java -jar benchmarks/target/benchmarks.jar JiraIssueManagerBenchmark -prof gc
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Dorg.slf4j.simpleLogger.log.com.redhat.midstream.updater=error")
+public class JiraIssueManagerBenchmark {
+   private static final String SEARCH_PAGE_RESOURCE = "/jira/search-page.json";
+
+   @Param("20")
+   private int cachePages;
+
+   private String searchPage;
+   private JiraIssueManager issueManager;
+   private File issuesFile;
+
+   @Setup
+   public void setUp() throws Exception {
+      try (InputStream inputStream = JiraIssueManagerBenchmark.class.getResourceAsStream(SEARCH_PAGE_RESOURCE)) {
+         searchPage = IOUtils.toString(inputStream, StandardCharsets.UTF_8);
+      }
+
+      // Fill the cache with copies of the page issues under distinct keys
+      issueManager = new JiraIssueManager(null, null, "ENTMQBR");
+      for (int page = 0; page < cachePages; page++) {
+         for (JsonElement issueElement : JsonParser.parseString(searchPage).getAsJsonObject().getAsJsonArray("issues")) {
+            Issue issue = issueManager.parseIssue(issueElement.getAsJsonObject(), true);
+            issueManager.cacheIssue(issue.setKey(issue.getKey() + "-" + page));
+         }
+      }
+
+      issuesFile = Files.createTempFile("issues", ".json").toFile();
+      issueManager.storeIssues(issuesFile);
+   }
+
+   @TearDown
+   public void tearDown() {
+      issuesFile.delete();
+   }
+
+   @Benchmark
+   public void parseSearchPage(Blackhole blackhole) {
+      JsonObject jsonObject = JsonParser.parseString(searchPage).getAsJsonObject();
+      for (JsonElement issueElement : jsonObject.getAsJsonArray("issues")) {
+         blackhole.consume(issueManager.parseIssue(issueElement.getAsJsonObject(), true));
+      }
+   }
+
+   @Benchmark
+   public void parseSearchPageWithoutCustomFields(Blackhole blackhole) {
+      JsonObject jsonObject = JsonParser.parseString(searchPage).getAsJsonObject();
+      for (JsonElement issueElement : jsonObject.getAsJsonArray("issues")) {
+         blackhole.consume(issueManager.parseIssue(issueElement.getAsJsonObject(), false));
+      }
+   }
+
+   @Benchmark
+   public void loadIssues(Blackhole blackhole) throws Exception {
+      JiraIssueManager loadingIssueManager = new JiraIssueManager(null, null, "ENTMQBR");
+      loadingIssueManager.loadIssues(issuesFile);
+      blackhole.consume(loadingIssueManager.getIssues().size());
+   }
+
+   @Benchmark
+   public void storeIssues() throws Exception {
+      issueManager.storeIssues(issuesFile);
+   }
+}
@@ -1,10 +1,15 @@
 package com.redhat.midstream.updater;
 
-import com.google.gson.Gson;
-import com.google.gson.GsonBuilder;
+import com.redhat.midstream.updater.git.CherryPickCheck;
+import com.redhat.midstream.updater.git.CherryPickConflictMemo;
+import com.redhat.midstream.updater.git.CliGitRepository;
+import com.redhat.midstream.updater.git.CommitCache;
+import com.redhat.midstream.updater.git.CommitIndex;
 import com.redhat.midstream.updater.git.GitCommit;
 import com.redhat.midstream.updater.git.GitRepository;
+import com.redhat.midstream.updater.git.HybridGitRepository;
 import com.redhat.midstream.updater.git.JGitRepository;
+import com.redhat.midstream.updater.issues.InMemoryIssueManager;
 import com.redhat.midstream.updater.issues.Issue;
 import com.redhat.midstream.updater.issues.IssueManager;
 import com.redhat.midstream.updater.issues.JiraIssueManager;
@@ -16,23 +21,19 @@ import org.apache.commons.cli.Options;
 import org.apache.commons.cli.ParseException;
 import org.apache.commons.csv.CSVFormat;
 import org.apache.commons.csv.CSVPrinter;
-import org.apache.commons.io.FileUtils;
+import org.eclipse.jgit.lib.ObjectId;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.File;
 import java.io.FileWriter;
-import java.nio.charset.Charset;
-import java.util.AbstractMap;
-import java.util.ArrayDeque;
+import java.nio.file.Files;
 import java.util.ArrayList;
-import java.util.Deque;
+import java.util.EnumSet;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
-import java.util.stream.Collectors;
+import java.util.Set;
 
 /**
  * Hello world!
@@ -40,10 +41,9 @@ import java.util.stream.Collectors;
 public class App {
    private final static Logger logger = LoggerFactory.getLogger(App.class);
 
-   private final static Pattern cherryPickedCommitPattern = Pattern.compile("cherry picked from commit ([0-9a-f]{40})");
-   private final static Pattern prepareReleaseCommitPattern = Pattern.compile("Prepare release ([0-9]+\\.[0-9]+\\.[0-9]+.[0-9A-Za-z]+)");
 
    private static final String CONFIRMED_COMMITS_OPTION = "confirmed-commits";
+   private static final String CONFIRM_TASK_OPTION = "confirm-task";
    private static final String CONFIRMED_UPSTREAM_ISSUES_OPTION = "confirmed-upstream-issues";
    private static final String CONFIRMED_DOWNSTREAM_ISSUES_OPTION = "confirmed-downstream-issues";
    private static final String UPSTREAM_BRANCH_OPTION = "upstream-branch";
@@ -58,6 +58,24 @@ public class App {
    private static final String CHECK_INCOMPLETE_COMMITS_OPTION = "check-incomplete-commits";
    private static final String SCRATCH_OPTION = "scratch";
    private static final String SKIP_COMMIT_TEST_OPTION = "skip-commit-test";
+   private static final String CHERRY_PICK_DRY_RUN_OPTION = "cherry-pick-dry-run";
+   private static final String GIT_CLI_OPERATIONS_OPTION = "git-cli-operations";
+   private static final String GIT_MIRROR_OPTION = "git-mirror";
+   private static final String GIT_BUNDLE_OPTION = "git-bundle";
+   private static final String PUSH_BATCH_SIZE_OPTION = "push-batch-size";
+   private static final String PUSH_INTERVAL_OPTION = "push-interval";
+   private static final String COMMIT_TASK_PARALLELISM_OPTION = "commit-task-parallelism";
+   private static final String TARGET_DIR_OPTION = "target-dir";
+   private static final String UPSTREAM_REPOSITORY_OPTION = "upstream-repository";
+   private static final String MIDSTREAM_REPOSITORY_OPTION = "midstream-repository";
+   private static final String OFFLINE_OPTION = "offline";
+   private static final String REPLAY_ISSUE_MUTATIONS_OPTION = "replay-issue-mutations";
+
+   private static final String DEFAULT_UPSTREAM_REPOSITORY = "https://github.com/apache/activemq-artemis.git";
+   private static final String DEFAULT_MIDSTREAM_REPOSITORY = "https://github.com/rh-messaging/activemq-artemis.git";
+
+   private static final String UPSTREAM_ISSUES_SERVER_URL = "https://issues.apache.org/jira/rest/api/2";
+   private static final String DOWNSTREAM_ISSUES_SERVER_URL = "https://issues.redhat.com/rest/api/2";
 
 
    public static void main(String[] args) throws Exception {
@@ -70,6 +88,7 @@ public class App {
       options.addOption(createOption("m", MIDSTREAM_BRANCH_OPTION, true, true, false, "the midstream branch to cherry-pick to, i.e. 2.16.0.jbossorg-x"));
 
       options.addOption(createOption(null, CONFIRMED_COMMITS_OPTION, false, true, false, "the confirmed commits"));
+      options.addOption(createOption(null, CONFIRM_TASK_OPTION, false, true, false, "the task to append to the confirmed commits, i.e. <upstream commit>,ADD_DOWNSTREAM_ISSUE_LABEL,ENTMQBR-1234,CR1"));
       options.addOption(createOption(null, CONFIRMED_DOWNSTREAM_ISSUES_OPTION, false, true, true, "the confirmed downstream issues, commits related to other downstream issues with a different target release will be skipped"));
       options.addOption(createOption(null, CONFIRMED_UPSTREAM_ISSUES_OPTION, false, true, true, "the confirmed upstream issues, commits related to other upstream issues without a downstream issue will be skipped"));
 
@@ -81,6 +100,18 @@ public class App {
       options.addOption(createOption(null, CHECK_INCOMPLETE_COMMITS_OPTION, false, true, true, "check tasks of cherry-picked commits"));
       options.addOption(createOption(null, SCRATCH_OPTION, false, false, false, "scratch"));
       options.addOption(createOption(null, SKIP_COMMIT_TEST_OPTION, false, false, false, "skip commit test"));
+      options.addOption(createOption(null, GIT_CLI_OPERATIONS_OPTION, false, true, false, "the operations to execute with the native git command line, i.e. log,fetch"));
+      options.addOption(createOption(null, GIT_MIRROR_OPTION, false, true, false, "the local mirror to share objects with when the repository is initialized, i.e. /var/cache/activemq-artemis.git"));
+      options.addOption(createOption(null, GIT_BUNDLE_OPTION, false, true, false, "the bundle to fetch from when the repository is initialized, i.e. activemq-artemis.bundle"));
+      options.addOption(createOption(null, PUSH_BATCH_SIZE_OPTION, false, true, false, "the number of commits to push together, i.e. 10, all the commits are pushed at the end by default"));
+      options.addOption(createOption(null, PUSH_INTERVAL_OPTION, false, true, false, "the seconds after which the pending commits are pushed, i.e. 600"));
+      options.addOption(createOption(null, COMMIT_TASK_PARALLELISM_OPTION, false, true, false, "the number of commit tasks to execute concurrently, i.e. 4, the number of processors by default"));
+      options.addOption(createOption(null, CHERRY_PICK_DRY_RUN_OPTION, false, false, false, "check the cherry-picks of the pending commits before processing them"));
+      options.addOption(createOption(null, TARGET_DIR_OPTION, false, true, false, "the directory of the repository, the caches and the results, i.e. target"));
+      options.addOption(createOption(null, UPSTREAM_REPOSITORY_OPTION, false, true, false, "the upstream repository to cherry-pick from, i.e. " + DEFAULT_UPSTREAM_REPOSITORY));
+      options.addOption(createOption(null, MIDSTREAM_REPOSITORY_OPTION, false, true, false, "the midstream repository to push to, i.e. " + DEFAULT_MIDSTREAM_REPOSITORY));
+      options.addOption(createOption(null, OFFLINE_OPTION, false, false, false, "serve the issues from the caches and record their updates in the target dir without fetching and pushing commits"));
+      options.addOption(createOption(null, REPLAY_ISSUE_MUTATIONS_OPTION, false, false, false, "send the issue updates recorded in offline mode to the servers and exit"));
 
       CommandLine line = null;
       CommandLineParser parser = new DefaultParser();
@@ -142,25 +173,106 @@ public class App {
 
       boolean skipCommitTest = line.hasOption(SKIP_COMMIT_TEST_OPTION);
 
+      boolean cherryPickDryRun = line.hasOption(CHERRY_PICK_DRY_RUN_OPTION);
+
+      Set<HybridGitRepository.Operation> gitCliOperations = EnumSet.noneOf(HybridGitRepository.Operation.class);
+      if (line.hasOption(GIT_CLI_OPERATIONS_OPTION)) {
+         for (String gitCliOperation : line.getOptionValue(GIT_CLI_OPERATIONS_OPTION).split(",")) {
+            gitCliOperations.add(HybridGitRepository.Operation.valueOf(gitCliOperation.trim().toUpperCase().replace('-', '_')));
+         }
+      }
+
+      String gitMirror = line.getOptionValue(GIT_MIRROR_OPTION);
+
+      String gitBundle = line.getOptionValue(GIT_BUNDLE_OPTION);
+
+      int pushBatchSize = Integer.parseInt(line.getOptionValue(PUSH_BATCH_SIZE_OPTION, "0"));
+      int commitTaskParallelism = Integer.parseInt(line.getOptionValue(COMMIT_TASK_PARALLELISM_OPTION,
+         Integer.toString(Runtime.getRuntime().availableProcessors())));
+
+      long pushInterval = Long.parseLong(line.getOptionValue(PUSH_INTERVAL_OPTION, "0")) * 1000;
+
+      String upstreamRepository = line.getOptionValue(UPSTREAM_REPOSITORY_OPTION, DEFAULT_UPSTREAM_REPOSITORY);
+
+      String midstreamRepository = line.getOptionValue(MIDSTREAM_REPOSITORY_OPTION, DEFAULT_MIDSTREAM_REPOSITORY);
+
+      boolean offline = line.hasOption(OFFLINE_OPTION);
+
+      boolean replayIssueMutations = line.hasOption(REPLAY_ISSUE_MUTATIONS_OPTION);
+
       // Initialize target directory
-      File targetDir = new File("target");
+      File targetDir = new File(line.getOptionValue(TARGET_DIR_OPTION, "target"));
       if (!targetDir.exists()) {
-         targetDir.mkdir();
+         targetDir.mkdirs();
+      }
+
+      File upstreamIssuesFile = new File(targetDir, "upstream-issues.json");
+      File upstreamIssueMutationsFile = new File(targetDir, "upstream-issue-mutations.jsonl");
+      File downstreamIssuesFile = new File(targetDir, "downstream-issues.json");
+      File downstreamIssueMutationsFile = new File(targetDir, "downstream-issue-mutations.jsonl");
+
+      // The offline runs keep their own files so they do not affect the next online run
+      String runFilePrefix = offline ? "offline-" : "";
+      File runJournalFile = new File(targetDir, runFilePrefix + "run-journal.jsonl");
+
+
+      // Replay the issue updates recorded in offline mode
+      if (replayIssueMutations) {
+         replayIssueMutations(new InMemoryIssueManager("ARTEMIS", upstreamIssueMutationsFile),
+            new JiraIssueManager(UPSTREAM_ISSUES_SERVER_URL, upstreamIssuesAuthString, "ARTEMIS"), upstreamIssuesFile);
+         replayIssueMutations(new InMemoryIssueManager("ENTMQBR", downstreamIssueMutationsFile),
+            new JiraIssueManager(DOWNSTREAM_ISSUES_SERVER_URL, downstreamIssuesAuthString, "ENTMQBR"), downstreamIssuesFile);
+         return;
+      }
+
+      // The issue updates of an interrupted offline run are kept with its journal, the ones of
+      // a completed offline run or of a failed replay must be replayed or deleted explicitly
+      if (offline) {
+         if (!runJournalFile.exists() && (upstreamIssueMutationsFile.exists() || downstreamIssueMutationsFile.exists())) {
+            throw new IllegalStateException("The issue updates recorded in " + upstreamIssueMutationsFile + " and " + downstreamIssueMutationsFile +
+                                            " are not replayed, use --" + REPLAY_ISSUE_MUTATIONS_OPTION + " or delete them");
+         }
+      } else if (upstreamIssueMutationsFile.exists() || downstreamIssueMutationsFile.exists()) {
+         logger.warn("The issue updates recorded in offline mode are not replayed, use --" + REPLAY_ISSUE_MUTATIONS_OPTION);
       }
 
 
       // Initialize git
       GitRepository gitRepository = new JGitRepository();
+      if (gitCliOperations.size() > 0) {
+         gitRepository = new HybridGitRepository(gitRepository, new CliGitRepository(), gitCliOperations);
+      }
       File repoDir = new File(targetDir, "activemq-artemis-repo");
 
       if (repoDir.exists()) {
          gitRepository.open(repoDir);
-         gitRepository.fetch("origin");
-         gitRepository.fetch("upstream");
+      } else if (offline) {
+         throw new IllegalStateException("The repository " + repoDir + " is required in offline mode");
+      } else if (gitMirror != null || gitBundle != null) {
+         gitRepository.init(repoDir, gitMirror != null ? new File(gitMirror) : null);
+         if (gitBundle != null) {
+            gitRepository.fetchBundle(new File(gitBundle));
+         }
+         gitRepository.remoteAdd("origin", midstreamRepository);
+         gitRepository.remoteAdd("upstream", upstreamRepository);
       } else {
-         gitRepository.clone("https://github.com/rh-messaging/activemq-artemis.git", repoDir);
-         gitRepository.remoteAdd("upstream", "https://github.com/apache/activemq-artemis.git");
-         gitRepository.fetch("upstream");
+         gitRepository.clone(midstreamRepository, repoDir);
+         gitRepository.remoteAdd("upstream", upstreamRepository);
+      }
+      if (!offline) {
+         gitRepository.fetch("origin", midstreamBranch);
+         gitRepository.fetch("upstream", upstreamBranch);
+      }
+
+      // Push the commits left pending by a previous run before resetting the midstream branch, a failed
+      // push rolls back the midstream branch so it is checked out first
+      CommitPusher commitPusher = new CommitPusher(gitRepository, offline ? null : "origin", midstreamBranch,
+                                                   pushBatchSize, pushInterval, new File(targetDir, runFilePrefix + "pending-commits.json"));
+      if (gitRepository.branchExists(midstreamBranch)) {
+         gitRepository.checkout(midstreamBranch);
+         for (CommitTask rolledBackTask : commitPusher.recover()) {
+            logger.warn("Pending cherry-picked commit rolled back, it is processed again: " + rolledBackTask.getKey());
+         }
       }
 
       if (!gitRepository.branchExists(midstreamBranch)) {
@@ -171,21 +283,8 @@ public class App {
       gitRepository.checkout(midstreamBranch);
 
 
-      // Initialize gson
-      Gson gson = new GsonBuilder().setPrettyPrinting().create();
-
-
-      //Load users
-      User[] usersArray;
-      File usersFile = new File(targetDir, "users.json");
-      if (usersFile.exists()) {
-         usersArray = gson.fromJson(FileUtils.readFileToString(usersFile, Charset.defaultCharset()), User[].class);
-      } else {
-         usersArray = new User[0];
-      }
-
-      //Initialize UserResolver
-      UserResolver userResolver = new UserResolver(usersArray);
+      //Load users, they are reloaded when users.json changes
+      UserResolver userResolver = new UserResolver(new File(targetDir, "users.json"));
 
 
       //Initialize AssigneeResolver
@@ -193,9 +292,8 @@ public class App {
 
 
       // Load upstream issues
-      File upstreamIssuesFile = new File(targetDir, "upstream-issues.json");
-      IssueManager upstreamIssueManager = new JiraIssueManager(
-         "https://issues.apache.org/jira/rest/api/2", upstreamIssuesAuthString, "ARTEMIS");
+      IssueManager upstreamIssueManager = offline ? new InMemoryIssueManager("ARTEMIS", upstreamIssueMutationsFile) :
+         new JiraIssueManager(UPSTREAM_ISSUES_SERVER_URL, upstreamIssuesAuthString, "ARTEMIS");
       if (upstreamIssuesFile.exists()) {
          upstreamIssueManager.loadIssues(upstreamIssuesFile);
       } else {
@@ -204,9 +302,8 @@ public class App {
 
 
       // Load downstream issues
-      File downstreamIssuesFile = new File(targetDir, "downstream-issues.json");
-      IssueManager downstreamIssueManager = new JiraIssueManager(
-         "https://issues.redhat.com/rest/api/2", downstreamIssuesAuthString, "ENTMQBR");
+      IssueManager downstreamIssueManager = offline ? new InMemoryIssueManager("ENTMQBR", downstreamIssueMutationsFile) :
+         new JiraIssueManager(DOWNSTREAM_ISSUES_SERVER_URL, downstreamIssuesAuthString, "ENTMQBR");
       if (downstreamIssuesFile.exists()) {
          downstreamIssueManager.loadIssues(downstreamIssuesFile);
       } else {
@@ -240,61 +337,75 @@ public class App {
          downstreamIssueManager.storeIssues(downstreamIssuesFile);
       }
 
-      // Load upstream commits
-      Deque<GitCommit> upstreamCommits = new ArrayDeque<>();
-      for (GitCommit commit : gitRepository.log("upstream/" + upstreamBranch, "origin/" + midstreamBranch)) {
-         if (!commit.getShortMessage().startsWith("Merge pull request")) {
-            upstreamCommits.push(commit);
-         }
+      // Load commit cache
+      CommitCache commitCache = new CommitCache();
+      File commitCacheFile = new File(targetDir, "commit-cache.json");
+      if (commitCacheFile.exists()) {
+         commitCache.load(commitCacheFile);
       }
 
 
-      // Load cherry-picked commits
-      HashMap<String, Map.Entry<ReleaseVersion, GitCommit>> cherryPickedCommits = new HashMap<>();
-      ReleaseVersion cherryPickedReleaseVersion = candidateReleaseVersion;
-      for (GitCommit commit : gitRepository.log("origin/" + midstreamBranch, "upstream/" + upstreamBranch)) {
-         Matcher prepareReleaseCommitMatcher = prepareReleaseCommitPattern.matcher(commit.getShortMessage());
-         if (prepareReleaseCommitMatcher.find()) {
-            logger.info("prepare release commit found: " + commit.getName() + " - " + commit.getShortMessage());
-            cherryPickedReleaseVersion = new ReleaseVersion(prepareReleaseCommitMatcher.group(1));
-         } else if (commit.getShortMessage().startsWith("7.8.")) {
-            logger.info("legacy release commit found: " + commit.getName() + " - " + commit.getShortMessage());
-            cherryPickedReleaseVersion = new ReleaseVersion(commit.getShortMessage());
-         }
+      // Analyze commit ranges
+      CommitMetadataScanner commitMetadataScanner = new CommitMetadataScanner("ARTEMIS");
+      CommitRangeAnalyzer commitRangeAnalyzer = new CommitRangeAnalyzer(gitRepository, commitCache, commitMetadataScanner, candidateReleaseVersion);
+      commitRangeAnalyzer.analyze("upstream/" + upstreamBranch, "origin/" + midstreamBranch, new File(targetDir, "commit-range.json"));
+
+      List<GitCommit> upstreamCommits = commitRangeAnalyzer.getUpstreamCommits();
+      CommitIndex upstreamCommitIndex = commitRangeAnalyzer.getUpstreamCommitIndex();
+      Map<ObjectId, CherryPickedCommit> cherryPickedCommits = commitRangeAnalyzer.getCherryPickedCommits();
 
-         Matcher cherryPickedCommitMatcher = cherryPickedCommitPattern.matcher(commit.getFullMessage());
-         if (cherryPickedCommitMatcher.find()) {
-            String cherryPickedCommitName = cherryPickedCommitMatcher.group(1);
 
-            GitCommit cherryPickedCommit = upstreamCommits.stream().filter(
-               upstreamCommit -> upstreamCommit.getName().equals(cherryPickedCommitName)).findAny().orElse(null);
-            if (cherryPickedCommit == null) {
-               logger.error("cherry-picked commit not found: " + cherryPickedCommitName + " - " + commit.getShortMessage());
+      // Store commit cache
+      if (commitCache.isModified()) {
+         commitCache.store(commitCacheFile);
+      }
 
-               cherryPickedCommit = upstreamCommits.stream().filter(
-                  upstreamCommit -> upstreamCommit.getShortMessage().equals(commit.getShortMessage())).findAny().orElse(null);
 
-               if (cherryPickedCommit != null) {
-                  logger.warn("similar cherry-picked commit found: " + cherryPickedCommit.getName() + " - " + cherryPickedCommit.getShortMessage());
+      // Check cherry-picks
+      if (cherryPickDryRun) {
+         List<GitCommit> pendingCommits = new ArrayList<>();
+         for (GitCommit commit : upstreamCommits) {
+            String upstreamIssueKey = commitMetadataScanner.getSubjectMetadata(commit).getIssueKey();
+            if (!cherryPickedCommits.containsKey(commit.getId()) && upstreamIssueKey != null) {
+               Issue upstreamIssue = upstreamIssueManager.getIssue(upstreamIssueKey);
+               if (upstreamIssue != null && upstreamIssue.getIssues().size() > 0) {
+                  pendingCommits.add(commit);
                }
             }
-            
-            if (cherryPickedCommit != null) {
-               cherryPickedCommits.put(cherryPickedCommit.getName(), new AbstractMap.SimpleEntry<>(cherryPickedReleaseVersion, commit));
+         }
+
+         File cherryPickMatrixFile = new File(targetDir, "cherry-pick-matrix.csv");
+         try (CSVPrinter printer = new CSVPrinter(new FileWriter(cherryPickMatrixFile), CSVFormat.DEFAULT
+            .withHeader(new String[]{ "commit", "summary", "head", "cumulative", "conflicts"}))) {
+            for (CherryPickCheck cherryPickCheck : gitRepository.checkCherryPicks("origin/" + midstreamBranch, pendingCommits)) {
+               printer.printRecord(cherryPickCheck.getCommit().getName(), cherryPickCheck.getCommit().getShortMessage(),
+                                   cherryPickCheck.appliesOnHead(), cherryPickCheck.appliesCumulatively(),
+                                   String.join(",", cherryPickCheck.appliesOnHead() ?
+                                      cherryPickCheck.getCumulativeConflicts() : cherryPickCheck.getHeadConflicts()));
             }
          }
       }
 
 
       // Load confirmed commits
-      Map<String, Commit> confirmedCommits = new HashMap<>();
+      ConfirmedTaskStore confirmedTaskStore = new ConfirmedTaskStore();
       if (confirmedCommitsFilename != null) {
          File confirmedCommitsFile = new File(confirmedCommitsFilename);
-         Commit[] confirmedCommitsArray = gson.fromJson(FileUtils.readFileToString(
-            confirmedCommitsFile, Charset.defaultCharset()), Commit[].class);
-         for (Commit confirmedCommit : confirmedCommitsArray) {
-            confirmedCommits.put(confirmedCommit.getUpstreamCommit(), confirmedCommit);
+         if (confirmedCommitsFile.exists()) {
+            confirmedTaskStore.load(confirmedCommitsFile);
+         }
+
+         if (line.hasOption(CONFIRM_TASK_OPTION)) {
+            String[] confirmTaskFields = line.getOptionValue(CONFIRM_TASK_OPTION).split(",", 4);
+            if (confirmTaskFields.length < 3) {
+               throw new IllegalArgumentException("Invalid task to confirm: " + line.getOptionValue(CONFIRM_TASK_OPTION));
+            }
+            confirmedTaskStore.confirm(confirmedCommitsFile, confirmTaskFields[0], new CommitTask()
+               .setType(CommitTaskType.valueOf(confirmTaskFields[1])).setKey(confirmTaskFields[2])
+               .setValue(confirmTaskFields.length > 3 ? confirmTaskFields[3] : null));
          }
+      } else if (line.hasOption(CONFIRM_TASK_OPTION)) {
+         throw new IllegalArgumentException("The " + CONFIRMED_COMMITS_OPTION + " option is required to confirm a task");
       }
 
 
@@ -326,58 +437,79 @@ public class App {
       }
 
 
+      // Load cherry-pick conflict memo
+      CherryPickConflictMemo cherryPickConflictMemo = new CherryPickConflictMemo();
+      File cherryPickConflictMemoFile = new File(targetDir, "cherry-pick-conflicts.json");
+      if (cherryPickConflictMemoFile.exists()) {
+         cherryPickConflictMemo.load(cherryPickConflictMemoFile);
+      }
+
+
+      // Recover the journal of an interrupted run
+      RunJournal runJournal = new RunJournal(runJournalFile);
+      runJournal.recover();
+
+
       // Init commit parser
+      CommitTaskScheduler commitTaskScheduler = new CommitTaskScheduler(commitTaskParallelism, commitTaskParallelism * 16);
       CommitProcessor commitProcessor = new CommitProcessor(gitRepository, candidateReleaseVersion, requireReleaseIssues, upstreamIssueManager, downstreamIssueManager, assigneeResolver,
-                                                            cherryPickedCommits, confirmedCommits, confirmedUpstreamIssues, confirmedDownstreamIssues,
+                                                            upstreamCommitIndex, commitMetadataScanner, cherryPickedCommits, cherryPickConflictMemo, commitPusher, commitTaskScheduler, runJournal, confirmedTaskStore, confirmedUpstreamIssues, confirmedDownstreamIssues,
                                                             downstreamIssuesCustomerPriority, downstreamIssuesSecurityImpact, checkIncompleteCommits, scratch, skipCommitTest);
+      commitProcessor.replay();
 
 
       // Process upstream commits
-      List<Commit> commits = new ArrayList<>();
+      File commitsFile = new File(targetDir, "commits.jsonl");
+      CommitOutputWriter commitOutputWriter = new CommitOutputWriter(commitsFile, new File(targetDir, "payload.csv"), candidateReleaseVersion);
       try {
-         for (GitCommit upstreamCommit : upstreamCommits) {
+         for (CommitPlan commitPlan : commitProcessor.analyze(upstreamCommits)) {
+            GitCommit upstreamCommit = commitPlan.getUpstreamCommit();
             logger.info("Upstream commit: " + upstreamCommit.getName() + " - " + upstreamCommit.getShortMessage());
 
-            commits.add(commitProcessor.process(upstreamCommit));
+            commitOutputWriter.add(commitProcessor.execute(commitPlan));
+
+            // Rewrite the commits whose cherry-picks are rolled back after they are written
+            commitProcessor.pollRolledBackCommits().forEach(commitOutputWriter::rewrite);
          }
       } finally {
-         // Store commits
-         File commitsFile = new File(targetDir, "commits.json");
-         if (commitsFile.exists()) {
-            commitsFile.delete();
+         // Wait for the commit tasks and push pending commits
+         try {
+            commitProcessor.flush();
+         } finally {
+            commitTaskScheduler.close();
+            commitProcessor.pollRolledBackCommits().forEach(commitOutputWriter::rewrite);
          }
-         FileUtils.writeStringToFile(commitsFile, gson.toJson(commits.stream()
-            .filter(commit -> (commit.getState() != CommitState.SKIPPED && commit.getState() != CommitState.DONE) ||
-               (commit.getState() == CommitState.DONE && commit.getTasks().stream()
-                  .anyMatch(commitTask -> CommitTaskState.EXECUTED.equals(commitTask.getState()))))
-            .collect(Collectors.toList())), Charset.defaultCharset());
-         //FileUtils.writeStringToFile(commitsFile, gson.toJson(commits), Charset.defaultCharset());
-
-         // Store upstream issues
-         upstreamIssueManager.storeIssues(upstreamIssuesFile);
 
+         // Store commits
+         commitOutputWriter.close();
+         commitOutputWriter.writePrettyCommits(new File(targetDir, "commits.json"));
 
-         // Store downstream issues
-         downstreamIssueManager.storeIssues(downstreamIssuesFile);
-      }
+         // Store issues, the offline runs keep the snapshot so they are repeatable
+         if (!offline) {
+            upstreamIssueManager.storeIssues(upstreamIssuesFile);
+            downstreamIssueManager.storeIssues(downstreamIssuesFile);
+         }
 
-      File payloadFile = new File(targetDir, "payload.csv");
-      try (CSVPrinter printer = new CSVPrinter(new FileWriter(payloadFile), CSVFormat.DEFAULT
-         .withHeader(new String[]{ "state", "release", "commit", "author", "summary", "upstreamIssue", "downstreamIssues", "upstreamTestCoverage"}))) {
 
-         for (Commit commit : commits.stream()
-            .filter(commit -> (commit.getState() == CommitState.DONE && commit.getDownstreamCommit() != null &&  candidateReleaseVersion.compareWithoutQualifierTo(new ReleaseVersion(commit.getReleaseVersion())) == 0))
-            .collect(Collectors.toList())) {
-            printer.printRecord(commit.getState(), commit.getReleaseVersion(), commit.getUpstreamCommit(), commit.getAuthor(), commit.getSummary(),
-                                commit.getUpstreamIssue(), String.join(",", commit.getDownstreamIssues()), commit.getTests().size() > 0);
+         // Store cherry-pick conflict memo
+         if (cherryPickConflictMemo.isModified()) {
+            cherryPickConflictMemo.store(cherryPickConflictMemoFile);
          }
 
-         for (Commit commit : commits.stream()
-            .filter(commit -> ((commit.getState() != CommitState.SKIPPED && commit.getState() != CommitState.DONE) || (commit.getState() == CommitState.DONE && commit.getTasks().size() > 0)))
-            .collect(Collectors.toList())) {
-            printer.printRecord(commit.getState(), commit.getReleaseVersion(), commit.getUpstreamCommit(), commit.getAuthor(), commit.getSummary(),
-                                commit.getUpstreamIssue(), String.join(",", commit.getDownstreamIssues()), commit.getTests().size() > 0);
-         }
+
+         // Keep the run journal of a failed run to resume it
+         runJournal.close();
+      }
+
+      // Compact the run journal into the stored files
+      runJournal.delete();
+   }
+
+   private static void replayIssueMutations(InMemoryIssueManager offlineIssueManager, IssueManager issueManager, File issuesFile) throws Exception {
+      if (offlineIssueManager.getMutations().size() > 0) {
+         // The cached issues do not include the replayed updates, so they are loaded again by the next run
+         Files.deleteIfExists(issuesFile.toPath());
+         offlineIssueManager.replayMutations(issueManager);
       }
    }
 
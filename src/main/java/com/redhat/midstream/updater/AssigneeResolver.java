@@ -21,11 +21,17 @@ import com.redhat.midstream.updater.git.GitCommit;
 import com.redhat.midstream.updater.issues.Issue;
 
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 public class AssigneeResolver {
    private UserResolver userResolver;
    private User defaultAssignee;
 
+   // The assignees resolved by the current users, keyed by the identities they were resolved from
+   private final Map<String, User> assignees = new ConcurrentHashMap<>();
+   private volatile int assigneesGeneration;
+
    public UserResolver getUserResolver() {
       return userResolver;
    }
@@ -40,6 +46,45 @@ public class AssigneeResolver {
    }
 
    public User getAssignee(GitCommit upstreamCommit, Issue upstreamIssue, List<Issue> downstreamIssues) {
+      int generation = userResolver.getGeneration();
+      if (generation != assigneesGeneration) {
+         synchronized (assignees) {
+            if (generation != assigneesGeneration) {
+               assignees.clear();
+               assigneesGeneration = generation;
+            }
+         }
+      }
+
+      String key = getAssigneeKey(upstreamCommit, upstreamIssue, downstreamIssues);
+      User assignee = assignees.get(key);
+      if (assignee == null) {
+         assignee = resolveAssignee(upstreamCommit, upstreamIssue, downstreamIssues);
+         if (assignee != null) {
+            assignees.put(key, assignee);
+         }
+      }
+
+      return assignee;
+   }
+
+   private String getAssigneeKey(GitCommit upstreamCommit, Issue upstreamIssue, List<Issue> downstreamIssues) {
+      StringBuilder key = new StringBuilder();
+      key.append(upstreamCommit.getAuthorEmail()).append('\n').append(upstreamCommit.getCommitterEmail());
+      if (upstreamIssue != null) {
+         key.append("\nU").append(upstreamIssue.getAssignee()).append('\n').append(upstreamIssue.getReporter())
+            .append('\n').append(upstreamIssue.getCreator());
+      }
+      if (downstreamIssues != null) {
+         for (Issue downstreamIssue : downstreamIssues) {
+            key.append("\nD").append(downstreamIssue.getAssignee()).append('\n').append(downstreamIssue.getReporter())
+               .append('\n').append(downstreamIssue.getCreator());
+         }
+      }
+      return key.toString();
+   }
+
+   private User resolveAssignee(GitCommit upstreamCommit, Issue upstreamIssue, List<Issue> downstreamIssues) {
       User user;
 
       user = userResolver.getUserFromEmailAddress(upstreamCommit.getAuthorEmail());
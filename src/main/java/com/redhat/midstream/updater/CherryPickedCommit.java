@@ -0,0 +1,42 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.redhat.midstream.updater;
+
+public class CherryPickedCommit {
+   private ReleaseVersion releaseVersion;
+   private String commitName;
+   private double confidence;
+
+   public CherryPickedCommit(ReleaseVersion releaseVersion, String commitName, double confidence) {
+      this.releaseVersion = releaseVersion;
+      this.commitName = commitName;
+      this.confidence = confidence;
+   }
+
+   public ReleaseVersion getReleaseVersion() {
+      return releaseVersion;
+   }
+
+   public String getCommitName() {
+      return commitName;
+   }
+
+   public double getConfidence() {
+      return confidence;
+   }
+}
@@ -0,0 +1,75 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.redhat.midstream.updater;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The metadata extracted from a commit message by the CommitMetadataScanner.
+ */
+public class CommitMetadata {
+   public static final String DOWNSTREAM_TRAILER = "downstream";
+
+   private final String subject;
+   private final List<String> issueKeys;
+   private final String releaseVersion;
+   private final String cherryPickedCommit;
+   private final Map<String, String> trailers;
+
+   public CommitMetadata(String subject, List<String> issueKeys, String releaseVersion,
+                         String cherryPickedCommit, Map<String, String> trailers) {
+      this.subject = subject;
+      this.issueKeys = List.copyOf(issueKeys);
+      this.releaseVersion = releaseVersion;
+      this.cherryPickedCommit = cherryPickedCommit;
+      this.trailers = Map.copyOf(trailers);
+   }
+
+   public String getSubject() {
+      return subject;
+   }
+
+   public List<String> getIssueKeys() {
+      return issueKeys;
+   }
+
+   public String getIssueKey() {
+      return issueKeys.isEmpty() ? null : issueKeys.get(0);
+   }
+
+   public boolean isNoIssue() {
+      return subject.startsWith("NO-JIRA");
+   }
+
+   public String getReleaseVersion() {
+      return releaseVersion;
+   }
+
+   public String getCherryPickedCommit() {
+      return cherryPickedCommit;
+   }
+
+   public Map<String, String> getTrailers() {
+      return trailers;
+   }
+
+   public String getTrailer(String key) {
+      return trailers.get(key);
+   }
+}
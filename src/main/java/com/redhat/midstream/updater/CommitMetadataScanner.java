@@ -0,0 +1,220 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.redhat.midstream.updater;
+
+import com.redhat.midstream.updater.git.GitCommit;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Extracts the issue keys, the release marker, the cherry-pick source and the trailers of a
+ * commit message without regular expressions. The issue keys and the release marker are extracted
+ * from the subject, i.e. the first paragraph of the message, so the metadata of the upstream commits
+ * is extracted from their subject without loading their message.
+ */
+public class CommitMetadataScanner {
+   private static final String CHERRY_PICKED_PREFIX = "cherry picked from commit ";
+   private static final String PREPARE_RELEASE_PREFIX = "Prepare release ";
+   private static final String LEGACY_RELEASE_PREFIX = "7.8.";
+
+   private final String[] issueKeyPrefixes;
+
+   public CommitMetadataScanner(String... issueProjects) {
+      issueKeyPrefixes = new String[issueProjects.length];
+      for (int i = 0; i < issueProjects.length; i++) {
+         issueKeyPrefixes[i] = issueProjects[i] + "-";
+      }
+   }
+
+   public CommitMetadata getMetadata(GitCommit commit) {
+      return scan(commit.getFullMessage());
+   }
+
+   public CommitMetadata getSubjectMetadata(GitCommit commit) {
+      return scanSubject(commit.getShortMessage());
+   }
+
+   public CommitMetadata scanSubject(String subject) {
+      return new CommitMetadata(subject, scanIssueKeys(subject), scanReleaseVersion(subject), null, Collections.emptyMap());
+   }
+
+   public CommitMetadata scan(String message) {
+      int messageEnd = message.length();
+      while (messageEnd > 0 && (message.charAt(messageEnd - 1) == '\n' || message.charAt(messageEnd - 1) == '\r')) {
+         messageEnd--;
+      }
+
+      // The subject is the first paragraph, the trailers are the lines of the last paragraph
+      StringBuilder subject = new StringBuilder();
+      int lastParagraphStart = -1;
+      int lineStart = 0;
+      while (lineStart < messageEnd) {
+         int lineEnd = message.indexOf('\n', lineStart);
+         if (lineEnd < 0 || lineEnd > messageEnd) {
+            lineEnd = messageEnd;
+         }
+         int contentEnd = lineEnd > lineStart && message.charAt(lineEnd - 1) == '\r' ? lineEnd - 1 : lineEnd;
+
+         if (contentEnd == lineStart) {
+            lastParagraphStart = Math.max(message.lastIndexOf("\n\n", messageEnd - 1) + 2, lineEnd + 1);
+            break;
+         }
+
+         if (subject.length() > 0) {
+            subject.append(' ');
+         }
+         subject.append(message, lineStart, contentEnd);
+
+         lineStart = lineEnd + 1;
+      }
+
+      Map<String, String> trailers = new HashMap<>();
+      if (lastParagraphStart >= 0) {
+         for (lineStart = lastParagraphStart; lineStart < messageEnd; ) {
+            int lineEnd = message.indexOf('\n', lineStart);
+            if (lineEnd < 0 || lineEnd > messageEnd) {
+               lineEnd = messageEnd;
+            }
+            int contentEnd = lineEnd > lineStart && message.charAt(lineEnd - 1) == '\r' ? lineEnd - 1 : lineEnd;
+            scanTrailer(message, lineStart, contentEnd, trailers);
+            lineStart = lineEnd + 1;
+         }
+      }
+
+      String subjectString = subject.toString();
+
+      return new CommitMetadata(subjectString, scanIssueKeys(subjectString), scanReleaseVersion(subjectString),
+                                scanCherryPickedCommit(message), trailers);
+   }
+
+   private List<String> scanIssueKeys(String subject) {
+      List<String> issueKeys = new ArrayList<>(1);
+      int i = 0;
+      while (i < subject.length()) {
+         int issueKeyEnd = -1;
+         for (String issueKeyPrefix : issueKeyPrefixes) {
+            if (subject.startsWith(issueKeyPrefix, i)) {
+               issueKeyEnd = skipDigits(subject, i + issueKeyPrefix.length(), subject.length());
+               if (issueKeyEnd > i + issueKeyPrefix.length()) {
+                  break;
+               }
+               issueKeyEnd = -1;
+            }
+         }
+
+         if (issueKeyEnd > 0) {
+            issueKeys.add(subject.substring(i, issueKeyEnd));
+            i = issueKeyEnd;
+         } else {
+            i++;
+         }
+      }
+
+      return issueKeys;
+   }
+
+   private String scanReleaseVersion(String subject) {
+      int prefixIndex = subject.indexOf(PREPARE_RELEASE_PREFIX);
+      while (prefixIndex >= 0) {
+         int versionEnd = scanVersion(subject, prefixIndex + PREPARE_RELEASE_PREFIX.length());
+         if (versionEnd > 0) {
+            return subject.substring(prefixIndex + PREPARE_RELEASE_PREFIX.length(), versionEnd);
+         }
+         prefixIndex = subject.indexOf(PREPARE_RELEASE_PREFIX, prefixIndex + 1);
+      }
+
+      if (subject.startsWith(LEGACY_RELEASE_PREFIX)) {
+         return subject;
+      }
+
+      return null;
+   }
+
+   private int scanVersion(String text, int start) {
+      // Match major.minor.patch, any separator and the qualifier, i.e. 7.11.0.CR1
+      int end = start;
+      for (int i = 0; i < 2; i++) {
+         int digitsEnd = skipDigits(text, end, text.length());
+         if (digitsEnd == end || digitsEnd == text.length() || text.charAt(digitsEnd) != '.') {
+            return -1;
+         }
+         end = digitsEnd + 1;
+      }
+
+      // Backtrack over the patch digits as the greedy regular expression
+      int patchEnd = skipDigits(text, end, text.length());
+      for (int separator = patchEnd; separator > end; separator--) {
+         if (separator < text.length()) {
+            int qualifierEnd = separator + 1;
+            while (qualifierEnd < text.length() && Character.isLetterOrDigit(text.charAt(qualifierEnd)) &&
+               text.charAt(qualifierEnd) < 128) {
+               qualifierEnd++;
+            }
+            if (qualifierEnd > separator + 1) {
+               return qualifierEnd;
+            }
+         }
+      }
+
+      return -1;
+   }
+
+   private String scanCherryPickedCommit(String message) {
+      int prefixIndex = message.indexOf(CHERRY_PICKED_PREFIX);
+      while (prefixIndex >= 0) {
+         int nameStart = prefixIndex + CHERRY_PICKED_PREFIX.length();
+         int nameEnd = nameStart;
+         while (nameEnd < message.length() && nameEnd - nameStart < 40 && isLowerHexDigit(message.charAt(nameEnd))) {
+            nameEnd++;
+         }
+         if (nameEnd - nameStart == 40) {
+            return message.substring(nameStart, nameEnd);
+         }
+         prefixIndex = message.indexOf(CHERRY_PICKED_PREFIX, prefixIndex + 1);
+      }
+
+      return null;
+   }
+
+   private void scanTrailer(String message, int start, int end, Map<String, String> trailers) {
+      int separator = start;
+      while (separator < end && (Character.isLetterOrDigit(message.charAt(separator)) || message.charAt(separator) == '-')) {
+         separator++;
+      }
+
+      if (separator > start && separator + 1 < end && message.charAt(separator) == ':' && message.charAt(separator + 1) == ' ') {
+         trailers.put(message.substring(start, separator), message.substring(separator + 2, end).trim());
+      }
+   }
+
+   private static int skipDigits(String text, int start, int end) {
+      int i = start;
+      while (i < end && text.charAt(i) >= '0' && text.charAt(i) <= '9') {
+         i++;
+      }
+      return i;
+   }
+
+   private static boolean isLowerHexDigit(char c) {
+      return (c >= '0' && c <= '9') || (c >= 'a' && c <= 'f');
+   }
+}
@@ -0,0 +1,228 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.redhat.midstream.updater;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonParser;
+import com.google.gson.stream.JsonWriter;
+import org.apache.commons.csv.CSVFormat;
+import org.apache.commons.csv.CSVPrinter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Writes each commit to the commits JSON lines file and to the payload CSV file as soon as its tasks
+ * are completed, in the order the commits are added. A commit decided before the previous ones waits
+ * for them, so the files can be followed while the run is in progress. The pushes are not awaited,
+ * a commit whose cherry-pick is rolled back later is rewritten with a new record in the commits file.
+ */
+public class CommitOutputWriter implements AutoCloseable {
+   private final static Logger logger = LoggerFactory.getLogger(CommitOutputWriter.class);
+
+   private final static Gson gson = new Gson();
+   private final static Gson prettyGson = new GsonBuilder().setPrettyPrinting().create();
+
+   private final ReleaseVersion candidateReleaseVersion;
+   private final File commitsFile;
+   private final Writer commitsWriter;
+   private final CSVPrinter payloadPrinter;
+
+   private final Deque<PendingCommit> pendingCommits = new ArrayDeque<>();
+   private final Set<String> rewrittenCommits = new HashSet<>();
+   private IOException writeException;
+
+   public CommitOutputWriter(File commitsFile, File payloadFile, ReleaseVersion candidateReleaseVersion) throws IOException {
+      this.candidateReleaseVersion = candidateReleaseVersion;
+      this.commitsFile = commitsFile;
+      this.commitsWriter = Files.newBufferedWriter(commitsFile.toPath(), Charset.defaultCharset());
+      this.payloadPrinter = new CSVPrinter(Files.newBufferedWriter(payloadFile.toPath(), Charset.defaultCharset()), CSVFormat.DEFAULT
+         .withHeader(new String[]{ "state", "release", "commit", "author", "summary", "upstreamIssue", "downstreamIssues", "upstreamTestCoverage"}));
+   }
+
+   public synchronized void add(CompletableFuture<Commit> commitFuture) {
+      pendingCommits.add(new PendingCommit(commitFuture, false));
+      commitFuture.whenComplete((commit, throwable) -> writeDecidedCommits());
+   }
+
+   public synchronized void rewrite(Commit commit) {
+      // The decided commits are written before the rewritten ones
+      pendingCommits.add(new PendingCommit(CompletableFuture.completedFuture(commit), true));
+      rewrittenCommits.add(commit.getUpstreamCommit());
+      writeDecidedCommits();
+   }
+
+   private synchronized void writeDecidedCommits() {
+      int writtenCommitCount = 0;
+      while (!pendingCommits.isEmpty() && pendingCommits.peek().commitFuture.isDone()) {
+         PendingCommit pendingCommit = pendingCommits.poll();
+         if (pendingCommit.rewrite) {
+            rewriteCommit(pendingCommit.commitFuture.join());
+            writtenCommitCount++;
+         } else if (!pendingCommit.commitFuture.isCompletedExceptionally()) {
+            writeCommit(pendingCommit.commitFuture.join());
+            writtenCommitCount++;
+         } else {
+            pendingCommit.commitFuture.exceptionally(throwable -> {
+               logger.warn("Skipping a commit failed with " + throwable);
+               return null;
+            });
+         }
+      }
+
+      if (writtenCommitCount > 0 && writeException == null) {
+         try {
+            commitsWriter.flush();
+            payloadPrinter.flush();
+         } catch (IOException e) {
+            writeException = e;
+         }
+      }
+   }
+
+   private void writeCommit(Commit commit) {
+      if (writeException != null) {
+         return;
+      }
+
+      try {
+         if ((commit.getState() != CommitState.SKIPPED && commit.getState() != CommitState.DONE) ||
+            (commit.getState() == CommitState.DONE && commit.getTasks().stream()
+               .anyMatch(commitTask -> CommitTaskState.EXECUTED.equals(commitTask.getState())))) {
+            commitsWriter.write(gson.toJson(commit));
+            commitsWriter.write('\n');
+         }
+
+         if (commit.getState() == CommitState.DONE && commit.getDownstreamCommit() != null &&
+            candidateReleaseVersion.compareWithoutQualifierTo(ReleaseVersion.valueOf(commit.getReleaseVersion())) == 0) {
+            printPayloadRecord(commit);
+         }
+
+         if ((commit.getState() != CommitState.SKIPPED && commit.getState() != CommitState.DONE) ||
+            (commit.getState() == CommitState.DONE && commit.getTasks().size() > 0)) {
+            printPayloadRecord(commit);
+         }
+      } catch (IOException e) {
+         writeException = e;
+      }
+   }
+
+   private void rewriteCommit(Commit commit) {
+      if (writeException != null) {
+         return;
+      }
+
+      // The payload records can not be rewritten, the commits file has the last state of the commit
+      try {
+         commitsWriter.write(gson.toJson(commit));
+         commitsWriter.write('\n');
+      } catch (IOException e) {
+         writeException = e;
+      }
+   }
+
+   private void printPayloadRecord(Commit commit) throws IOException {
+      payloadPrinter.printRecord(commit.getState(), commit.getReleaseVersion(), commit.getUpstreamCommit(), commit.getAuthor(), commit.getSummary(),
+                                 commit.getUpstreamIssue(), String.join(",", commit.getDownstreamIssues()), commit.getTests().size() > 0);
+   }
+
+   @Override
+   public synchronized void close() throws IOException {
+      writeDecidedCommits();
+
+      if (pendingCommits.size() > 0) {
+         logger.warn("Skipping " + pendingCommits.size() + " undecided commits");
+      }
+
+      try {
+         commitsWriter.close();
+         payloadPrinter.close();
+      } catch (IOException e) {
+         if (writeException == null) {
+            writeException = e;
+         }
+      }
+
+      if (writeException != null) {
+         throw writeException;
+      }
+   }
+
+   public synchronized void writePrettyCommits(File prettyCommitsFile) throws IOException {
+      // Find the last records of the rewritten commits
+      Map<String, Integer> lastRecords = new HashMap<>();
+      if (rewrittenCommits.size() > 0) {
+         try (BufferedReader reader = Files.newBufferedReader(commitsFile.toPath(), Charset.defaultCharset())) {
+            int record = 0;
+            String line;
+            while ((line = reader.readLine()) != null) {
+               String upstreamCommit = getUpstreamCommit(line);
+               if (rewrittenCommits.contains(upstreamCommit)) {
+                  lastRecords.put(upstreamCommit, record);
+               }
+               record++;
+            }
+         }
+      }
+
+      // Stream the commits to avoid loading all of them
+      try (BufferedReader reader = Files.newBufferedReader(commitsFile.toPath(), Charset.defaultCharset());
+           JsonWriter writer = prettyGson.newJsonWriter(Files.newBufferedWriter(prettyCommitsFile.toPath(), Charset.defaultCharset()))) {
+         writer.beginArray();
+         int record = 0;
+         String line;
+         while ((line = reader.readLine()) != null) {
+            Integer lastRecord = lastRecords.get(getUpstreamCommit(line));
+            if (lastRecord == null || lastRecord == record) {
+               prettyGson.toJson(JsonParser.parseString(line), writer);
+            }
+            record++;
+         }
+         writer.endArray();
+      }
+   }
+
+   private String getUpstreamCommit(String line) {
+      return JsonParser.parseString(line).getAsJsonObject().get("upstreamCommit").getAsString();
+   }
+
+   private static class PendingCommit {
+      private final CompletableFuture<Commit> commitFuture;
+      private final boolean rewrite;
+
+      private PendingCommit(CompletableFuture<Commit> commitFuture, boolean rewrite) {
+         this.commitFuture = commitFuture;
+         this.rewrite = rewrite;
+      }
+   }
+}
@@ -0,0 +1,150 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.redhat.midstream.updater;
+
+import com.redhat.midstream.updater.git.GitCommit;
+import com.redhat.midstream.updater.issues.Issue;
+
+import java.util.List;
+
+/**
+ * The result of the analysis of an upstream commit, which the CommitProcessor executes
+ * applying its side effects. A settled plan has no side effects to apply.
+ */
+public class CommitPlan {
+   private GitCommit upstreamCommit;
+   private CommitMetadata upstreamCommitMetadata;
+   private Commit commit;
+   private boolean settled;
+   private CherryPickedCommit cherryPickedCommit;
+   private ReleaseVersion releaseVersion;
+   private String release;
+   private String qualifier;
+   private Issue upstreamIssue;
+   private String selectedTargetRelease;
+   private List<Issue> selectedDownstreamIssues;
+   private List<Issue> allDownstreamIssues;
+
+   public GitCommit getUpstreamCommit() {
+      return upstreamCommit;
+   }
+
+   public CommitPlan setUpstreamCommit(GitCommit upstreamCommit) {
+      this.upstreamCommit = upstreamCommit;
+      return this;
+   }
+
+   public CommitMetadata getUpstreamCommitMetadata() {
+      return upstreamCommitMetadata;
+   }
+
+   public CommitPlan setUpstreamCommitMetadata(CommitMetadata upstreamCommitMetadata) {
+      this.upstreamCommitMetadata = upstreamCommitMetadata;
+      return this;
+   }
+
+   public Commit getCommit() {
+      return commit;
+   }
+
+   public CommitPlan setCommit(Commit commit) {
+      this.commit = commit;
+      return this;
+   }
+
+   public boolean isSettled() {
+      return settled;
+   }
+
+   public CommitPlan setSettled(boolean settled) {
+      this.settled = settled;
+      return this;
+   }
+
+   public CherryPickedCommit getCherryPickedCommit() {
+      return cherryPickedCommit;
+   }
+
+   public CommitPlan setCherryPickedCommit(CherryPickedCommit cherryPickedCommit) {
+      this.cherryPickedCommit = cherryPickedCommit;
+      return this;
+   }
+
+   public ReleaseVersion getReleaseVersion() {
+      return releaseVersion;
+   }
+
+   public CommitPlan setReleaseVersion(ReleaseVersion releaseVersion) {
+      this.releaseVersion = releaseVersion;
+      return this;
+   }
+
+   public String getRelease() {
+      return release;
+   }
+
+   public CommitPlan setRelease(String release) {
+      this.release = release;
+      return this;
+   }
+
+   public String getQualifier() {
+      return qualifier;
+   }
+
+   public CommitPlan setQualifier(String qualifier) {
+      this.qualifier = qualifier;
+      return this;
+   }
+
+   public Issue getUpstreamIssue() {
+      return upstreamIssue;
+   }
+
+   public CommitPlan setUpstreamIssue(Issue upstreamIssue) {
+      this.upstreamIssue = upstreamIssue;
+      return this;
+   }
+
+   public String getSelectedTargetRelease() {
+      return selectedTargetRelease;
+   }
+
+   public CommitPlan setSelectedTargetRelease(String selectedTargetRelease) {
+      this.selectedTargetRelease = selectedTargetRelease;
+      return this;
+   }
+
+   public List<Issue> getSelectedDownstreamIssues() {
+      return selectedDownstreamIssues;
+   }
+
+   public CommitPlan setSelectedDownstreamIssues(List<Issue> selectedDownstreamIssues) {
+      this.selectedDownstreamIssues = selectedDownstreamIssues;
+      return this;
+   }
+
+   public List<Issue> getAllDownstreamIssues() {
+      return allDownstreamIssues;
+   }
+
+   public CommitPlan setAllDownstreamIssues(List<Issue> allDownstreamIssues) {
+      this.allDownstreamIssues = allDownstreamIssues;
+      return this;
+   }
+}
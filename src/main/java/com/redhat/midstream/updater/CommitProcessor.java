@@ -17,6 +17,8 @@
 
 package com.redhat.midstream.updater;
 
+import com.redhat.midstream.updater.git.CherryPickConflictMemo;
+import com.redhat.midstream.updater.git.CommitIndex;
 import com.redhat.midstream.updater.git.GitCommit;
 import com.redhat.midstream.updater.git.GitRepository;
 import com.redhat.midstream.updater.issues.Issue;
@@ -26,21 +28,32 @@ import com.redhat.midstream.updater.issues.IssueType;
 import org.apache.maven.plugin.surefire.log.api.NullConsoleLogger;
 import org.apache.maven.plugins.surefire.report.ReportTestSuite;
 import org.apache.maven.plugins.surefire.report.SurefireReportParser;
+import org.eclipse.jgit.lib.Constants;
+import org.eclipse.jgit.lib.ObjectId;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.File;
+import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
-import java.util.AbstractMap;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Objects;
+import java.util.Queue;
 import java.util.Set;
-import java.util.regex.Matcher;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
@@ -48,7 +61,6 @@ import java.util.stream.Stream;
 public class CommitProcessor {
    private final static Logger logger = LoggerFactory.getLogger(CommitProcessor.class);
 
-   private final static Pattern upstreamIssuePattern = Pattern.compile("ARTEMIS-[0-9]+");
    private final static Pattern downstreamIssuePattern = Pattern.compile("ENTMQBR-[0-9]+");
 
 
@@ -61,6 +73,11 @@ public class CommitProcessor {
    private static final String FUTURE_GA_RELEASE = "Future GA";
 
    private static final String TEST_PATH = "src/test/java/";
+   private static final String TEST_SUFFIX = "Test.java";
+
+   private static final String BRANCH_SCHEDULING_KEY = "branch";
+
+   private static final CompletableFuture<Boolean> EXECUTABLE = CompletableFuture.completedFuture(true);
 
    private GitRepository gitRepository;
    private ReleaseVersion candidateReleaseVersion;
@@ -68,8 +85,14 @@ public class CommitProcessor {
    private IssueManager upstreamIssueManager;
    private IssueManager downstreamIssueManager;
    private AssigneeResolver assigneeResolver;
-   private HashMap<String, Map.Entry<ReleaseVersion, GitCommit>> cherryPickedCommits;
-   private Map<String, Commit> confirmedCommits;
+   private CommitIndex upstreamCommitIndex;
+   private CommitMetadataScanner commitMetadataScanner;
+   private Map<ObjectId, CherryPickedCommit> cherryPickedCommits;
+   private CherryPickConflictMemo cherryPickConflictMemo;
+   private CommitPusher commitPusher;
+   private CommitTaskScheduler commitTaskScheduler;
+   private RunJournal runJournal;
+   private ConfirmedTaskStore confirmedTaskStore;
    private Map<String, Issue> confirmedUpstreamIssues;
    private Map<String, Issue> confirmedDownstreamIssues;
    private CustomerPriority downstreamIssuesCustomerPriority;
@@ -78,12 +101,20 @@ public class CommitProcessor {
    private boolean scratch;
    private boolean skipCommitTest;
 
+   private final Set<String> updatedIssueKeys = ConcurrentHashMap.newKeySet();
+   private final List<CompletableFuture<Void>> pendingCommitFutures = new ArrayList<>();
+   private final Queue<Commit> rolledBackCommits = new ConcurrentLinkedQueue<>();
+   private final Object rollbackLock = new Object();
+
 
 
    public CommitProcessor(GitRepository gitRepository, ReleaseVersion candidateReleaseVersion, boolean requireReleaseIssues,
                           IssueManager upstreamIssueManager, IssueManager downstreamIssueManager, AssigneeResolver assigneeResolver,
-                          HashMap<String, Map.Entry<ReleaseVersion, GitCommit>> cherryPickedCommits,
-                          Map<String, Commit> confirmedCommits, Map<String, Issue> confirmedUpstreamIssues,
+                          CommitIndex upstreamCommitIndex, CommitMetadataScanner commitMetadataScanner,
+                          Map<ObjectId, CherryPickedCommit> cherryPickedCommits,
+                          CherryPickConflictMemo cherryPickConflictMemo, CommitPusher commitPusher,
+                          CommitTaskScheduler commitTaskScheduler, RunJournal runJournal,
+                          ConfirmedTaskStore confirmedTaskStore, Map<String, Issue> confirmedUpstreamIssues,
                           Map<String, Issue> confirmedDownstreamIssues,
                           CustomerPriority downstreamIssuesCustomerPriority,
                           SecurityImpact downstreamIssuesSecurityImpact,
@@ -94,8 +125,14 @@ public class CommitProcessor {
       this.upstreamIssueManager = upstreamIssueManager;
       this.downstreamIssueManager = downstreamIssueManager;
       this.assigneeResolver = assigneeResolver;
+      this.upstreamCommitIndex = upstreamCommitIndex;
+      this.commitMetadataScanner = commitMetadataScanner;
       this.cherryPickedCommits = cherryPickedCommits;
-      this.confirmedCommits = confirmedCommits;
+      this.cherryPickConflictMemo = cherryPickConflictMemo;
+      this.commitPusher = commitPusher;
+      this.commitTaskScheduler = commitTaskScheduler;
+      this.runJournal = runJournal;
+      this.confirmedTaskStore = confirmedTaskStore;
       this.confirmedUpstreamIssues = confirmedUpstreamIssues;
       this.confirmedDownstreamIssues = confirmedDownstreamIssues;
       this.downstreamIssuesCustomerPriority = downstreamIssuesCustomerPriority;
@@ -105,13 +142,66 @@ public class CommitProcessor {
       this.skipCommitTest = skipCommitTest;
    }
 
-   public Commit process(GitCommit upstreamCommit) throws Exception {
-      logger.info("Processing " + upstreamCommit.getName() + " - " + upstreamCommit.getShortMessage());
+   public void replay() {
+      // Apply the issue updates of an interrupted run to the loaded issues
+      for (RunJournal.Entry entry : runJournal.getEntries()) {
+         CommitTask commitTask = entry.getTask();
+         if (commitTask != null && commitTask.getType() != CommitTaskType.CHERRY_PICK_UPSTREAM_COMMIT) {
+            applyIssueTask(commitTask, entry.getIssue());
+         }
+      }
+   }
+
+   public CompletableFuture<Commit> process(GitCommit upstreamCommit) throws Exception {
+      return execute(analyze(upstreamCommit));
+   }
+
+   public List<CommitPlan> analyze(List<GitCommit> upstreamCommits) throws Exception {
+      List<CommitPlan> commitPlans = new ArrayList<>(upstreamCommits.size());
+      int threadCount = Math.min(Runtime.getRuntime().availableProcessors(), upstreamCommits.size());
+      if (threadCount == 0) {
+         return commitPlans;
+      }
+
+      // The analysis has no side effects, so the commits are analyzed in parallel
+      ExecutorService executor = Executors.newFixedThreadPool(threadCount);
+      try {
+         long beginTimestamp = System.nanoTime();
+         List<Future<CommitPlan>> commitPlanFutures = new ArrayList<>(upstreamCommits.size());
+         for (GitCommit upstreamCommit : upstreamCommits) {
+            commitPlanFutures.add(executor.submit(() -> analyze(upstreamCommit)));
+         }
+         for (Future<CommitPlan> commitPlanFuture : commitPlanFutures) {
+            commitPlans.add(commitPlanFuture.get());
+         }
+         long endTimestamp = System.nanoTime();
+
+         logger.info("Analyzed " + upstreamCommits.size() + " commits in " +
+                        TimeUnit.NANOSECONDS.toMillis(endTimestamp - beginTimestamp) + " milliseconds");
+      } finally {
+         executor.shutdown();
+      }
+
+      return commitPlans;
+   }
+
+   public CommitPlan analyze(GitCommit upstreamCommit) throws Exception {
+      Commit journaledCommit = runJournal.getCommit(upstreamCommit.getName());
+      if (journaledCommit != null && isReplayable(journaledCommit, upstreamCommit)) {
+         return new CommitPlan().setUpstreamCommit(upstreamCommit)
+            .setUpstreamCommitMetadata(commitMetadataScanner.getSubjectMetadata(upstreamCommit))
+            .setCommit(journaledCommit).setSettled(true);
+      }
 
       ReleaseVersion candidateReleaseVersion = this.candidateReleaseVersion;
-      Map.Entry<ReleaseVersion, GitCommit> cherryPickedCommit = cherryPickedCommits.get(upstreamCommit.getName());
+      CherryPickedCommit cherryPickedCommit = cherryPickedCommits.get(upstreamCommit.getId());
       if (cherryPickedCommit != null) {
-         candidateReleaseVersion = cherryPickedCommit.getKey();
+         candidateReleaseVersion = cherryPickedCommit.getReleaseVersion();
+
+         if (cherryPickedCommit.getConfidence() < 1) {
+            logger.warn("Cherry-picked commit " + cherryPickedCommit.getCommitName() +
+                           " detected with similarity " + cherryPickedCommit.getConfidence());
+         }
       }
 
       String release = "AMQ " + candidateReleaseVersion.getMajor() + "." +
@@ -120,49 +210,52 @@ public class CommitProcessor {
       String qualifier = candidateReleaseVersion.getQualifier();
 
 
-      Commit confirmedCommit = confirmedCommits.get(upstreamCommit.getName());
-      List<CommitTask> confirmedTasks = null;
-      if (confirmedCommit != null) {
-         confirmedTasks = confirmedCommit.getTasks();
+      Commit commit = new Commit().setUpstreamCommit(upstreamCommit.getName())
+         .setSummary(upstreamCommit.getShortMessage()).setState(CommitState.DONE)
+         .setTasks(Collections.synchronizedList(new ArrayList<>()));
+
+      // Keep the issue tasks executed by an interrupted run, their updates are already replayed
+      for (CommitTask journaledTask : runJournal.getTasks(upstreamCommit.getName())) {
+         if (journaledTask.getType() != CommitTaskType.CHERRY_PICK_UPSTREAM_COMMIT) {
+            commit.getTasks().add(journaledTask);
+         }
       }
 
-      Commit commit = new Commit().setUpstreamCommit(upstreamCommit.getName())
-         .setSummary(upstreamCommit.getShortMessage()).setState(CommitState.DONE);
+      CommitMetadata upstreamCommitMetadata = commitMetadataScanner.getSubjectMetadata(upstreamCommit);
 
-      Matcher upstreamIssueMatcher = upstreamIssuePattern.matcher(upstreamCommit.getShortMessage());
+      CommitPlan commitPlan = new CommitPlan().setUpstreamCommit(upstreamCommit)
+         .setUpstreamCommitMetadata(upstreamCommitMetadata).setCommit(commit).setSettled(true);
 
-      String upstreamIssueKey = null;
-      if (upstreamIssueMatcher.find()) {
-         upstreamIssueKey = upstreamIssueMatcher.group();
-      } else if (cherryPickedCommit == null) {
-         logger.info("SKIPPED because the commit message does not include an upstream issue key");
+      String upstreamIssueKey = upstreamCommitMetadata.getIssueKey();
+      if (upstreamIssueKey == null && cherryPickedCommit == null) {
+         logger.info("SKIPPED " + upstreamCommit.getName() + " because the commit message does not include an upstream issue key");
          commit.setState(CommitState.SKIPPED).setReason("NO_UPSTREAM_ISSUE");
-         return commit;
+         return commitPlan;
       }
 
       Issue upstreamIssue = null;
       if (upstreamIssueKey != null) {
          commit.setUpstreamIssue(upstreamIssueKey);
 
-         if (upstreamIssueMatcher.find() && cherryPickedCommit == null) {
-            logger.warn("SKIPPED because the commit message includes multiple upstream issue keys");
+         if (upstreamCommitMetadata.getIssueKeys().size() > 1 && cherryPickedCommit == null) {
+            logger.warn("SKIPPED " + upstreamCommit.getName() + " because the commit message includes multiple upstream issue keys");
             commit.setState(CommitState.FAILED).setReason("MULTIPLE_UPSTREAM_ISSUES");
-            return commit;
+            return commitPlan;
          }
 
          upstreamIssue = upstreamIssueKey != null ? upstreamIssueManager.getIssue(upstreamIssueKey) : null;
 
          if (upstreamIssue == null && cherryPickedCommit == null) {
-            logger.warn("SKIPPED because the upstream issue is not found: " + upstreamIssueKey);
+            logger.warn("SKIPPED " + upstreamCommit.getName() + " because the upstream issue is not found: " + upstreamIssueKey);
             commit.setState(CommitState.FAILED).setReason("UPSTREAM_ISSUE_NOT_FOUND");
-            return commit;
+            return commitPlan;
          }
       }
 
 
       commit.setAuthor(upstreamCommit.getAuthorName());
       commit.setReleaseVersion(candidateReleaseVersion.toString());
-      commit.setDownstreamCommit(cherryPickedCommit != null ? cherryPickedCommit.getValue().getName() : null);
+      commit.setDownstreamCommit(cherryPickedCommit != null ? cherryPickedCommit.getCommitName() : null);
       commit.setTests(getCommitTests(upstreamCommit));
 
 
@@ -185,6 +278,49 @@ public class CommitProcessor {
 
       commit.setAssignee(assigneeResolver.getAssignee(upstreamCommit, upstreamIssue, selectedDownstreamIssues).getUsername());
 
+      return commitPlan.setSettled(false)
+         .setCherryPickedCommit(cherryPickedCommit)
+         .setReleaseVersion(candidateReleaseVersion)
+         .setRelease(release)
+         .setQualifier(qualifier)
+         .setUpstreamIssue(upstreamIssue)
+         .setSelectedTargetRelease(selectedTargetRelease)
+         .setSelectedDownstreamIssues(selectedDownstreamIssues)
+         .setAllDownstreamIssues(allDownstreamIssues);
+   }
+
+   public CompletableFuture<Commit> execute(CommitPlan commitPlan) throws Exception {
+      if (isStale(commitPlan)) {
+         logger.info("Analyzing again " + commitPlan.getUpstreamCommit().getName() + " because its issues were updated");
+         commitTaskScheduler.await(getIssueKeys(commitPlan.getCommit()));
+         commitPlan = analyze(commitPlan.getUpstreamCommit());
+      }
+
+      GitCommit upstreamCommit = commitPlan.getUpstreamCommit();
+      Commit commit = commitPlan.getCommit();
+
+      logger.info("Processing " + upstreamCommit.getName() + " - " + upstreamCommit.getShortMessage());
+
+      if (commitPlan.isSettled()) {
+         if (runJournal.getCommit(upstreamCommit.getName()) != commit) {
+            runJournal.appendCommit(commit);
+         }
+         return CompletableFuture.completedFuture(commit);
+      }
+
+      CommitMetadata upstreamCommitMetadata = commitPlan.getUpstreamCommitMetadata();
+      CherryPickedCommit cherryPickedCommit = commitPlan.getCherryPickedCommit();
+      ReleaseVersion candidateReleaseVersion = commitPlan.getReleaseVersion();
+      String release = commitPlan.getRelease();
+      String qualifier = commitPlan.getQualifier();
+      Issue upstreamIssue = commitPlan.getUpstreamIssue();
+      String selectedTargetRelease = commitPlan.getSelectedTargetRelease();
+      List<Issue> selectedDownstreamIssues = commitPlan.getSelectedDownstreamIssues();
+      List<Issue> allDownstreamIssues = commitPlan.getAllDownstreamIssues();
+
+      // The tasks are executed by the scheduler, the commit state is set when they are completed
+      CompletableFuture<Void> commitFuture = CompletableFuture.completedFuture(null);
+
       if (selectedDownstreamIssues != null && selectedDownstreamIssues.size() > 0) {
          // Commit related to downstream issues
 
@@ -193,20 +329,20 @@ public class CommitProcessor {
 
             if (this.candidateReleaseVersion.compareWithoutQualifierTo(candidateReleaseVersion) == 0) {
                if(release.equals(selectedTargetRelease)) {
-                  if (processDownstreamIssues(commit, release, qualifier, selectedDownstreamIssues, confirmedTasks)) {
-                     commit.setState(CommitState.DONE);
-                  } else {
-                     commit.setState(CommitState.INCOMPLETE);
-                  }
+                  commitFuture = processDownstreamIssues(commit, release, qualifier, selectedDownstreamIssues, EXECUTABLE)
+                     .thenAccept(executed -> commit.setState(executed ? CommitState.DONE : CommitState.INCOMPLETE));
                } else {
                   if (requireReleaseIssues) {
                      logger.warn("INCOMPLETE because no downstream issues with the required target release");
 
-                     if (cloneDownstreamIssues(commit, release, qualifier, selectedDownstreamIssues, confirmedTasks)) {
-                        commit.setState(CommitState.DONE);
-                     } else {
-                        commit.setState(CommitState.INCOMPLETE).setReason("NO_DOWNSTREAM_ISSUES_WITH_REQUIRED_TARGET_RELEASE");
-                     }
+                     commitFuture = cloneDownstreamIssues(commit, release, qualifier, selectedDownstreamIssues)
+                        .thenAccept(executed -> {
+                           if (executed) {
+                              commit.setState(CommitState.DONE);
+                           } else {
+                              commit.setState(CommitState.INCOMPLETE).setReason("NO_DOWNSTREAM_ISSUES_WITH_REQUIRED_TARGET_RELEASE");
+                           }
+                        });
                   }
                }
             }
@@ -216,17 +352,30 @@ public class CommitProcessor {
             if (release.equals(selectedTargetRelease)) {
                // The selected downstream issues have the required target release
 
-               if (processCommitTask(commit, release, qualifier, CommitTaskType.CHERRY_PICK_UPSTREAM_COMMIT, upstreamCommit.getName(),
-                  selectedDownstreamIssues.stream().map(Issue::getKey).collect(Collectors.joining(",")), confirmedTasks)) {
+               CompletableFuture<Boolean> cherryPickFuture = processCommitTask(commit, release, qualifier, CommitTaskType.CHERRY_PICK_UPSTREAM_COMMIT, upstreamCommit.getName(),
+                  selectedDownstreamIssues.stream().map(Issue::getKey).collect(Collectors.joining(",")), EXECUTABLE);
+               CommitTask cherryPickTask = commit.getTasks().get(commit.getTasks().size() - 1);
 
-                  if (processDownstreamIssues(commit, release, qualifier, selectedDownstreamIssues, confirmedTasks)) {
-                     commit.setState(CommitState.DONE);
+               // The downstream issues are processed only if the commit is cherry-picked and pushed
+               CompletableFuture<Boolean> pushFuture = new CompletableFuture<>();
+               CompletableFuture<Boolean> downstreamIssuesFuture = processDownstreamIssues(commit, release, qualifier, selectedDownstreamIssues, pushFuture);
+               pushCherryPick(commit, cherryPickTask, cherryPickFuture).whenComplete((pushed, throwable) -> {
+                  if (throwable != null) {
+                     pushFuture.completeExceptionally(throwable);
                   } else {
-                     commit.setState(CommitState.INCOMPLETE);
+                     pushFuture.complete(pushed);
                   }
-               } else {
-                  commit.setState(CommitState.TODO);
-               }
+               });
+
+               // The cherry-pick can be rolled back after its task is completed
+               commitFuture = cherryPickFuture.thenCombine(downstreamIssuesFuture, (cherryPicked, executed) -> {
+                  if (CommitTaskState.EXECUTED.equals(cherryPickTask.getState())) {
+                     commit.setState(executed ? CommitState.DONE : CommitState.INCOMPLETE);
+                  } else {
+                     commit.setState(CommitState.TODO);
+                  }
+                  return null;
+               });
             } else {
                // The selected downstream issues do not have the required target release
 
@@ -236,22 +385,24 @@ public class CommitProcessor {
                   if (requireReleaseIssues) {
                      // The commits related to downstream issues already fixed in a previous release require
                      // a downstream release issue if cherry-picked to a branch with previous releases
-                     if (cloneDownstreamIssues(commit, release, qualifier, selectedDownstreamIssues, confirmedTasks)) {
-                        commit.setState(CommitState.DONE);
-                     } else {
-                        commit.setState(CommitState.BLOCKED).setReason("NO_DOWNSTREAM_ISSUES_WITH_REQUIRED_TARGET_RELEASE");
-                     }
+                     commitFuture = cloneDownstreamIssues(commit, release, qualifier, selectedDownstreamIssues)
+                        .thenAccept(executed -> {
+                           if (executed) {
+                              commit.setState(CommitState.DONE);
+                           } else {
+                              commit.setState(CommitState.BLOCKED).setReason("NO_DOWNSTREAM_ISSUES_WITH_REQUIRED_TARGET_RELEASE");
+                           }
+                        });
                   } else {
                      // The commits related to downstream issues already fixed in a previous release do not require
                      // a downstream release issue if cherry-picked to a branch without previous releases
 
-                     if (processCommitTask(commit, release, qualifier, CommitTaskType.CHERRY_PICK_UPSTREAM_COMMIT, upstreamCommit.getName(),
-                        selectedDownstreamIssues.stream().map(Issue::getKey).collect(Collectors.joining(",")), confirmedTasks)) {
+                     CompletableFuture<Boolean> cherryPickFuture = processCommitTask(commit, release, qualifier, CommitTaskType.CHERRY_PICK_UPSTREAM_COMMIT, upstreamCommit.getName(),
+                        selectedDownstreamIssues.stream().map(Issue::getKey).collect(Collectors.joining(",")), EXECUTABLE);
+                     CommitTask cherryPickTask = commit.getTasks().get(commit.getTasks().size() - 1);
 
-                        commit.setState(CommitState.DONE);
-                     } else {
-                        commit.setState(CommitState.TODO);
-                     }
+                     commitFuture = cherryPickFuture.thenAccept(executed -> commit.setState(
+                        CommitTaskState.EXECUTED.equals(cherryPickTask.getState()) ? CommitState.DONE : CommitState.TODO));
                   }
                } else {
                   commit.setState(CommitState.SKIPPED).setReason("DOWNSTREAM_ISSUE_NOT_SUFFICIENT");
@@ -264,7 +415,7 @@ public class CommitProcessor {
          if (cherryPickedCommit != null) {
             // Commit cherry-picked but no downstream issues
             if (this.candidateReleaseVersion.compareWithoutQualifierTo(candidateReleaseVersion) == 0) {
-               if (!commit.getSummary().startsWith("NO-JIRA")) {
+               if (!upstreamCommitMetadata.isNoIssue()) {
                   if (checkIncompleteCommits) {
                      logger.warn("INCOMPLETE because no downstream issues");
                      commit.setState(CommitState.INCOMPLETE).setReason("NO_DOWNSTREAM_ISSUES");
@@ -277,14 +428,101 @@ public class CommitProcessor {
             if ((confirmedUpstreamIssues != null && confirmedUpstreamIssues.containsKey(upstreamIssue.getKey())) ||
                (confirmedUpstreamIssues == null && upstreamIssue.getType() == IssueType.BUG)) {
                commit.setState(CommitState.BLOCKED);
-               processCommitTask(commit, release, qualifier, CommitTaskType.CLONE_UPSTREAM_ISSUE, upstreamIssue.getKey(), null, confirmedTasks);
+               commitFuture = processCommitTask(commit, release, qualifier, CommitTaskType.CLONE_UPSTREAM_ISSUE, upstreamIssue.getKey(), null, EXECUTABLE)
+                  .thenAccept(executed -> { });
             } else {
                commit.setState(CommitState.SKIPPED).setReason("UPSTREAM_ISSUE_NOT_SUFFICIENT");
             }
          }
       }
 
-      return commit;
+      // The tasks are only added by the execution, the skipped ones are dropped when the commit is decided
+      CompletableFuture<Void> journaledFuture = commitFuture.thenRun(() -> {
+         commit.getTasks().removeIf(commitTask -> CommitTaskState.SKIPPED.equals(commitTask.getState()));
+
+         // The cherry-picks rolled back before the commit is journaled are applied here, the later ones by the rollback
+         synchronized (rollbackLock) {
+            if (isRolledBack(commit)) {
+               commit.setState(CommitState.TODO).setReason(CommitPusher.PUSH_FAILED_RESULT);
+            }
+            try {
+               runJournal.appendCommit(commit);
+            } catch (IOException e) {
+               throw new CompletionException(e);
+            }
+         }
+      });
+      pendingCommitFutures.add(journaledFuture);
+
+      // The commit is decided when its tasks are completed, the push durability is tracked by the cherry-pick task.
+      // A failed commit is not journaled, so the next run processes it again
+      return journaledFuture.handle((ignored, throwable) -> {
+         if (throwable != null) {
+            Throwable cause = throwable instanceof CompletionException && throwable.getCause() != null ? throwable.getCause() : throwable;
+            logger.warn("FAILED " + commit.getUpstreamCommit() + " because of " + cause);
+            commit.setState(CommitState.FAILED).setReason(cause.toString());
+         }
+         return commit;
+      });
+   }
+
+   public List<Commit> pollRolledBackCommits() {
+      List<Commit> commits = new ArrayList<>();
+      Commit commit;
+      while ((commit = rolledBackCommits.poll()) != null) {
+         commits.add(commit);
+      }
+
+      return commits;
+   }
+
+   private boolean isReplayable(Commit journaledCommit, GitCommit upstreamCommit) {
+      // The commit is processed again if its cherry-pick was rolled back after it was journaled
+      if (isRolledBack(journaledCommit)) {
+         return false;
+      }
+
+      for (CommitTask commitTask : journaledCommit.getTasks()) {
+         if (commitTask.getType() == CommitTaskType.CHERRY_PICK_UPSTREAM_COMMIT &&
+            CommitTaskState.EXECUTED.equals(commitTask.getState()) &&
+            !cherryPickedCommits.containsKey(upstreamCommit.getId())) {
+            return false;
+         }
+      }
+
+      return true;
+   }
+
+   private boolean isStale(CommitPlan commitPlan) {
+      // The submitted tasks can link new downstream issues to the issues read by the analysis
+      for (String issueKey : getIssueKeys(commitPlan.getCommit())) {
+         if (updatedIssueKeys.contains(issueKey)) {
+            return true;
+         }
+      }
+
+      return false;
+   }
+
+   private static boolean isRolledBack(Commit commit) {
+      synchronized (commit.getTasks()) {
+         for (CommitTask commitTask : commit.getTasks()) {
+            if (commitTask.getType() == CommitTaskType.CHERRY_PICK_UPSTREAM_COMMIT &&
+               CommitTaskState.FAILED.equals(commitTask.getState()) && CommitPusher.PUSH_FAILED_RESULT.equals(commitTask.getResult())) {
+               return true;
+            }
+         }
+      }
+
+      return false;
+   }
+
+   private List<String> getIssueKeys(Commit commit) {
+      List<String> issueKeys = new ArrayList<>(commit.getDownstreamIssues());
+      if (commit.getUpstreamIssue() != null) {
+         issueKeys.add(commit.getUpstreamIssue());
+      }
+      return issueKeys;
    }
 
    private boolean requireCherryPick(List<Issue> downstreamIssues) {
@@ -301,31 +539,31 @@ public class CommitProcessor {
       return false;
    }
 
-   private boolean cloneDownstreamIssues(Commit commit, String release, String qualifier, List<Issue> downstreamIssues, List<CommitTask> confirmedTasks) throws Exception {
-      boolean executed = true;
+   private CompletableFuture<Boolean> cloneDownstreamIssues(Commit commit, String release, String qualifier, List<Issue> downstreamIssues) throws Exception {
+      CompletableFuture<Boolean> executed = EXECUTABLE;
 
       for (Issue downstreamIssue : downstreamIssues) {
-         executed &= processCommitTask(commit, release, qualifier, CommitTaskType.CLONE_DOWNSTREAM_ISSUE, downstreamIssue.getKey(), null, confirmedTasks);
+         executed = and(executed, processCommitTask(commit, release, qualifier, CommitTaskType.CLONE_DOWNSTREAM_ISSUE, downstreamIssue.getKey(), null, EXECUTABLE));
       }
 
       return executed;
    }
 
-   private boolean processDownstreamIssues(Commit commit, String release, String qualifier, List<Issue> downstreamIssues, List<CommitTask> confirmedTasks) throws Exception {
-      boolean executed = true;
+   private CompletableFuture<Boolean> processDownstreamIssues(Commit commit, String release, String qualifier, List<Issue> downstreamIssues, CompletableFuture<Boolean> precondition) throws Exception {
+      CompletableFuture<Boolean> executed = EXECUTABLE;
 
       for (Issue downstreamIssue : downstreamIssues) {
          //Check if the downstream issue define a target release
          if (downstreamIssue.getTargetRelease() == null || downstreamIssue.getTargetRelease().isEmpty() || downstreamIssue.getTargetRelease().equals(FUTURE_GA_RELEASE)) {
             if (checkIncompleteCommits) {
-               executed &= processCommitTask(commit, release, qualifier, CommitTaskType.SET_DOWNSTREAM_ISSUE_TARGET_RELEASE, downstreamIssue.getKey(), release, confirmedTasks);
+               executed = and(executed, processCommitTask(commit, release, qualifier, CommitTaskType.SET_DOWNSTREAM_ISSUE_TARGET_RELEASE, downstreamIssue.getKey(), release, precondition));
             }
          }
 
          //Check if the downstream issue has the qualifier label
          if (!downstreamIssue.getLabels().contains(qualifier)) {
             if (checkIncompleteCommits) {
-               executed &= processCommitTask(commit, release, qualifier, CommitTaskType.ADD_DOWNSTREAM_ISSUE_LABEL, downstreamIssue.getKey(), qualifier, confirmedTasks);
+               executed = and(executed, processCommitTask(commit, release, qualifier, CommitTaskType.ADD_DOWNSTREAM_ISSUE_LABEL, downstreamIssue.getKey(), qualifier, precondition));
             }
          }
 
@@ -333,14 +571,14 @@ public class CommitProcessor {
          if (commit.getTests().size() > 0 && !downstreamIssue.getLabels().contains(UPSTREAM_TEST_COVERAGE_LABEL) &&
             !downstreamIssue.getLabels().contains(NO_TESTING_NEEDED_LABEL)){
             if (checkIncompleteCommits) {
-               executed &= processCommitTask(commit, release, qualifier, CommitTaskType.ADD_DOWNSTREAM_ISSUE_LABEL, downstreamIssue.getKey(), UPSTREAM_TEST_COVERAGE_LABEL, confirmedTasks);
+               executed = and(executed, processCommitTask(commit, release, qualifier, CommitTaskType.ADD_DOWNSTREAM_ISSUE_LABEL, downstreamIssue.getKey(), UPSTREAM_TEST_COVERAGE_LABEL, precondition));
             }
          }
 
          //Check if the downstream issue is ready for review
          if (downstreamIssue.getState() != IssueState.READY_FOR_REVIEW && downstreamIssue.getState() != IssueState.CLOSED) {
             if (checkIncompleteCommits) {
-               executed &= processCommitTask(commit, release, qualifier, CommitTaskType.TRANSITION_DOWNSTREAM_ISSUE, downstreamIssue.getKey(), IssueState.READY_FOR_REVIEW.name(), confirmedTasks);
+               executed = and(executed, processCommitTask(commit, release, qualifier, CommitTaskType.TRANSITION_DOWNSTREAM_ISSUE, downstreamIssue.getKey(), IssueState.READY_FOR_REVIEW.name(), precondition));
             }
          }
       }
@@ -348,6 +586,41 @@ public class CommitProcessor {
       return executed;
    }
 
+   private CompletableFuture<Boolean> pushCherryPick(Commit commit, CommitTask cherryPickTask, CompletableFuture<Boolean> cherryPickFuture) throws Exception {
+      boolean issueTasksExecutable = false;
+      synchronized (commit.getTasks()) {
+         for (CommitTask commitTask : commit.getTasks()) {
+            if (commitTask.getType() != CommitTaskType.CHERRY_PICK_UPSTREAM_COMMIT &&
+               CommitTaskState.UNCONFIRMED.equals(commitTask.getState()) && isExecutable(commit, commitTask)) {
+               issueTasksExecutable = true;
+            }
+         }
+      }
+
+      if (!issueTasksExecutable) {
+         return cherryPickFuture;
+      }
+
+      // Push the batch before updating the downstream issues, in the branch order so a rollback does not
+      // interleave with the cherry-picks
+      return commitTaskScheduler.submit(Collections.singletonList(BRANCH_SCHEDULING_KEY), cherryPickFuture, () -> {
+         if (cherryPickFuture.join()) {
+            rollbackCommitTasks(commitPusher.flush());
+         }
+
+         return CommitTaskState.EXECUTED.equals(cherryPickTask.getState());
+      });
+   }
+
+   private boolean isExecutable(Commit commit, CommitTask commitTask) {
+      return commitTask.getType() == CommitTaskType.CHERRY_PICK_UPSTREAM_COMMIT || (!scratch &&
+         confirmedTaskStore.getTask(commit.getUpstreamCommit(), commitTask.getType(), commitTask.getKey(), commitTask.getValue()) != null);
+   }
+
+   private static CompletableFuture<Boolean> and(CompletableFuture<Boolean> executed, CompletableFuture<Boolean> taskExecuted) {
+      return executed.thenCombine(taskExecuted, (x, y) -> x && y);
+   }
+
    private boolean testCommit(Commit commit) throws Exception {
       if (commit.getTests().size() > 0) {
          //Execute tests
@@ -390,142 +663,302 @@ public class CommitProcessor {
       return true;
    }
 
-   private boolean processCommitTask(Commit commit, String release, String qualifier, CommitTaskType type, String key, String value, List<CommitTask> confirmedTasks) throws Exception {
+   private CompletableFuture<Boolean> processCommitTask(Commit commit, String release, String qualifier, CommitTaskType type, String key, String value, CompletableFuture<Boolean> precondition) throws Exception {
       CommitTask commitTask = new CommitTask().setType(type).setKey(key).setValue(value).setState(CommitTaskState.UNCONFIRMED);
-      CommitTask confirmedTask = getCommitTask(type, key, value, confirmedTasks);
+      CommitTask confirmedTask = confirmedTaskStore.getTask(commit.getUpstreamCommit(), type, key, value);
+
+      commit.getTasks().add(commitTask);
+
+      if (type != CommitTaskType.CHERRY_PICK_UPSTREAM_COMMIT && (confirmedTask == null || scratch)) {
+         if (confirmedTask != null) {
+            commitTask.setState(CommitTaskState.SCRATCHED);
+         }
+
+         return precondition.thenApply(satisfied -> {
+            if (!satisfied) {
+               commitTask.setState(CommitTaskState.SKIPPED);
+            }
+            return false;
+         });
+      }
 
+      // The cherry-picks are ordered by the branch and the issue tasks by the issues they update
+      List<String> schedulingKeys = new ArrayList<>();
       if (type == CommitTaskType.CHERRY_PICK_UPSTREAM_COMMIT) {
-         GitCommit upstreamCommit = gitRepository.resolveCommit(key);
-         if (gitRepository.cherryPick(upstreamCommit)) {
-            if (!skipCommitTest && !testCommit(commit)) {
-               logger.warn("Error testing: " + commit.getUpstreamCommit());
+         schedulingKeys.add(BRANCH_SCHEDULING_KEY);
+      } else {
+         schedulingKeys.add(key);
+         if (type == CommitTaskType.CLONE_DOWNSTREAM_ISSUE) {
+            schedulingKeys.addAll(downstreamIssueManager.getIssue(key).getIssues());
+         }
+         updatedIssueKeys.addAll(schedulingKeys);
+      }
 
-               gitRepository.resetHard();
+      return commitTaskScheduler.submit(schedulingKeys, precondition, () -> {
+         if (!precondition.join()) {
+            commitTask.setState(CommitTaskState.SKIPPED);
+            return false;
+         }
 
-               commitTask.setState(CommitTaskState.FAILED);
+         long startTime = System.currentTimeMillis();
+         commitTask.setStartTime(startTime);
+         Issue createdIssue = null;
+         try {
+            if (type == CommitTaskType.CHERRY_PICK_UPSTREAM_COMMIT) {
+               executeCherryPick(commit, commitTask, key, value);
             } else {
-               if (scratch) {
-                  commitTask.setState(CommitTaskState.SCRATCHED);
-               } else {
-                  String commitMessage = upstreamCommit.getFullMessage() + "\n" +
-                     "(cherry picked from commit " + upstreamCommit.getName() + ")\n\n" +
-                     "downstream: " + value;
+               createdIssue = executeIssueTask(commit, commitTask, release, qualifier, type, key, value);
+            }
+         } finally {
+            commitTask.setDuration(System.currentTimeMillis() - startTime);
+         }
 
-                  GitCommit cherryPickedCommit = gitRepository.commit(commitMessage,
-                                       upstreamCommit.getAuthorName(),
-                                       upstreamCommit.getAuthorEmail(),
-                                       upstreamCommit.getAuthorWhen(),
-                                       upstreamCommit.getAuthorTimeZone(),
-                                       COMMITTER_NAME,
-                                       COMMITTER_EMAIL);
+         if (CommitTaskState.EXECUTED.equals(commitTask.getState())) {
+            runJournal.appendTask(commit.getUpstreamCommit(), commitTask, createdIssue);
+         }
 
-                  gitRepository.push("origin", null);
+         return CommitTaskState.EXECUTED.equals(commitTask.getState());
+      });
+   }
 
-                  cherryPickedCommits.put(upstreamCommit.getName(), new AbstractMap.SimpleEntry(candidateReleaseVersion, cherryPickedCommit));
+   private void executeCherryPick(Commit commit, CommitTask commitTask, String key, String value) throws Exception {
+      GitCommit upstreamCommit = upstreamCommitIndex.get(key);
+      if (upstreamCommit == null) {
+         upstreamCommit = gitRepository.resolveCommit(key);
+      }
+      String commitMessage = upstreamCommit.getFullMessage() + "\n" +
+         "(cherry picked from commit " + upstreamCommit.getName() + ")\n\n" +
+         CommitMetadata.DOWNSTREAM_TRAILER + ": " + value;
+
+      // Report the known conflicts without touching the repository
+      Map<String, String> changedBlobIds = gitRepository.getChangedBlobIds(upstreamCommit, Constants.HEAD);
+      if (cherryPickConflictMemo.containsConflict(upstreamCommit.getName(), changedBlobIds)) {
+         logger.warn("Known cherry-pick conflict");
+
+         commitTask.setState(CommitTaskState.FAILED);
+         commitTask.setResult("CHERRY_PICK_FAILED");
+      } else if (!scratch && (skipCommitTest || commit.getTests().size() == 0)) {
+         // Cherry-pick in-core because the working tree is only needed to test the commit
+         GitCommit cherryPickedCommit = gitRepository.cherryPickCommit(upstreamCommit,
+                                                                       commitMessage,
+                                                                       upstreamCommit.getAuthorName(),
+                                                                       upstreamCommit.getAuthorEmail(),
+                                                                       upstreamCommit.getAuthorWhen(),
+                                                                       upstreamCommit.getAuthorTimeZone(),
+                                                                       COMMITTER_NAME,
+                                                                       COMMITTER_EMAIL);
 
-                  commitTask.setState(CommitTaskState.EXECUTED);
-                  commitTask.setResult(cherryPickedCommit.getName());
-               }
-            }
+         if (cherryPickedCommit != null) {
+            cherryPickedCommits.put(upstreamCommit.getId(), new CherryPickedCommit(candidateReleaseVersion, cherryPickedCommit.getName(), 1));
+
+            commitTask.setState(CommitTaskState.EXECUTED);
+            commitTask.setResult(cherryPickedCommit.getName());
+
+            pushCommitTask(commitTask);
          } else {
             logger.warn("Error cherry picking");
 
-            gitRepository.resetHard();
+            cherryPickConflictMemo.putConflict(upstreamCommit.getName(), changedBlobIds);
 
             commitTask.setState(CommitTaskState.FAILED);
             commitTask.setResult("CHERRY_PICK_FAILED");
          }
-      } else if (confirmedTask != null) {
-         if (scratch) {
-            commitTask.setState(CommitTaskState.SCRATCHED);
+      } else if (gitRepository.cherryPick(upstreamCommit)) {
+         if (!skipCommitTest && !testCommit(commit)) {
+            logger.warn("Error testing: " + commit.getUpstreamCommit());
+
+            gitRepository.resetHard();
+
+            commitTask.setState(CommitTaskState.FAILED);
          } else {
-            if (type == CommitTaskType.ADD_DOWNSTREAM_ISSUE_LABEL) {
-               downstreamIssueManager.addIssueLabels(key, value);
-               downstreamIssueManager.getIssue(key).getLabels().add(value);
-            } else if (type == CommitTaskType.SET_DOWNSTREAM_ISSUE_TARGET_RELEASE) {
-               downstreamIssueManager.setIssueTargetRelease(key, value);
-               downstreamIssueManager.getIssue(key).setTargetRelease(value);
-            } else if (type == CommitTaskType.TRANSITION_DOWNSTREAM_ISSUE) {
-               IssueState downstreamIssueState = IssueState.valueOf(value);
-               downstreamIssueManager.transitionIssue(key, downstreamIssueState);
-               downstreamIssueManager.getIssue(key).setState(downstreamIssueState);
-            } else if (type == CommitTaskType.CLONE_DOWNSTREAM_ISSUE) {
-               Issue cloningIssue = downstreamIssueManager.getIssue(key);
-               ReleaseVersion releaseVersion = new ReleaseVersion(release);
-               String summaryPrefix = "[" + releaseVersion.getMajor() + "." + releaseVersion.getMinor() + "]";
-
-               if (cloningIssue.getIssues().size() != 1) {
-                  throw new IllegalStateException("Invalid number of upstream issues to clone");
-               }
+            if (scratch) {
+               commitTask.setState(CommitTaskState.SCRATCHED);
+            } else {
+               GitCommit cherryPickedCommit = gitRepository.commit(commitMessage,
+                                    upstreamCommit.getAuthorName(),
+                                    upstreamCommit.getAuthorEmail(),
+                                    upstreamCommit.getAuthorWhen(),
+                                    upstreamCommit.getAuthorTimeZone(),
+                                    COMMITTER_NAME,
+                                    COMMITTER_EMAIL);
 
-               List<String> labels = new ArrayList<>();
-               for (String label : cloningIssue.getLabels()) {
-                  if (!label.startsWith("CR")) {
-                     labels.add(label);
-                  }
-               }
+               cherryPickedCommits.put(upstreamCommit.getId(), new CherryPickedCommit(candidateReleaseVersion, cherryPickedCommit.getName(), 1));
 
-               Issue clonedIssue = downstreamIssueManager.createIssue(
-                  summaryPrefix + " " + cloningIssue.getSummary(),
-                  cloningIssue.getDescription(), cloningIssue.getType(), cloningIssue.getAssignee(),
-                  cloningIssue.getIssues().get(0), release, labels);
+               commitTask.setState(CommitTaskState.EXECUTED);
+               commitTask.setResult(cherryPickedCommit.getName());
 
-               downstreamIssueManager.linkIssue(clonedIssue.getKey(), key, "Cloners");
+               pushCommitTask(commitTask);
+            }
+         }
+      } else {
+         logger.warn("Error cherry picking");
 
-               for (String upstreamIssueKey : clonedIssue.getIssues()) {
-                  Issue upstreamIssue = upstreamIssueManager.getIssue(upstreamIssueKey);
-                  upstreamIssue.getIssues().add(clonedIssue.getKey());
-               }
+         gitRepository.resetHard();
 
-               commitTask.setResult(clonedIssue.getKey());
-            } else if (type == CommitTaskType.CLONE_UPSTREAM_ISSUE) {
-               Issue upstreamIssue = upstreamIssueManager.getIssue(key);
-               List<String> labels = new ArrayList<>();
-               labels.add(qualifier);
-               if (commit.getTests().size() > 0) {
-                  labels.add(UPSTREAM_TEST_COVERAGE_LABEL);
-               }
+         cherryPickConflictMemo.putConflict(upstreamCommit.getName(), changedBlobIds);
 
-               User assignee = assigneeResolver.getUserResolver().getUserFromUsername(commit.getAssignee());
+         commitTask.setState(CommitTaskState.FAILED);
+         commitTask.setResult("CHERRY_PICK_FAILED");
+      }
+   }
 
-               Issue downstreamIssue = downstreamIssueManager.createIssue(
-                  upstreamIssue.getSummary(),
-                  upstreamIssue.getDescription(), upstreamIssue.getType(), assignee.getDownstreamUsername(),
-                  "https://issues.apache.org/jira/browse/" + upstreamIssue.getKey(), release, labels);
+   private Issue executeIssueTask(Commit commit, CommitTask commitTask, String release, String qualifier, CommitTaskType type, String key, String value) throws Exception {
+      Issue createdIssue = null;
+
+      if (type == CommitTaskType.ADD_DOWNSTREAM_ISSUE_LABEL) {
+         downstreamIssueManager.addIssueLabels(key, value);
+      } else if (type == CommitTaskType.SET_DOWNSTREAM_ISSUE_TARGET_RELEASE) {
+         downstreamIssueManager.setIssueTargetRelease(key, value);
+      } else if (type == CommitTaskType.TRANSITION_DOWNSTREAM_ISSUE) {
+         downstreamIssueManager.transitionIssue(key, IssueState.valueOf(value));
+      } else if (type == CommitTaskType.CLONE_DOWNSTREAM_ISSUE) {
+         Issue cloningIssue = downstreamIssueManager.getIssue(key);
+         ReleaseVersion releaseVersion = ReleaseVersion.valueOf(release);
+         String summaryPrefix = "[" + releaseVersion.getMajor() + "." + releaseVersion.getMinor() + "]";
+
+         if (cloningIssue.getIssues().size() != 1) {
+            throw new IllegalStateException("Invalid number of upstream issues to clone");
+         }
 
-               upstreamIssue.getIssues().add(downstreamIssue.getKey());
-               commitTask.setResult(downstreamIssue.getKey());
-            } else {
-               throw new IllegalStateException("Commit task type not supported: " + type);
+         List<String> labels = new ArrayList<>();
+         for (String label : cloningIssue.getLabels()) {
+            if (!label.startsWith("CR")) {
+               labels.add(label);
             }
+         }
 
-            commitTask.setState(CommitTaskState.EXECUTED);
+         createdIssue = createIssue(commit, commitTask, () -> downstreamIssueManager.createIssue(
+            summaryPrefix + " " + cloningIssue.getSummary(),
+            cloningIssue.getDescription(), cloningIssue.getType(), cloningIssue.getAssignee(),
+            cloningIssue.getIssues().get(0), release, labels));
+         if (createdIssue == null) {
+            return null;
          }
+
+         downstreamIssueManager.linkIssue(createdIssue.getKey(), key, "Cloners");
+
+         commitTask.setResult(createdIssue.getKey());
+      } else if (type == CommitTaskType.CLONE_UPSTREAM_ISSUE) {
+         Issue upstreamIssue = upstreamIssueManager.getIssue(key);
+         List<String> labels = new ArrayList<>();
+         labels.add(qualifier);
+         if (commit.getTests().size() > 0) {
+            labels.add(UPSTREAM_TEST_COVERAGE_LABEL);
+         }
+
+         User assignee = assigneeResolver.getUserResolver().getUserFromUsername(commit.getAssignee());
+
+         createdIssue = createIssue(commit, commitTask, () -> downstreamIssueManager.createIssue(
+            upstreamIssue.getSummary(),
+            upstreamIssue.getDescription(), upstreamIssue.getType(), assignee.getDownstreamUsername(),
+            "https://issues.apache.org/jira/browse/" + upstreamIssue.getKey(), release, labels));
+         if (createdIssue == null) {
+            return null;
+         }
+
+         commitTask.setResult(createdIssue.getKey());
+      } else {
+         throw new IllegalStateException("Commit task type not supported: " + type);
       }
 
-      commit.getTasks().add(commitTask);
+      commitTask.setState(CommitTaskState.EXECUTED);
 
-      return CommitTaskState.EXECUTED.equals(commitTask.getState());
+      applyIssueTask(commitTask, createdIssue);
+
+      return createdIssue;
    }
 
-   private CommitTask getCommitTask(CommitTaskType type, String key, String value, List<CommitTask> tasks) {
-      if (tasks != null) {
-         for (CommitTask task : tasks) {
-            if (Objects.equals(type, task.getType()) &&
-               Objects.equals(key, task.getKey()) &&
-               Objects.equals(value, task.getValue())) {
-               return task;
-            }
+   private Issue createIssue(Commit commit, CommitTask commitTask, Callable<Issue> issueCreator) throws Exception {
+      // The creation is journaled before and after it, so the issue of an interrupted task is not created again
+      RunJournal.Entry startedTask = runJournal.getStartedTask(commit.getUpstreamCommit(), commitTask.getType(), commitTask.getKey());
+      if (startedTask != null && startedTask.getIssue() != null) {
+         logger.info("Resuming the task " + commitTask.getType() + " of " + commitTask.getKey() + " with the created issue " + startedTask.getIssue().getKey());
+         return startedTask.getIssue();
+      } else if (startedTask != null) {
+         logger.warn("The task " + commitTask.getType() + " of " + commitTask.getKey() + " was interrupted while creating the issue, check the created issues");
+         commitTask.setState(CommitTaskState.FAILED);
+         commitTask.setResult("CREATE_ISSUE_INTERRUPTED");
+         return null;
+      }
+
+      runJournal.appendStartedTask(commit.getUpstreamCommit(), new CommitTask().setType(commitTask.getType())
+         .setKey(commitTask.getKey()).setValue(commitTask.getValue()).setState(CommitTaskState.STARTED), null);
+
+      Issue createdIssue = issueCreator.call();
+
+      runJournal.appendStartedTask(commit.getUpstreamCommit(), new CommitTask().setType(commitTask.getType())
+         .setKey(commitTask.getKey()).setValue(commitTask.getValue()).setState(CommitTaskState.STARTED)
+         .setResult(createdIssue.getKey()), createdIssue);
+
+      return createdIssue;
+   }
+
+   private void applyIssueTask(CommitTask commitTask, Issue createdIssue) {
+      String key = commitTask.getKey();
+      String value = commitTask.getValue();
+
+      if (commitTask.getType() == CommitTaskType.ADD_DOWNSTREAM_ISSUE_LABEL) {
+         addIfAbsent(downstreamIssueManager.getIssue(key).getLabels(), value);
+      } else if (commitTask.getType() == CommitTaskType.SET_DOWNSTREAM_ISSUE_TARGET_RELEASE) {
+         downstreamIssueManager.getIssue(key).setTargetRelease(value);
+      } else if (commitTask.getType() == CommitTaskType.TRANSITION_DOWNSTREAM_ISSUE) {
+         downstreamIssueManager.getIssue(key).setState(IssueState.valueOf(value));
+      } else if (commitTask.getType() == CommitTaskType.CLONE_DOWNSTREAM_ISSUE) {
+         downstreamIssueManager.cacheIssue(createdIssue);
+         for (String upstreamIssueKey : createdIssue.getIssues()) {
+            addIfAbsent(upstreamIssueManager.getIssue(upstreamIssueKey).getIssues(), createdIssue.getKey());
          }
+      } else if (commitTask.getType() == CommitTaskType.CLONE_UPSTREAM_ISSUE) {
+         downstreamIssueManager.cacheIssue(createdIssue);
+         addIfAbsent(upstreamIssueManager.getIssue(key).getIssues(), createdIssue.getKey());
+      }
+   }
+
+   private static void addIfAbsent(List<String> values, String value) {
+      if (!values.contains(value)) {
+         values.add(value);
       }
+   }
+
+   public void flush() throws Exception {
+      try {
+         CompletableFuture.allOf(pendingCommitFutures.toArray(new CompletableFuture<?>[0])).join();
+      } catch (CompletionException e) {
+         throw e.getCause() instanceof Exception ? (Exception)e.getCause() : e;
+      } finally {
+         pendingCommitFutures.clear();
+      }
+
+      rollbackCommitTasks(commitPusher.flush());
+
+      runJournal.sync();
+   }
 
-      return null;
+   private void pushCommitTask(CommitTask commitTask) throws Exception {
+      rollbackCommitTasks(commitPusher.add(commitTask));
+   }
+
+   private void rollbackCommitTasks(List<CommitTask> commitTasks) throws IOException {
+      for (CommitTask commitTask : commitTasks) {
+         logger.warn("Cherry-picked commit rolled back: " + commitTask.getKey());
+         cherryPickedCommits.remove(ObjectId.fromString(commitTask.getKey()));
+
+         // The commits already journaled are journaled and output again with their failed cherry-pick
+         synchronized (rollbackLock) {
+            Commit journaledCommit = runJournal.getCommit(commitTask.getKey());
+            if (journaledCommit != null && journaledCommit.getTasks().contains(commitTask)) {
+               journaledCommit.setState(CommitState.TODO).setReason(CommitPusher.PUSH_FAILED_RESULT).setDownstreamCommit(null);
+               runJournal.appendCommit(journaledCommit);
+               rolledBackCommits.add(journaledCommit);
+            }
+         }
+      }
    }
 
    private List<String> getCommitTests(GitCommit upstreamCommit) throws Exception {
       List<String> tests = new ArrayList<>();
-      for (String ChangedFile : gitRepository.getChangedFiles(upstreamCommit)) {
-         if (ChangedFile.contains(TEST_PATH) && ChangedFile.endsWith("Test.java")) {
+      for (String ChangedFile : gitRepository.getChangedFiles(upstreamCommit, TEST_SUFFIX)) {
+         if (ChangedFile.contains(TEST_PATH)) {
             tests.add(ChangedFile.substring(ChangedFile.indexOf(TEST_PATH) + TEST_PATH.length(),
                                             ChangedFile.length() - 5).replace('/', '.'));
          }
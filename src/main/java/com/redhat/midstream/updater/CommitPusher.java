@@ -0,0 +1,199 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.redhat.midstream.updater;
+
+import com.google.gson.Gson;
+import com.redhat.midstream.updater.git.GitRepository;
+import org.apache.commons.io.FileUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Pushes the cherry-picked commits in batches, when the batch size or the batch interval is
+ * reached, before the downstream issues of a cherry-picked commit are updated
+ * and at the end of the run. The pending commit tasks are stored so the commits of an
+ * interrupted run are pushed by the next one. When a push keeps failing the branch is rolled
+ * back to the last pushed commit and the pending commit tasks are failed. The batch interval is
+ * only checked when a commit task is added, and the tasks are added by the cherry-picks, so the
+ * push and its retries delay the next cherry-pick on the branch.
+ * Without a remote, i.e. in offline mode, the commits are only kept on the local branch.
+ */
+public class CommitPusher {
+   private final static Logger logger = LoggerFactory.getLogger(CommitPusher.class);
+
+   private final static Gson gson = new Gson();
+
+   private static final int PUSH_ATTEMPTS = 3;
+   private static final long PUSH_RETRY_DELAY = 5000;
+
+   public static final String PUSH_FAILED_RESULT = "PUSH_FAILED";
+
+   private final GitRepository gitRepository;
+   private final String remote;
+   private final String branch;
+   private final int batchSize;
+   private final long batchInterval;
+   private final File pendingCommitsFile;
+
+   private final Object pushLock = new Object();
+
+   private PendingCommits pendingCommits = new PendingCommits();
+   private long pendingTimestamp;
+   private PendingCommits pushingCommits;
+
+   public CommitPusher(GitRepository gitRepository, String remote, String branch, int batchSize, long batchInterval, File pendingCommitsFile) {
+      this.gitRepository = gitRepository;
+      this.remote = remote;
+      this.branch = branch;
+      this.batchSize = batchSize;
+      this.batchInterval = batchInterval;
+      this.pendingCommitsFile = pendingCommitsFile;
+   }
+
+   public List<CommitTask> recover() throws Exception {
+      synchronized (this) {
+         if (!pendingCommitsFile.exists()) {
+            return Collections.emptyList();
+         }
+
+         pendingCommits = gson.fromJson(FileUtils.readFileToString(pendingCommitsFile, Charset.defaultCharset()), PendingCommits.class);
+         logger.info("Recovering " + pendingCommits.tasks.size() + " pending commits");
+      }
+
+      return flush();
+   }
+
+   public List<CommitTask> add(CommitTask commitTask) throws Exception {
+      synchronized (this) {
+         if (pendingCommits.tasks.size() == 0) {
+            pendingCommits.base = gitRepository.resolveCommit(commitTask.getResult() + "^").getName();
+            pendingTimestamp = System.currentTimeMillis();
+         }
+         pendingCommits.tasks.add(commitTask);
+         storePendingCommits();
+
+         if ((batchSize == 0 || pendingCommits.tasks.size() < batchSize) &&
+            (batchInterval == 0 || System.currentTimeMillis() - pendingTimestamp < batchInterval)) {
+            return Collections.emptyList();
+         }
+      }
+
+      return flush();
+   }
+
+   public List<CommitTask> flush() throws Exception {
+      // One batch is pushed at a time, the tasks added meanwhile are pushed by the next flush
+      synchronized (pushLock) {
+         PendingCommits batch;
+         synchronized (this) {
+            if (pendingCommits.tasks.size() == 0) {
+               return Collections.emptyList();
+            }
+
+            batch = pushingCommits = pendingCommits;
+            pendingCommits = new PendingCommits();
+         }
+
+         if (remote == null) {
+            logger.info("Kept " + batch.tasks.size() + " commits on the local branch " + branch);
+
+            return completePush(Collections.emptyList());
+         }
+
+         Exception pushException = null;
+         for (int attempt = 1; attempt <= PUSH_ATTEMPTS; attempt++) {
+            try {
+               gitRepository.push(remote, branch);
+               pushException = null;
+               break;
+            } catch (Exception e) {
+               logger.warn("Error pushing " + batch.tasks.size() + " commits, attempt " + attempt + "/" + PUSH_ATTEMPTS + ": " + e);
+               pushException = e;
+
+               if (attempt < PUSH_ATTEMPTS) {
+                  Thread.sleep(PUSH_RETRY_DELAY * attempt);
+               }
+            }
+         }
+
+         synchronized (this) {
+            if (pushException == null) {
+               logger.info("Pushed " + batch.tasks.size() + " commits to " + remote + "/" + branch);
+
+               for (CommitTask commitTask : batch.tasks) {
+                  commitTask.setDurable(true);
+               }
+
+               return completePush(Collections.emptyList());
+            }
+
+            // The commits added meanwhile are on top of the batch, so they are rolled back too
+            List<CommitTask> rolledBackTasks = new ArrayList<>(batch.tasks);
+            rolledBackTasks.addAll(pendingCommits.tasks);
+
+            logger.error("Rolling back " + rolledBackTasks.size() + " commits to " + batch.base);
+
+            gitRepository.resetHard(batch.base);
+
+            for (CommitTask commitTask : rolledBackTasks) {
+               commitTask.setState(CommitTaskState.FAILED);
+               commitTask.setResult(PUSH_FAILED_RESULT);
+            }
+
+            pendingCommits = new PendingCommits();
+
+            return completePush(rolledBackTasks);
+         }
+      }
+   }
+
+   private synchronized List<CommitTask> completePush(List<CommitTask> rolledBackTasks) throws Exception {
+      pushingCommits = null;
+      storePendingCommits();
+
+      return rolledBackTasks;
+   }
+
+   private void storePendingCommits() throws Exception {
+      // The batch being pushed is stored with the pending commits until it is pushed
+      PendingCommits storedCommits = pendingCommits;
+      if (pushingCommits != null) {
+         storedCommits = new PendingCommits();
+         storedCommits.base = pushingCommits.base;
+         storedCommits.tasks.addAll(pushingCommits.tasks);
+         storedCommits.tasks.addAll(pendingCommits.tasks);
+      }
+
+      if (storedCommits.tasks.size() > 0) {
+         FileUtils.writeStringToFile(pendingCommitsFile, gson.toJson(storedCommits), Charset.defaultCharset());
+      } else if (pendingCommitsFile.exists()) {
+         pendingCommitsFile.delete();
+      }
+   }
+
+   private static class PendingCommits {
+      private String base;
+      private List<CommitTask> tasks = new ArrayList<>();
+   }
+}
@@ -0,0 +1,330 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.redhat.midstream.updater;
+
+import com.google.gson.Gson;
+import com.redhat.midstream.updater.git.CommitCache;
+import com.redhat.midstream.updater.git.CommitIndex;
+import com.redhat.midstream.updater.git.CommitSimilarityIndex;
+import com.redhat.midstream.updater.git.GitCommit;
+import com.redhat.midstream.updater.git.GitRepository;
+import com.redhat.midstream.updater.git.LogFilter;
+import org.apache.commons.io.FileUtils;
+import org.eclipse.jgit.lib.ObjectId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Predicate;
+import java.util.regex.Pattern;
+
+/**
+ * Analyzes the upstream and midstream commit ranges and stores the result with the tips it was
+ * computed against, so the next analysis only walks the commits reachable from the new tips.
+ * A full analysis is executed when a tip is not a fast-forward or the merge base is changed.
+ */
+public class CommitRangeAnalyzer {
+   private final static Logger logger = LoggerFactory.getLogger(CommitRangeAnalyzer.class);
+
+   private final static Gson gson = new Gson();
+
+   private final static LogFilter upstreamLogFilter = new LogFilter()
+      .setExcludedSubjectPattern(Pattern.compile("^Merge pull request"))
+      .setReverse(true);
+
+   private final static double MODIFIED_CHERRY_PICKED_COMMIT_SIMILARITY = 0.6;
+
+   private final GitRepository gitRepository;
+   private final CommitCache commitCache;
+   private final CommitMetadataScanner commitMetadataScanner;
+   private final ReleaseVersion candidateReleaseVersion;
+
+   private List<GitCommit> upstreamCommits;
+   private CommitIndex upstreamCommitIndex;
+   private Map<ObjectId, CherryPickedCommit> cherryPickedCommits;
+
+   public CommitRangeAnalyzer(GitRepository gitRepository, CommitCache commitCache, CommitMetadataScanner commitMetadataScanner,
+                              ReleaseVersion candidateReleaseVersion) {
+      this.gitRepository = gitRepository;
+      this.commitCache = commitCache;
+      this.commitMetadataScanner = commitMetadataScanner;
+      this.candidateReleaseVersion = candidateReleaseVersion;
+   }
+
+   public List<GitCommit> getUpstreamCommits() {
+      return upstreamCommits;
+   }
+
+   public CommitIndex getUpstreamCommitIndex() {
+      return upstreamCommitIndex;
+   }
+
+   public Map<ObjectId, CherryPickedCommit> getCherryPickedCommits() {
+      return cherryPickedCommits;
+   }
+
+   public void analyze(String upstreamRevision, String midstreamRevision, File stateFile) throws Exception {
+      String upstreamTip = gitRepository.resolveCommit(upstreamRevision).getName();
+      String midstreamTip = gitRepository.resolveCommit(midstreamRevision).getName();
+      String mergeBase = gitRepository.getMergeBase(upstreamTip, midstreamTip);
+
+      CommitRangeState state = loadState(stateFile, upstreamTip, midstreamTip, mergeBase);
+
+
+      // Load upstream commits, appending the new ones while walking them oldest first
+      upstreamCommits = new ArrayList<>(gitRepository.resolveCommits(state.getUpstreamCommits()));
+      upstreamCommitIndex = new CommitIndex();
+      for (GitCommit commit : upstreamCommits) {
+         upstreamCommitIndex.add(commit);
+      }
+
+      int newUpstreamCommitCount = 0;
+      for (GitCommit commit : state.getUpstreamTip() != null ?
+         gitRepository.log(upstreamLogFilter, upstreamTip, state.getUpstreamTip(), midstreamTip) :
+         gitRepository.log(upstreamLogFilter, upstreamTip, midstreamTip)) {
+         upstreamCommits.add(commit);
+         upstreamCommitIndex.add(commit);
+         newUpstreamCommitCount++;
+      }
+
+
+      // Load midstream commits
+      Map<String, GitCommit> newMidstreamCommits = new HashMap<>();
+      List<CommitRangeState.MidstreamCommit> midstreamCommits = new ArrayList<>();
+      for (GitCommit commit : state.getMidstreamTip() != null ?
+         gitRepository.log(midstreamTip, state.getMidstreamTip(), upstreamTip) :
+         gitRepository.log(midstreamTip, upstreamTip)) {
+         newMidstreamCommits.put(commit.getName(), commit);
+         midstreamCommits.add(parseMidstreamCommit(commit));
+      }
+      midstreamCommits.addAll(state.getMidstreamCommits());
+
+      logger.info("Loaded " + newUpstreamCommitCount + "/" + upstreamCommits.size() + " new upstream commits and " +
+                     newMidstreamCommits.size() + "/" + midstreamCommits.size() + " new midstream commits");
+
+
+      // Compute patch ids
+      List<GitCommit> patchIdCommits = new ArrayList<>();
+      for (GitCommit commit : upstreamCommits) {
+         if (!commitCache.containsPatchId(commit.getName())) {
+            patchIdCommits.add(commit);
+         }
+      }
+      patchIdCommits.addAll(getMidstreamCommits(midstreamCommits, newMidstreamCommits, commitCache::containsPatchId));
+      if (patchIdCommits.size() > 0) {
+         commitCache.putPatchIds(patchIdCommits, gitRepository.getPatchIds(patchIdCommits));
+      }
+
+      for (GitCommit commit : upstreamCommits) {
+         String patchId = commitCache.getPatchId(commit.getName());
+         if (patchId != null) {
+            upstreamCommitIndex.putPatchId(commit, patchId);
+         }
+      }
+
+
+      // Match midstream commits, the upstream commits are only appended so the previous matches are still valid
+      for (CommitRangeState.MidstreamCommit midstreamCommit : midstreamCommits) {
+         if (midstreamCommit.getUpstreamCommit() == null) {
+            GitCommit cherryPickedCommit = matchMidstreamCommit(midstreamCommit);
+            if (cherryPickedCommit != null) {
+               midstreamCommit.setUpstreamCommit(cherryPickedCommit.getName());
+            }
+         }
+      }
+
+
+      // Load cherry-picked commits
+      cherryPickedCommits = new ConcurrentHashMap<>();
+      Map<CommitRangeState.MidstreamCommit, ReleaseVersion> unmatchedMidstreamCommits = new HashMap<>();
+      ReleaseVersion cherryPickedReleaseVersion = candidateReleaseVersion;
+      for (CommitRangeState.MidstreamCommit midstreamCommit : midstreamCommits) {
+         if (midstreamCommit.getReleaseVersion() != null) {
+            cherryPickedReleaseVersion = ReleaseVersion.valueOf(midstreamCommit.getReleaseVersion());
+         }
+
+         if (midstreamCommit.getUpstreamCommit() != null) {
+            cherryPickedCommits.put(ObjectId.fromString(midstreamCommit.getUpstreamCommit()),
+                                    new CherryPickedCommit(cherryPickedReleaseVersion, midstreamCommit.getName(), 1));
+         } else if (midstreamCommit.getReleaseVersion() == null && commitCache.getPatchId(midstreamCommit.getName()) != null) {
+            unmatchedMidstreamCommits.put(midstreamCommit, cherryPickedReleaseVersion);
+         }
+      }
+
+
+      // Load modified cherry-picked commits
+      if (unmatchedMidstreamCommits.size() > 0) {
+         List<GitCommit> unmatchedUpstreamCommits = new ArrayList<>();
+         for (GitCommit commit : upstreamCommits) {
+            if (!cherryPickedCommits.containsKey(commit.getId())) {
+               unmatchedUpstreamCommits.add(commit);
+            }
+         }
+
+         List<GitCommit> signatureCommits = new ArrayList<>();
+         for (GitCommit commit : unmatchedUpstreamCommits) {
+            if (!commitCache.containsSignature(commit.getName())) {
+               signatureCommits.add(commit);
+            }
+         }
+         signatureCommits.addAll(getMidstreamCommits(unmatchedMidstreamCommits.keySet(), newMidstreamCommits, commitCache::containsSignature));
+         if (signatureCommits.size() > 0) {
+            commitCache.putSignatures(gitRepository.getMinHashSignatures(signatureCommits));
+         }
+
+         CommitSimilarityIndex upstreamCommitSimilarityIndex = new CommitSimilarityIndex();
+         for (GitCommit commit : unmatchedUpstreamCommits) {
+            int[] signature = commitCache.getSignature(commit.getName());
+            if (signature != null) {
+               upstreamCommitSimilarityIndex.add(commit, signature);
+            }
+         }
+
+         for (CommitRangeState.MidstreamCommit midstreamCommit : midstreamCommits) {
+            ReleaseVersion releaseVersion = unmatchedMidstreamCommits.get(midstreamCommit);
+            int[] signature = releaseVersion != null ? commitCache.getSignature(midstreamCommit.getName()) : null;
+            if (signature != null) {
+               CommitSimilarityIndex.Match match = upstreamCommitSimilarityIndex.findMostSimilar(
+                  signature, MODIFIED_CHERRY_PICKED_COMMIT_SIMILARITY);
+
+               if (match != null) {
+                  CherryPickedCommit cherryPickedCommit = cherryPickedCommits.get(match.getCommit().getId());
+
+                  if (cherryPickedCommit == null || cherryPickedCommit.getConfidence() < match.getSimilarity()) {
+                     logger.warn("modified cherry-picked commit found: " + match.getCommit().getName() + " - " + match.getCommit().getShortMessage() +
+                                    " for " + midstreamCommit.getName() + " - " + midstreamCommit.getSummary() + " with similarity " + match.getSimilarity());
+
+                     cherryPickedCommits.put(match.getCommit().getId(), new CherryPickedCommit(releaseVersion, midstreamCommit.getName(), match.getSimilarity()));
+                  }
+               }
+            }
+         }
+      }
+
+
+      // Store state
+      List<String> upstreamCommitNames = new ArrayList<>(upstreamCommits.size());
+      for (GitCommit commit : upstreamCommits) {
+         upstreamCommitNames.add(commit.getName());
+      }
+
+      FileUtils.writeStringToFile(stateFile, gson.toJson(new CommitRangeState()
+         .setUpstreamTip(upstreamTip)
+         .setMidstreamTip(midstreamTip)
+         .setMergeBase(mergeBase)
+         .setUpstreamCommits(upstreamCommitNames)
+         .setMidstreamCommits(midstreamCommits)), Charset.defaultCharset());
+   }
+
+   private CommitRangeState loadState(File stateFile, String upstreamTip, String midstreamTip, String mergeBase) {
+      if (stateFile.exists()) {
+         try {
+            CommitRangeState state = gson.fromJson(FileUtils.readFileToString(stateFile, Charset.defaultCharset()), CommitRangeState.class);
+
+            if (state.getMergeBase() != null && state.getMergeBase().equals(mergeBase) &&
+               gitRepository.isAncestor(state.getUpstreamTip(), upstreamTip) &&
+               gitRepository.isAncestor(state.getMidstreamTip(), midstreamTip)) {
+               logger.info("Analyzing commit ranges from upstream " + state.getUpstreamTip() + " and midstream " + state.getMidstreamTip());
+               return state;
+            }
+
+            logger.info("Analyzing commit ranges from scratch: tips not fast-forwarded or merge base changed");
+         } catch (Exception e) {
+            logger.warn("Analyzing commit ranges from scratch: error loading " + stateFile + ": " + e);
+         }
+      }
+
+      return new CommitRangeState();
+   }
+
+   private CommitRangeState.MidstreamCommit parseMidstreamCommit(GitCommit commit) {
+      CommitRangeState.MidstreamCommit midstreamCommit = new CommitRangeState.MidstreamCommit()
+         .setName(commit.getName())
+         .setSummary(commit.getShortMessage());
+
+      CommitMetadata metadata = commitMetadataScanner.getMetadata(commit);
+      if (metadata.getReleaseVersion() != null) {
+         logger.info("release commit found: " + commit.getName() + " - " + commit.getShortMessage());
+         midstreamCommit.setReleaseVersion(metadata.getReleaseVersion());
+      }
+
+      midstreamCommit.setCherryPickedCommit(metadata.getCherryPickedCommit());
+
+      return midstreamCommit;
+   }
+
+   private GitCommit matchMidstreamCommit(CommitRangeState.MidstreamCommit midstreamCommit) {
+      GitCommit cherryPickedCommit = null;
+      if (midstreamCommit.getCherryPickedCommit() != null) {
+         cherryPickedCommit = upstreamCommitIndex.get(midstreamCommit.getCherryPickedCommit());
+         if (cherryPickedCommit == null) {
+            logger.error("cherry-picked commit not found: " + midstreamCommit.getCherryPickedCommit() + " - " + midstreamCommit.getSummary());
+         }
+      }
+
+      // The patch id is the authoritative equivalence signal for commits without a valid cherry-pick trailer
+      if (cherryPickedCommit == null) {
+         String patchId = commitCache.getPatchId(midstreamCommit.getName());
+         if (patchId != null) {
+            cherryPickedCommit = upstreamCommitIndex.getByPatchId(patchId);
+
+            if (cherryPickedCommit != null) {
+               logger.info("equivalent cherry-picked commit found: " + cherryPickedCommit.getName() + " - " + cherryPickedCommit.getShortMessage());
+            }
+         }
+      }
+
+      if (cherryPickedCommit == null && midstreamCommit.getCherryPickedCommit() != null) {
+         cherryPickedCommit = upstreamCommitIndex.getBySubject(midstreamCommit.getSummary());
+
+         if (cherryPickedCommit != null) {
+            logger.warn("similar cherry-picked commit found: " + cherryPickedCommit.getName() + " - " + cherryPickedCommit.getShortMessage());
+         }
+      }
+
+      return cherryPickedCommit;
+   }
+
+   private List<GitCommit> getMidstreamCommits(Iterable<CommitRangeState.MidstreamCommit> midstreamCommits,
+                                               Map<String, GitCommit> loadedMidstreamCommits,
+                                               Predicate<String> cached) throws Exception {
+      List<GitCommit> commits = new ArrayList<>();
+      List<String> unloadedCommitNames = new ArrayList<>();
+      for (CommitRangeState.MidstreamCommit midstreamCommit : midstreamCommits) {
+         if (!cached.test(midstreamCommit.getName())) {
+            GitCommit commit = loadedMidstreamCommits.get(midstreamCommit.getName());
+            if (commit != null) {
+               commits.add(commit);
+            } else {
+               unloadedCommitNames.add(midstreamCommit.getName());
+            }
+         }
+      }
+
+      // Resolve the previous midstream commits only if they are missing in the cache
+      commits.addAll(gitRepository.resolveCommits(unloadedCommitNames));
+
+      return commits;
+   }
+}
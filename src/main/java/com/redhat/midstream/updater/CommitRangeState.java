@@ -0,0 +1,132 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.redhat.midstream.updater;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class CommitRangeState {
+   private String upstreamTip;
+   private String midstreamTip;
+   private String mergeBase;
+   private List<String> upstreamCommits;
+   private List<MidstreamCommit> midstreamCommits;
+
+   public CommitRangeState() {
+      upstreamCommits = new ArrayList<>();
+      midstreamCommits = new ArrayList<>();
+   }
+
+   public String getUpstreamTip() {
+      return upstreamTip;
+   }
+
+   public CommitRangeState setUpstreamTip(String upstreamTip) {
+      this.upstreamTip = upstreamTip;
+      return this;
+   }
+
+   public String getMidstreamTip() {
+      return midstreamTip;
+   }
+
+   public CommitRangeState setMidstreamTip(String midstreamTip) {
+      this.midstreamTip = midstreamTip;
+      return this;
+   }
+
+   public String getMergeBase() {
+      return mergeBase;
+   }
+
+   public CommitRangeState setMergeBase(String mergeBase) {
+      this.mergeBase = mergeBase;
+      return this;
+   }
+
+   public List<String> getUpstreamCommits() {
+      return upstreamCommits;
+   }
+
+   public CommitRangeState setUpstreamCommits(List<String> upstreamCommits) {
+      this.upstreamCommits = upstreamCommits;
+      return this;
+   }
+
+   public List<MidstreamCommit> getMidstreamCommits() {
+      return midstreamCommits;
+   }
+
+   public CommitRangeState setMidstreamCommits(List<MidstreamCommit> midstreamCommits) {
+      this.midstreamCommits = midstreamCommits;
+      return this;
+   }
+
+   public static class MidstreamCommit {
+      private String name;
+      private String summary;
+      private String releaseVersion;
+      private String cherryPickedCommit;
+      private String upstreamCommit;
+
+      public String getName() {
+         return name;
+      }
+
+      public MidstreamCommit setName(String name) {
+         this.name = name;
+         return this;
+      }
+
+      public String getSummary() {
+         return summary;
+      }
+
+      public MidstreamCommit setSummary(String summary) {
+         this.summary = summary;
+         return this;
+      }
+
+      public String getReleaseVersion() {
+         return releaseVersion;
+      }
+
+      public MidstreamCommit setReleaseVersion(String releaseVersion) {
+         this.releaseVersion = releaseVersion;
+         return this;
+      }
+
+      public String getCherryPickedCommit() {
+         return cherryPickedCommit;
+      }
+
+      public MidstreamCommit setCherryPickedCommit(String cherryPickedCommit) {
+         this.cherryPickedCommit = cherryPickedCommit;
+         return this;
+      }
+
+      public String getUpstreamCommit() {
+         return upstreamCommit;
+      }
+
+      public MidstreamCommit setUpstreamCommit(String upstreamCommit) {
+         this.upstreamCommit = upstreamCommit;
+         return this;
+      }
+   }
+}
@@ -23,6 +23,9 @@ public class CommitTask {
    private String key;
    private String value;
    private String result;
+   private boolean durable;
+   private long startTime;
+   private long duration;
 
 
    public CommitTaskType getType() {
@@ -69,4 +72,31 @@ public class CommitTask {
       this.result = result;
       return this;
    }
+
+   public boolean isDurable() {
+      return durable;
+   }
+
+   public CommitTask setDurable(boolean durable) {
+      this.durable = durable;
+      return this;
+   }
+
+   public long getStartTime() {
+      return startTime;
+   }
+
+   public CommitTask setStartTime(long startTime) {
+      this.startTime = startTime;
+      return this;
+   }
+
+   public long getDuration() {
+      return duration;
+   }
+
+   public CommitTask setDuration(long duration) {
+      this.duration = duration;
+      return this;
+   }
 }
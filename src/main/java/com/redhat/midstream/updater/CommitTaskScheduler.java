@@ -0,0 +1,133 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.redhat.midstream.updater;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Executes the commit tasks concurrently, in submission order for the tasks that share a key,
+ * i.e. the cherry-picks share the branch and the issue tasks share the issue keys they update.
+ * The submissions from outside the scheduler block while the pending tasks exceed the capacity.
+ * A task can also depend on another future, without blocking a thread while waiting for it.
+ */
+public class CommitTaskScheduler implements AutoCloseable {
+   private final ExecutorService executor;
+   private final int capacity;
+   private final ThreadLocal<Boolean> schedulerThread = ThreadLocal.withInitial(() -> false);
+
+   private final Map<String, CompletableFuture<?>> lastTasks = new HashMap<>();
+   private int pendingTaskCount;
+
+   public CommitTaskScheduler(int parallelism, int capacity) {
+      this.executor = Executors.newFixedThreadPool(parallelism, runnable -> new Thread(() -> {
+         schedulerThread.set(true);
+         runnable.run();
+      }));
+      this.capacity = capacity;
+   }
+
+   public <T> CompletableFuture<T> submit(Collection<String> keys, Callable<T> task) throws InterruptedException {
+      return submit(keys, null, task);
+   }
+
+   public <T> CompletableFuture<T> submit(Collection<String> keys, CompletableFuture<?> dependency, Callable<T> task) throws InterruptedException {
+      CompletableFuture<T> taskFuture;
+
+      synchronized (this) {
+         // The tasks submitted by the running tasks are not blocked to avoid a deadlock
+         while (!schedulerThread.get() && pendingTaskCount >= capacity) {
+            wait();
+         }
+         pendingTaskCount++;
+
+         List<CompletableFuture<?>> previousTasks = new ArrayList<>();
+         if (dependency != null) {
+            previousTasks.add(dependency);
+         }
+         for (String key : keys) {
+            CompletableFuture<?> previousTask = lastTasks.get(key);
+            if (previousTask != null) {
+               previousTasks.add(previousTask);
+            }
+         }
+
+         // Run after the dependency and the previous tasks with the same keys, even if they failed
+         taskFuture = CompletableFuture.allOf(previousTasks.toArray(new CompletableFuture<?>[0]))
+            .handle((result, throwable) -> null)
+            .thenApplyAsync(ignored -> {
+               try {
+                  return task.call();
+               } catch (Exception e) {
+                  throw new CompletionException(e);
+               } finally {
+                  release();
+               }
+            }, executor);
+
+         for (String key : keys) {
+            lastTasks.put(key, taskFuture);
+         }
+
+         // Forget the completed task unless a later task with the same keys was submitted
+         CompletableFuture<T> lastTask = taskFuture;
+         lastTask.whenComplete((result, throwable) -> removeLastTask(keys, lastTask));
+      }
+
+      return taskFuture;
+   }
+
+   private synchronized void removeLastTask(Collection<String> keys, CompletableFuture<?> lastTask) {
+      for (String key : keys) {
+         lastTasks.remove(key, lastTask);
+      }
+   }
+
+   public void await(Collection<String> keys) {
+      List<CompletableFuture<?>> previousTasks = new ArrayList<>();
+      synchronized (this) {
+         for (String key : keys) {
+            CompletableFuture<?> previousTask = lastTasks.get(key);
+            if (previousTask != null) {
+               previousTasks.add(previousTask);
+            }
+         }
+      }
+
+      CompletableFuture.allOf(previousTasks.toArray(new CompletableFuture<?>[0]))
+         .handle((result, throwable) -> null).join();
+   }
+
+   private synchronized void release() {
+      pendingTaskCount--;
+      notifyAll();
+   }
+
+   @Override
+   public void close() {
+      executor.shutdown();
+   }
+}
@@ -4,5 +4,7 @@ public enum CommitTaskState {
    EXECUTED,
    FAILED,
    SCRATCHED,
+   SKIPPED,
+   STARTED,
    UNCONFIRMED,
 }
@@ -0,0 +1,134 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.redhat.midstream.updater;
+
+import com.google.gson.Gson;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Indexes the confirmed commit tasks by upstream commit, type, key and value. The confirmed
+ * commits are read as a stream, either as a JSON array like commits.json or as JSON objects
+ * appended after it, so a task is confirmed by appending a line instead of rewriting the file.
+ */
+public class ConfirmedTaskStore {
+   private final static Gson gson = new Gson();
+
+   private final Map<TaskKey, CommitTask> tasks = new HashMap<>();
+
+   public int size() {
+      return tasks.size();
+   }
+
+   public CommitTask getTask(String upstreamCommit, CommitTaskType type, String key, String value) {
+      return tasks.get(new TaskKey(upstreamCommit, type, key, value));
+   }
+
+   public ConfirmedTaskStore putTask(String upstreamCommit, CommitTask task) {
+      tasks.put(new TaskKey(upstreamCommit, task.getType(), task.getKey(), task.getValue()), task);
+      return this;
+   }
+
+   public void load(File file) throws IOException {
+      try (JsonReader reader = new JsonReader(Files.newBufferedReader(file.toPath(), Charset.defaultCharset()))) {
+         // Accept multiple top level values
+         reader.setLenient(true);
+
+         while (reader.peek() != JsonToken.END_DOCUMENT) {
+            if (reader.peek() == JsonToken.BEGIN_ARRAY) {
+               reader.beginArray();
+               while (reader.hasNext()) {
+                  putCommit(gson.fromJson(reader, Commit.class));
+               }
+               reader.endArray();
+            } else {
+               putCommit(gson.fromJson(reader, Commit.class));
+            }
+         }
+      }
+   }
+
+   public void confirm(File file, String upstreamCommit, CommitTask task) throws IOException {
+      Commit commit = new Commit().setUpstreamCommit(upstreamCommit).setTasks(Collections.singletonList(task));
+
+      try (Writer writer = Files.newBufferedWriter(file.toPath(), Charset.defaultCharset(),
+                                                   StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+         writer.write('\n');
+         writer.write(gson.toJson(commit));
+      }
+
+      putTask(upstreamCommit, task);
+   }
+
+   private void putCommit(Commit commit) {
+      if (commit.getTasks() != null) {
+         for (CommitTask task : commit.getTasks()) {
+            putTask(commit.getUpstreamCommit(), task);
+         }
+      }
+   }
+
+   private static final class TaskKey {
+      private final String upstreamCommit;
+      private final CommitTaskType type;
+      private final String key;
+      private final String value;
+      private final int hashCode;
+
+      private TaskKey(String upstreamCommit, CommitTaskType type, String key, String value) {
+         this.upstreamCommit = upstreamCommit;
+         this.type = type;
+         this.key = key;
+         this.value = value;
+         this.hashCode = Objects.hash(upstreamCommit, type, key, value);
+      }
+
+      @Override
+      public boolean equals(Object o) {
+         if (this == o) {
+            return true;
+         }
+         if (!(o instanceof TaskKey)) {
+            return false;
+         }
+         TaskKey taskKey = (TaskKey)o;
+         return hashCode == taskKey.hashCode &&
+            Objects.equals(upstreamCommit, taskKey.upstreamCommit) &&
+            type == taskKey.type &&
+            Objects.equals(key, taskKey.key) &&
+            Objects.equals(value, taskKey.value);
+      }
+
+      @Override
+      public int hashCode() {
+         return hashCode;
+      }
+   }
+}
@@ -17,17 +17,30 @@
 
 package com.redhat.midstream.updater;
 
+import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
+/**
+ * A release version parsed as major, minor, patch and qualifier. The versions of the release
+ * strings are registered by {@link #valueOf(String)} so each string is parsed once, and major,
+ * minor and patch are packed in a long key so only equal keys compare the qualifiers.
+ */
 public class ReleaseVersion implements Comparable<ReleaseVersion> {
    private final static Pattern versionPattern = Pattern.compile("([0-9]+)\\.([0-9]+)\\.([0-9]+).([0-9A-Za-z]+)");
 
-   private int major;
-   private int minor;
-   private int patch;
-   private String qualifier;
+   private final static Map<String, ReleaseVersion> registry = new ConcurrentHashMap<>();
+
+   private static final int KEY_FIELD_BITS = 21;
+   private static final int KEY_FIELD_MAX = (1 << KEY_FIELD_BITS) - 1;
+
+   private final int major;
+   private final int minor;
+   private final int patch;
+   private final String qualifier;
+   private final long key;
 
    public int getMajor() {
       return major;
@@ -55,6 +68,19 @@ public class ReleaseVersion implements Comparable<ReleaseVersion> {
       minor = Integer.parseInt(releaseVersionMatcher.group(2));
       patch = Integer.parseInt(releaseVersionMatcher.group(3));
       qualifier = releaseVersionMatcher.group(4);
+
+      if (major > KEY_FIELD_MAX || minor > KEY_FIELD_MAX || patch > KEY_FIELD_MAX) {
+         throw new IllegalArgumentException("Invalid release: " + release);
+      }
+      key = ((long)major << (2 * KEY_FIELD_BITS)) | ((long)minor << KEY_FIELD_BITS) | patch;
+   }
+
+   public static ReleaseVersion valueOf(String release) {
+      ReleaseVersion releaseVersion = registry.get(release);
+      if (releaseVersion == null) {
+         releaseVersion = registry.computeIfAbsent(release, ReleaseVersion::new);
+      }
+      return releaseVersion;
    }
 
    public static int compare(String releaseX, String releaseY) {
@@ -65,10 +91,7 @@ public class ReleaseVersion implements Comparable<ReleaseVersion> {
       } else if (releaseY == null || releaseY.isEmpty()) {
          return 1;
       } else {
-         ReleaseVersion releaseVersionX = new ReleaseVersion(releaseX);
-         ReleaseVersion releaseVersionY = new ReleaseVersion(releaseY);
-
-         return releaseVersionX.compareTo(releaseVersionY);
+         return valueOf(releaseX).compareTo(valueOf(releaseY));
       }
    }
 
@@ -80,10 +103,7 @@ public class ReleaseVersion implements Comparable<ReleaseVersion> {
       } else if (releaseY == null || releaseY.isEmpty()) {
          return 1;
       } else {
-         ReleaseVersion releaseVersionX = new ReleaseVersion(releaseX);
-         ReleaseVersion releaseVersionY = new ReleaseVersion(releaseY);
-
-         return releaseVersionX.compareWithoutQualifierTo(releaseVersionY);
+         return valueOf(releaseX).compareWithoutQualifierTo(valueOf(releaseY));
       }
    }
 
@@ -94,32 +114,14 @@ public class ReleaseVersion implements Comparable<ReleaseVersion> {
 
    @Override
    public int compareTo(ReleaseVersion releaseVersion) {
-      if (this.getMajor() == releaseVersion.getMajor() &&
-         this.getMinor() == releaseVersion.getMinor() &&
-         this.getPatch() == releaseVersion.getPatch() &&
-         this.getQualifier().compareTo(releaseVersion.getQualifier()) == 0) {
-         return 0;
-      } else if (this.getMajor() > releaseVersion.getMajor() ||
-         this.getMajor() == releaseVersion.getMajor() && this.getMinor() > releaseVersion.getMinor() ||
-         this.getMajor() == releaseVersion.getMajor() && this.getMinor() == releaseVersion.getMinor() && this.getPatch() > releaseVersion.getPatch() ||
-         this.getMajor() == releaseVersion.getMajor() && this.getMinor() == releaseVersion.getMinor() && this.getPatch() == releaseVersion.getPatch() && this.getQualifier().compareTo(releaseVersion.getQualifier()) > 0) {
-         return 1;
-      } else {
-         return -1;
+      int result = Long.compare(key, releaseVersion.key);
+      if (result == 0) {
+         result = Integer.signum(qualifier.compareTo(releaseVersion.qualifier));
       }
+      return result;
    }
 
    public int compareWithoutQualifierTo(ReleaseVersion releaseVersion) {
-      if (this.getMajor() == releaseVersion.getMajor() &&
-         this.getMinor() == releaseVersion.getMinor() &&
-         this.getPatch() == releaseVersion.getPatch()) {
-         return 0;
-      } else if (this.getMajor() > releaseVersion.getMajor() ||
-         this.getMajor() == releaseVersion.getMajor() && this.getMinor() > releaseVersion.getMinor() ||
-         this.getMajor() == releaseVersion.getMajor() && this.getMinor() == releaseVersion.getMinor() && this.getPatch() > releaseVersion.getPatch()) {
-         return 1;
-      } else {
-         return -1;
-      }
+      return Long.compare(key, releaseVersion.key);
    }
 }
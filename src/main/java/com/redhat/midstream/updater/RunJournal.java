@@ -0,0 +1,266 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.redhat.midstream.updater;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+import com.redhat.midstream.updater.issues.Issue;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Appends the commit task outcomes and the commit decisions of a run to a JSON lines file, which
+ * is synced to the disk in batches. The next run replays the journal left by an interrupted run,
+ * so the completed commits are not processed again and the issue updates are not repeated.
+ * The tasks creating issues are also journaled when started, so an interrupted one is resumed.
+ * The journal is deleted when the output files of the run are stored.
+ */
+public class RunJournal implements AutoCloseable {
+   private final static Logger logger = LoggerFactory.getLogger(RunJournal.class);
+
+   private final static Gson gson = new Gson();
+
+   private static final int SYNC_BATCH_SIZE = 32;
+   private static final long SYNC_INTERVAL = 1000;
+
+   private final File file;
+
+   private final List<Entry> entries = new ArrayList<>();
+   private final Map<String, Commit> commits = new HashMap<>();
+   private final Map<String, List<CommitTask>> tasks = new HashMap<>();
+   private final Map<String, List<Entry>> startedTasks = new HashMap<>();
+
+   private FileOutputStream outputStream;
+   private Writer writer;
+   private int unsyncedEntryCount;
+   private long syncTimestamp;
+
+   public RunJournal(File file) {
+      this.file = file;
+   }
+
+   public List<Entry> getEntries() {
+      return entries;
+   }
+
+   public synchronized Commit getCommit(String upstreamCommit) {
+      return commits.get(upstreamCommit);
+   }
+
+   public synchronized List<CommitTask> getTasks(String upstreamCommit) {
+      return tasks.getOrDefault(upstreamCommit, Collections.emptyList());
+   }
+
+   public synchronized Entry getStartedTask(String upstreamCommit, CommitTaskType type, String key) {
+      // The last entry has the created issue if the task was interrupted after creating it
+      Entry startedTask = null;
+      for (Entry entry : startedTasks.getOrDefault(upstreamCommit, Collections.emptyList())) {
+         if (entry.getTask().getType() == type && entry.getTask().getKey().equals(key)) {
+            startedTask = entry;
+         }
+      }
+      return startedTask;
+   }
+
+   public synchronized List<Entry> recover() throws IOException {
+      if (file.exists()) {
+         byte[] bytes = Files.readAllBytes(file.toPath());
+
+         int offset = 0;
+         int lineEnd;
+         while ((lineEnd = indexOf(bytes, (byte)'\n', offset)) >= 0) {
+            String line = new String(bytes, offset, lineEnd - offset, StandardCharsets.UTF_8);
+            if (!line.isBlank()) {
+               // The entries after an invalid one are still recovered, i.e. the synced created issues
+               Entry entry = parseEntry(line);
+               if (entry != null) {
+                  index(entry);
+                  entries.add(entry);
+               } else {
+                  logger.warn("Skipping the invalid entry at offset " + offset + " of the run journal");
+               }
+            }
+            offset = lineEnd + 1;
+         }
+
+         if (offset < bytes.length) {
+            Entry entry = parseEntry(new String(bytes, offset, bytes.length - offset, StandardCharsets.UTF_8));
+            if (entry != null) {
+               // Terminate the last entry written before the interruption of the run
+               index(entry);
+               entries.add(entry);
+               Files.write(file.toPath(), new byte[] {'\n'}, StandardOpenOption.APPEND);
+            } else {
+               // Drop the entry partially written when the run was interrupted
+               logger.warn("Truncating " + (bytes.length - offset) + " bytes of the run journal");
+               try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.WRITE)) {
+                  channel.truncate(offset);
+               }
+            }
+         }
+
+         if (entries.size() > 0) {
+            logger.info("Recovered " + entries.size() + " entries of the run journal");
+         }
+      }
+
+      return entries;
+   }
+
+   public void appendTask(String upstreamCommit, CommitTask task, Issue issue) throws IOException {
+      // Issues cannot be created again without duplicating them, so their entries are synced immediately
+      append(new Entry().setUpstreamCommit(upstreamCommit).setTask(task).setIssue(issue), issue != null);
+   }
+
+   public void appendStartedTask(String upstreamCommit, CommitTask task, Issue issue) throws IOException {
+      // The started tasks are synced before creating the issue and before updating the created issue
+      append(new Entry().setUpstreamCommit(upstreamCommit).setTask(task).setIssue(issue), true);
+   }
+
+   public void appendCommit(Commit commit) throws IOException {
+      append(new Entry().setUpstreamCommit(commit.getUpstreamCommit()).setCommit(commit), false);
+   }
+
+   private synchronized void append(Entry entry, boolean sync) throws IOException {
+      if (writer == null) {
+         outputStream = new FileOutputStream(file, true);
+         writer = new OutputStreamWriter(outputStream, StandardCharsets.UTF_8);
+         syncTimestamp = System.currentTimeMillis();
+      }
+
+      writer.write(gson.toJson(entry));
+      writer.write('\n');
+      index(entry);
+      unsyncedEntryCount++;
+
+      if (sync || unsyncedEntryCount >= SYNC_BATCH_SIZE ||
+         System.currentTimeMillis() - syncTimestamp >= SYNC_INTERVAL) {
+         sync();
+      }
+   }
+
+   public synchronized void sync() throws IOException {
+      if (writer != null && unsyncedEntryCount > 0) {
+         writer.flush();
+         outputStream.getFD().sync();
+         unsyncedEntryCount = 0;
+      }
+      syncTimestamp = System.currentTimeMillis();
+   }
+
+   public synchronized void delete() throws IOException {
+      close();
+      Files.deleteIfExists(file.toPath());
+   }
+
+   @Override
+   public synchronized void close() throws IOException {
+      if (writer != null) {
+         sync();
+         writer.close();
+         writer = null;
+         outputStream = null;
+      }
+   }
+
+   private void index(Entry entry) {
+      if (entry.getCommit() != null) {
+         commits.put(entry.getUpstreamCommit(), entry.getCommit());
+      } else if (entry.getTask() != null && CommitTaskState.STARTED.equals(entry.getTask().getState())) {
+         startedTasks.computeIfAbsent(entry.getUpstreamCommit(), key -> new ArrayList<>()).add(entry);
+      } else if (entry.getTask() != null) {
+         tasks.computeIfAbsent(entry.getUpstreamCommit(), key -> new ArrayList<>()).add(entry.getTask());
+      }
+   }
+
+   private static Entry parseEntry(String line) {
+      try {
+         return gson.fromJson(line, Entry.class);
+      } catch (JsonParseException e) {
+         return null;
+      }
+   }
+
+   private static int indexOf(byte[] bytes, byte value, int fromIndex) {
+      for (int i = fromIndex; i < bytes.length; i++) {
+         if (bytes[i] == value) {
+            return i;
+         }
+      }
+      return -1;
+   }
+
+   public static class Entry {
+      private String upstreamCommit;
+      private CommitTask task;
+      private Issue issue;
+      private Commit commit;
+
+      public String getUpstreamCommit() {
+         return upstreamCommit;
+      }
+
+      public Entry setUpstreamCommit(String upstreamCommit) {
+         this.upstreamCommit = upstreamCommit;
+         return this;
+      }
+
+      public CommitTask getTask() {
+         return task;
+      }
+
+      public Entry setTask(CommitTask task) {
+         this.task = task;
+         return this;
+      }
+
+      public Issue getIssue() {
+         return issue;
+      }
+
+      public Entry setIssue(Issue issue) {
+         this.issue = issue;
+         return this;
+      }
+
+      public Commit getCommit() {
+         return commit;
+      }
+
+      public Entry setCommit(Commit commit) {
+         this.commit = commit;
+         return this;
+      }
+   }
+}
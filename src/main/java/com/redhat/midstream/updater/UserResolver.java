@@ -15,58 +15,140 @@
  * limitations under the License.
  */
 
+
 package com.redhat.midstream.updater;
 
+import com.google.gson.Gson;
+import org.apache.commons.io.FileUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.nio.charset.Charset;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Resolves the users by username, upstream username, downstream username and email address with
+ * a hash index for each of them. The email addresses are compared ignoring case. When the users
+ * are loaded from a file, the file is checked for changes at most once per second and reloaded.
+ */
 public class UserResolver {
-   private User[] users;
+   private final static Logger logger = LoggerFactory.getLogger(UserResolver.class);
+
+   private final static Gson gson = new Gson();
+
+   private static final long USERS_FILE_CHECK_INTERVAL = 1000;
+
+   private final File usersFile;
+   private volatile Users users;
+   private volatile long usersFileCheckTimestamp;
 
    public User[] getUsers() {
-      return users;
+      return getIndexedUsers().users;
+   }
+
+   public int getGeneration() {
+      return getIndexedUsers().generation;
    }
 
    public UserResolver(User[] users) {
-      this.users = users;
+      this.usersFile = null;
+      this.users = new Users(users, 0, 0);
    }
 
-   public User getUserFromUsername(String username) {
-      for (User user : users) {
-         if (user.getUsername().equals(username)) {
-            return user;
-         }
-      }
+   public UserResolver(File usersFile) throws Exception {
+      this.usersFile = usersFile;
+      this.users = loadUsers(usersFile, 0);
+      this.usersFileCheckTimestamp = System.currentTimeMillis();
+   }
 
-      return null;
+   public User getUserFromUsername(String username) {
+      return getIndexedUsers().byUsername.get(username);
    }
 
    public User getUserFromUpstreamUsername(String username) {
-      for (User user : users) {
-         if (user.getUpstreamUsername().equals(username)) {
-            return user;
-         }
+      return getIndexedUsers().byUpstreamUsername.get(username);
+   }
+
+   public User getUserFromDownstreamUsername(String username) {
+      return getIndexedUsers().byDownstreamUsername.get(username);
+   }
+
+   public User getUserFromEmailAddress(String emailAddress) {
+      return emailAddress != null ? getIndexedUsers().byEmailAddress.get(normalizeEmailAddress(emailAddress)) : null;
+   }
+
+   private Users getIndexedUsers() {
+      if (usersFile != null && System.currentTimeMillis() - usersFileCheckTimestamp >= USERS_FILE_CHECK_INTERVAL) {
+         reloadUsers();
       }
 
-      return null;
+      return users;
    }
 
-   public User getUserFromDownstreamUsername(String username) {
-      for (User user : users) {
-         if (user.getDownstreamUsername().equals(username)) {
-            return user;
+   private synchronized void reloadUsers() {
+      if (System.currentTimeMillis() - usersFileCheckTimestamp < USERS_FILE_CHECK_INTERVAL) {
+         return;
+      }
+      usersFileCheckTimestamp = System.currentTimeMillis();
+
+      if (usersFile.lastModified() != users.lastModified) {
+         try {
+            users = loadUsers(usersFile, users.generation + 1);
+            logger.info("Reloaded " + users.users.length + " users from " + usersFile);
+         } catch (Exception e) {
+            logger.warn("Error reloading users from " + usersFile + ": " + e);
          }
       }
+   }
 
-      return null;
+   private static Users loadUsers(File usersFile, int generation) throws Exception {
+      long lastModified = usersFile.lastModified();
+      User[] users = usersFile.exists() ? gson.fromJson(FileUtils.readFileToString(usersFile, Charset.defaultCharset()), User[].class) : null;
+
+      return new Users(users != null ? users : new User[0], lastModified, generation);
    }
 
-   public User getUserFromEmailAddress(String emailAddress) {
-      for (User user : users) {
-         for (String userEmailAddress : user.getEmailAddresses()) {
-            if (userEmailAddress.equals(emailAddress)) {
-               return user;
+   private static String normalizeEmailAddress(String emailAddress) {
+      return emailAddress.trim().toLowerCase(Locale.ROOT);
+   }
+
+   private static class Users {
+      private final User[] users;
+      private final long lastModified;
+      private final int generation;
+
+      private final Map<String, User> byUsername = new HashMap<>();
+      private final Map<String, User> byUpstreamUsername = new HashMap<>();
+      private final Map<String, User> byDownstreamUsername = new HashMap<>();
+      private final Map<String, User> byEmailAddress = new HashMap<>();
+
+      private Users(User[] users, long lastModified, int generation) {
+         this.users = users;
+         this.lastModified = lastModified;
+         this.generation = generation;
+
+         // The first user wins as in a linear scan
+         for (User user : users) {
+            putIfNotNull(byUsername, user.getUsername(), user);
+            putIfNotNull(byUpstreamUsername, user.getUpstreamUsername(), user);
+            putIfNotNull(byDownstreamUsername, user.getDownstreamUsername(), user);
+            if (user.getEmailAddresses() != null) {
+               for (String emailAddress : user.getEmailAddresses()) {
+                  if (emailAddress != null) {
+                     byEmailAddress.putIfAbsent(normalizeEmailAddress(emailAddress), user);
+                  }
+               }
             }
          }
       }
 
-      return null;
+      private static void putIfNotNull(Map<String, User> index, String key, User user) {
+         if (key != null) {
+            index.putIfAbsent(key, user);
+         }
+      }
    }
 }
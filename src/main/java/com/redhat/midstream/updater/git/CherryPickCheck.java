@@ -0,0 +1,35 @@
+package com.redhat.midstream.updater.git;
+
+import java.util.List;
+
+public class CherryPickCheck {
+   private final GitCommit commit;
+   private final List<String> headConflicts;
+   private final List<String> cumulativeConflicts;
+
+   public CherryPickCheck(GitCommit commit, List<String> headConflicts, List<String> cumulativeConflicts) {
+      this.commit = commit;
+      this.headConflicts = headConflicts;
+      this.cumulativeConflicts = cumulativeConflicts;
+   }
+
+   public GitCommit getCommit() {
+      return commit;
+   }
+
+   public List<String> getHeadConflicts() {
+      return headConflicts;
+   }
+
+   public List<String> getCumulativeConflicts() {
+      return cumulativeConflicts;
+   }
+
+   public boolean appliesOnHead() {
+      return headConflicts.isEmpty();
+   }
+
+   public boolean appliesCumulatively() {
+      return cumulativeConflicts.isEmpty();
+   }
+}
@@ -0,0 +1,71 @@
+package com.redhat.midstream.updater.git;
+
+import java.io.File;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+import com.google.gson.Gson;
+import org.apache.commons.io.FileUtils;
+import org.eclipse.jgit.lib.Constants;
+import org.eclipse.jgit.lib.ObjectId;
+
+/**
+ * Remembers the upstream commits that failed to cherry-pick. A conflict is keyed by the digest
+ * of the blob ids, on the midstream head, of the paths changed by the upstream commit, so it is
+ * invalidated as soon as any of those paths changes.
+ */
+public class CherryPickConflictMemo {
+   private final static Gson gson = new Gson();
+
+   private Map<String, String> conflicts = new HashMap<>();
+
+   private transient boolean modified;
+
+   public boolean isModified() {
+      return modified;
+   }
+
+   public boolean containsConflict(String commitName, Map<String, String> blobIds) {
+      return getKey(blobIds).equals(conflicts.get(commitName));
+   }
+
+   public CherryPickConflictMemo putConflict(String commitName, Map<String, String> blobIds) {
+      conflicts.put(commitName, getKey(blobIds));
+      modified = true;
+      return this;
+   }
+
+   public CherryPickConflictMemo removeConflict(String commitName) {
+      modified |= conflicts.remove(commitName) != null;
+      return this;
+   }
+
+   public void load(File file) throws Exception {
+      CherryPickConflictMemo cherryPickConflictMemo = gson.fromJson(FileUtils.readFileToString(file, Charset.defaultCharset()), CherryPickConflictMemo.class);
+
+      if (cherryPickConflictMemo.conflicts != null) {
+         conflicts.putAll(cherryPickConflictMemo.conflicts);
+      }
+   }
+
+   public void store(File file) throws Exception {
+      FileUtils.writeStringToFile(file, gson.toJson(this), Charset.defaultCharset());
+      modified = false;
+   }
+
+   private static String getKey(Map<String, String> blobIds) {
+      MessageDigest digest = Constants.newMessageDigest();
+      for (Map.Entry<String, String> blobIdEntry : new TreeMap<>(blobIds).entrySet()) {
+         digest.update(blobIdEntry.getKey().getBytes(StandardCharsets.UTF_8));
+         digest.update((byte)0);
+         digest.update(blobIdEntry.getValue().getBytes(StandardCharsets.UTF_8));
+         digest.update((byte)'\n');
+      }
+
+      return ObjectId.fromRaw(digest.digest()).getName();
+   }
+}
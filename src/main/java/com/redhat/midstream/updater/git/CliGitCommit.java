@@ -0,0 +1,106 @@
+package com.redhat.midstream.updater.git;
+
+import java.util.Date;
+import java.util.List;
+import java.util.TimeZone;
+
+import org.eclipse.jgit.lib.ObjectId;
+
+public class CliGitCommit implements GitCommit {
+   private final ObjectId id;
+   private final List<String> parents;
+   private final String authorName;
+   private final String authorEmail;
+   private final Date authorWhen;
+   private final TimeZone authorTimeZone;
+   private final String committerName;
+   private final String committerEmail;
+   private final Date committerWhen;
+   private final TimeZone committerTimeZone;
+   private final String fullMessage;
+
+   public CliGitCommit(ObjectId id, List<String> parents,
+                       String authorName, String authorEmail, Date authorWhen, TimeZone authorTimeZone,
+                       String committerName, String committerEmail, Date committerWhen, TimeZone committerTimeZone,
+                       String fullMessage) {
+      this.id = id;
+      this.parents = parents;
+      this.authorName = authorName;
+      this.authorEmail = authorEmail;
+      this.authorWhen = authorWhen;
+      this.authorTimeZone = authorTimeZone;
+      this.committerName = committerName;
+      this.committerEmail = committerEmail;
+      this.committerWhen = committerWhen;
+      this.committerTimeZone = committerTimeZone;
+      this.fullMessage = fullMessage;
+   }
+
+   public List<String> getParents() {
+      return parents;
+   }
+
+   @Override
+   public String getFullMessage() {
+      return fullMessage;
+   }
+
+   @Override
+   public ObjectId getId() {
+      return id;
+   }
+
+   @Override
+   public String getName() {
+      return id.getName();
+   }
+
+   @Override
+   public String getAuthorName() {
+      return authorName;
+   }
+
+   @Override
+   public String getAuthorEmail() {
+      return authorEmail;
+   }
+
+   @Override
+   public Date getAuthorWhen() {
+      return authorWhen;
+   }
+
+   @Override
+   public TimeZone getAuthorTimeZone() {
+      return authorTimeZone;
+   }
+
+   @Override
+   public String getCommitterName() {
+      return committerName;
+   }
+
+   @Override
+   public String getCommitterEmail() {
+      return committerEmail;
+   }
+
+   @Override
+   public Date getCommitterWhen() {
+      return committerWhen;
+   }
+
+   @Override
+   public TimeZone getCommitterTimeZone() {
+      return committerTimeZone;
+   }
+
+   @Override
+   public String getShortMessage() {
+      // The first paragraph on a single line as RevCommit.getShortMessage
+      int paragraphEnd = fullMessage.indexOf("\n\n");
+      String paragraph = paragraphEnd >= 0 ? fullMessage.substring(0, paragraphEnd) : fullMessage;
+
+      return paragraph.replaceAll("\\s*$", "").replaceAll("\r?\n", " ");
+   }
+}
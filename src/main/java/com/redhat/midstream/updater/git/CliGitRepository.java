@@ -0,0 +1,597 @@
+package com.redhat.midstream.updater.git;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.lang.ref.Cleaner;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.TimeZone;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.IOUtils;
+import org.eclipse.jgit.lib.ObjectId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Executes the operations with the native git command line, parsing its machine-readable
+ * output. The patch ids, the MinHash signatures and the in-core cherry-pick checks are
+ * delegated to a JGitRepository on the same repository to keep the cached values stable.
+ */
+public class CliGitRepository implements GitRepository {
+   private final static Logger logger = LoggerFactory.getLogger(CliGitRepository.class);
+
+   private final static String COMMIT_FORMAT = "--format=%H%x00%P%x00%an%x00%ae%x00%ad%x00%cn%x00%ce%x00%cd%x00%B";
+   private final static int COMMIT_FIELDS = 9;
+
+   private final static Cleaner cleaner = Cleaner.create();
+
+   private final static String MIRROR_REFS_PREFIX = "refs/remotes/mirror/";
+
+   private final String command;
+   private File dir;
+   private JGitRepository jgitRepository;
+
+   public CliGitRepository() {
+      this("git");
+   }
+
+   public CliGitRepository(String command) {
+      this.command = command;
+   }
+
+   @Override
+   public File getDirectory() {
+      return new File(dir, ".git");
+   }
+
+   @Override
+   public GitRepository open(File dir) throws Exception {
+      this.dir = dir;
+      this.jgitRepository = null;
+      return this;
+   }
+
+   @Override
+   public GitRepository clone(String uri, File dir) throws Exception {
+      this.dir = dir;
+      this.jgitRepository = null;
+      execute(null, "clone", "--quiet", uri, dir.getAbsolutePath());
+      return this;
+   }
+
+   @Override
+   public GitRepository init(File dir, File mirrorDir) throws Exception {
+      this.dir = dir;
+      this.jgitRepository = null;
+      execute(null, "init", "--quiet", dir.getAbsolutePath());
+
+      if (mirrorDir != null) {
+         CliGitRepository mirrorRepository = new CliGitRepository(command);
+         mirrorRepository.open(mirrorDir);
+
+         // Share the objects of the mirror instead of copying them
+         File mirrorObjectsDir = new File(mirrorRepository.execute(null, "rev-parse", "--absolute-git-dir").trim(), "objects");
+         FileUtils.writeStringToFile(new File(getDirectory(), "objects/info/alternates"),
+                                     mirrorObjectsDir.getAbsolutePath() + "\n", StandardCharsets.UTF_8);
+
+         // Copy the mirror branches to negotiate the next fetches from them
+         StringBuilder refUpdates = new StringBuilder();
+         for (String mirrorRef : split(mirrorRepository.execute(null, "for-each-ref", "--format=%(objectname) %(refname:lstrip=2)", "refs/heads"), '\n')) {
+            String[] mirrorRefFields = mirrorRef.split(" ", 2);
+            refUpdates.append("update ").append(MIRROR_REFS_PREFIX).append(mirrorRefFields[1])
+               .append(" ").append(mirrorRefFields[0]).append("\n");
+         }
+         execute(refUpdates.toString(), "update-ref", "--stdin");
+
+         logger.info("Initialized " + dir + " from the mirror " + mirrorDir);
+      }
+
+      return this;
+   }
+
+   @Override
+   public GitCommit resolveCommit(String name) throws Exception {
+      return parseCommits(execute(null, "log", "-1", "-z", "--date=raw", COMMIT_FORMAT, name, "--")).get(0);
+   }
+
+   @Override
+   public List<GitCommit> resolveCommits(List<String> names) throws Exception {
+      if (names.size() == 0) {
+         return new ArrayList<>();
+      }
+
+      return parseCommits(execute(String.join("\n", names) + "\n",
+                                  "log", "--no-walk=unsorted", "-z", "--date=raw", COMMIT_FORMAT, "--stdin"));
+   }
+
+   @Override
+   public boolean isAncestor(String ancestor, String descendant) throws Exception {
+      return execute(null, Arrays.asList("merge-base", "--is-ancestor", ancestor, descendant), 0, 1).status == 0;
+   }
+
+   @Override
+   public String getMergeBase(String revisionX, String revisionY) throws Exception {
+      Result result = execute(null, Arrays.asList("merge-base", revisionX, revisionY), 0, 1);
+
+      return result.status == 0 ? result.output.trim() : null;
+   }
+
+   @Override
+   public boolean cherryPick(GitCommit commit) throws Exception {
+      return execute(null, Arrays.asList("cherry-pick", "--no-commit", commit.getName()), 0, 1).status == 0;
+   }
+
+   @Override
+   public void resetHard() throws Exception {
+      execute(null, "reset", "--quiet", "--hard");
+   }
+
+   @Override
+   public void resetHard(String revision) throws Exception {
+      execute(null, "reset", "--quiet", "--hard", revision);
+   }
+
+   @Override
+   public GitCommit cherryPickCommit(GitCommit commit,
+                                     String message,
+                                     String authorName,
+                                     String authorEmail,
+                                     Date authorWhen,
+                                     TimeZone authorTimezone,
+                                     String committerName,
+                                     String committerEmail) throws Exception {
+      // The merge-tree command supports a custom merge base only since git 2.40, then cherry-pick on the working tree
+      if (!cherryPick(commit)) {
+         resetHard();
+         return null;
+      }
+
+      return commit(message, authorName, authorEmail, authorWhen, authorTimezone, committerName, committerEmail);
+   }
+
+   @Override
+   public List<String> getChangedFiles(GitCommit commit) throws Exception {
+      List<String> changedFiles = new ArrayList<>();
+      for (String changedFile : split(execute(null, getDiffTreeArgs(commit, "--diff-filter=d"), 0).output, '\0')) {
+         changedFiles.add(changedFile);
+      }
+
+      return changedFiles;
+   }
+
+   @Override
+   public List<String> getChangedFiles(GitCommit commit, String pathSuffix) throws Exception {
+      List<String> changedFiles = new ArrayList<>();
+      for (String changedFile : getChangedFiles(commit)) {
+         if (changedFile.endsWith(pathSuffix)) {
+            changedFiles.add(changedFile);
+         }
+      }
+
+      return changedFiles;
+   }
+
+   @Override
+   public Map<String, String> getPatchIds(Collection<GitCommit> commits) throws Exception {
+      return getJGitRepository().getPatchIds(commits);
+   }
+
+   @Override
+   public Map<String, int[]> getMinHashSignatures(Collection<GitCommit> commits) throws Exception {
+      return getJGitRepository().getMinHashSignatures(commits);
+   }
+
+   @Override
+   public Map<String, String> getChangedBlobIds(GitCommit commit, String revision) throws Exception {
+      Map<String, String> blobIds = new HashMap<>();
+      List<String> changedFiles = split(execute(null, getDiffTreeArgs(commit), 0).output, '\0');
+      for (String changedFile : changedFiles) {
+         blobIds.put(changedFile, ObjectId.zeroId().getName());
+      }
+
+      if (changedFiles.size() > 0) {
+         List<String> args = new ArrayList<>(Arrays.asList("ls-tree", "-z", revision, "--"));
+         args.addAll(changedFiles);
+
+         // Each entry is formatted as <mode> SP <type> SP <object> TAB <file>
+         for (String entry : split(execute(null, args, 0).output, '\0')) {
+            int tabIndex = entry.indexOf('\t');
+            String path = entry.substring(tabIndex + 1);
+            if (blobIds.containsKey(path)) {
+               blobIds.put(path, entry.substring(tabIndex - ObjectId.zeroId().getName().length(), tabIndex));
+            }
+         }
+      }
+
+      return blobIds;
+   }
+
+   @Override
+   public List<CherryPickCheck> checkCherryPicks(String revision, List<GitCommit> commits) throws Exception {
+      return getJGitRepository().checkCherryPicks(revision, commits);
+   }
+
+   private synchronized JGitRepository getJGitRepository() throws Exception {
+      // Opened on first use because the repository can be created by the git command line
+      if (jgitRepository == null) {
+         JGitRepository repository = new JGitRepository();
+         repository.open(dir);
+         jgitRepository = repository;
+      }
+
+      return jgitRepository;
+   }
+
+   @Override
+   public GitCommit commit(String message,
+                           String authorName,
+                           String authorEmail,
+                           Date authorWhen,
+                           TimeZone authorTimezone,
+                           String committerName,
+                           String committerEmail) throws Exception {
+      Map<String, String> environment = new HashMap<>();
+      environment.put("GIT_AUTHOR_NAME", authorName);
+      environment.put("GIT_AUTHOR_EMAIL", authorEmail);
+      environment.put("GIT_AUTHOR_DATE", formatDate(authorWhen, authorTimezone));
+      environment.put("GIT_COMMITTER_NAME", committerName);
+      environment.put("GIT_COMMITTER_EMAIL", committerEmail);
+
+      execute(message, Arrays.asList("commit", "--quiet", "--cleanup=verbatim", "--file=-"), environment, 0);
+
+      return resolveCommit("HEAD");
+   }
+
+   @Override
+   public void push(String remote, String name) throws Exception {
+      if (name == null) {
+         name = execute(null, "symbolic-ref", "--short", "HEAD").trim();
+      }
+
+      execute(null, "push", "--quiet", remote, name);
+   }
+
+   @Override
+   public void fetch(String remote, String... branches) throws Exception {
+      List<String> args = new ArrayList<>(Arrays.asList("fetch", "--quiet"));
+
+      // Fetch only the branches in use, without tags
+      if (branches.length > 0) {
+         args.add("--no-tags");
+         args.add(remote);
+         for (String branch : branches) {
+            args.add("+refs/heads/" + branch + ":refs/remotes/" + remote + "/" + branch);
+         }
+      } else {
+         args.add(remote);
+      }
+
+      execute(null, args, 0);
+   }
+
+   @Override
+   public void fetchBundle(File bundleFile) throws Exception {
+      execute(null, "fetch", "--quiet", "--no-tags", bundleFile.getAbsolutePath(), "+refs/heads/*:" + MIRROR_REFS_PREFIX + "*");
+
+      logger.info("Fetched the bundle " + bundleFile);
+   }
+
+   @Override
+   public void remoteAdd(String name, String uri) throws Exception {
+      execute(null, "remote", "add", name, uri);
+   }
+
+   @Override
+   public boolean branchExists(String name) throws Exception {
+      return execute(null, Arrays.asList("rev-parse", "--verify", "--quiet", name + "^{commit}"), 0, 1).status == 0;
+   }
+
+   @Override
+   public void branchCreate(String name, String startPoint) throws Exception {
+      execute(null, "branch", "--force", name, startPoint);
+   }
+
+   @Override
+   public void branchDelete(String name) throws Exception {
+      if (execute(null, Arrays.asList("show-ref", "--verify", "--quiet", "refs/heads/" + name), 0, 1).status == 0) {
+         execute(null, "branch", "-D", name);
+      }
+   }
+
+   @Override
+   public void checkout(String name) throws Exception {
+      execute(null, "checkout", "--quiet", "--force", name);
+   }
+
+   @Override
+   public Iterable<GitCommit> log(String addStart, String... notStarts) throws Exception {
+      return log(null, addStart, notStarts);
+   }
+
+   @Override
+   public Iterable<GitCommit> log(LogFilter filter, String addStart, String... notStarts) throws Exception {
+      List<String> args = new ArrayList<>(Arrays.asList("log", "-z", "--date=raw", COMMIT_FORMAT));
+      if (filter != null) {
+         if (filter.getMaxParents() >= 0) {
+            args.add("--max-parents=" + filter.getMaxParents());
+         }
+         if (filter.getAuthorPattern() != null) {
+            args.add("--author=" + filter.getAuthorPattern());
+         }
+         if (filter.isReverse()) {
+            args.add("--topo-order");
+            args.add("--reverse");
+         }
+      }
+      args.add(addStart);
+      for (String notStart : notStarts) {
+         args.add("^" + notStart);
+      }
+      args.add("--");
+
+      // Each iteration runs git log and parses its output while it is consumed
+      return () -> new LogIterator(args, filter);
+   }
+
+   private List<String> getDiffTreeArgs(GitCommit commit, String... options) {
+      List<String> args = new ArrayList<>(Arrays.asList("diff-tree", "-r", "-z", "--no-renames", "--name-only", "--no-commit-id"));
+      args.addAll(Arrays.asList(options));
+
+      // Diff against the first parent as JGitRepository, the parents of the other commits are resolved by git
+      if (!(commit instanceof CliGitCommit)) {
+         args.add("--root");
+         args.add("--diff-merges=first-parent");
+      } else if (((CliGitCommit)commit).getParents().size() > 0) {
+         args.add(((CliGitCommit)commit).getParents().get(0));
+      } else {
+         args.add("--root");
+      }
+      args.add(commit.getName());
+
+      return args;
+   }
+
+   private List<GitCommit> parseCommits(String output) {
+      List<GitCommit> commits = new ArrayList<>();
+      List<String> fields = split(output, '\0');
+      for (int i = 0; i + COMMIT_FIELDS <= fields.size(); i += COMMIT_FIELDS) {
+         commits.add(parseCommit(fields.subList(i, i + COMMIT_FIELDS)));
+      }
+
+      return commits;
+   }
+
+   private static GitCommit parseCommit(List<String> fields) {
+      String[] author = fields.get(4).split(" ");
+      String[] committer = fields.get(7).split(" ");
+
+      return new CliGitCommit(ObjectId.fromString(fields.get(0)),
+                              fields.get(1).isEmpty() ? Collections.emptyList() : Arrays.asList(fields.get(1).split(" ")),
+                              fields.get(2), fields.get(3), parseDate(author[0]), parseTimeZone(author[1]),
+                              fields.get(5), fields.get(6), parseDate(committer[0]), parseTimeZone(committer[1]),
+                              fields.get(8));
+   }
+
+   private static Date parseDate(String seconds) {
+      return new Date(Long.parseLong(seconds) * 1000);
+   }
+
+   private static TimeZone parseTimeZone(String offset) {
+      // The raw offset is formatted as +HHMM
+      return TimeZone.getTimeZone("GMT" + offset.substring(0, 3) + ":" + offset.substring(3));
+   }
+
+   private static String formatDate(Date date, TimeZone timeZone) {
+      int offset = timeZone.getOffset(date.getTime()) / 60000;
+      return String.format("%d %s%02d%02d", date.getTime() / 1000, offset < 0 ? "-" : "+", Math.abs(offset) / 60, Math.abs(offset) % 60);
+   }
+
+   private static List<String> split(String output, char separator) {
+      List<String> tokens = new ArrayList<>();
+      int start = 0;
+      for (int end = output.indexOf(separator); end >= 0; end = output.indexOf(separator, start)) {
+         tokens.add(output.substring(start, end));
+         start = end + 1;
+      }
+      if (start < output.length()) {
+         tokens.add(output.substring(start));
+      }
+
+      return tokens;
+   }
+
+   private String execute(String input, String... args) throws Exception {
+      return execute(input, Arrays.asList(args), 0).output;
+   }
+
+   private Result execute(String input, List<String> args, int... expectedStatuses) throws Exception {
+      return execute(input, args, Collections.emptyMap(), expectedStatuses);
+   }
+
+   private Result execute(String input, List<String> args, Map<String, String> environment, int... expectedStatuses) throws Exception {
+      File errorFile = File.createTempFile("git-", ".err");
+      try {
+         Process process = start(input, args, environment, errorFile);
+
+         String output = IOUtils.toString(process.getInputStream(), StandardCharsets.UTF_8);
+         int status = process.waitFor();
+
+         for (int expectedStatus : expectedStatuses) {
+            if (status == expectedStatus) {
+               return new Result(status, output);
+            }
+         }
+
+         throw newExecutionException(args, errorFile);
+      } finally {
+         errorFile.delete();
+      }
+   }
+
+   private Process start(String input, List<String> args, Map<String, String> environment, File errorFile) throws Exception {
+      List<String> commandLine = new ArrayList<>();
+      commandLine.add(command);
+      commandLine.addAll(args);
+
+      ProcessBuilder processBuilder = new ProcessBuilder(commandLine)
+         .redirectError(errorFile);
+      if (dir != null && dir.exists()) {
+         processBuilder.directory(dir);
+      }
+      processBuilder.environment().putAll(environment);
+
+      Process process = processBuilder.start();
+      try (OutputStream processInput = process.getOutputStream()) {
+         if (input != null) {
+            processInput.write(input.getBytes(StandardCharsets.UTF_8));
+         }
+      }
+
+      return process;
+   }
+
+   private static IllegalStateException newExecutionException(List<String> args, File errorFile) throws Exception {
+      return new IllegalStateException("Error executing git " + String.join(" ", args) + ": " +
+                                          FileUtils.readFileToString(errorFile, Charset.defaultCharset()).trim());
+   }
+
+   /**
+    * Parses the NUL separated fields of the git log output while they are read, so the commits
+    * of a large range are not held in memory together.
+    */
+   private class LogIterator implements Iterator<GitCommit> {
+      private final List<String> args;
+      private final LogFilter filter;
+      private final File errorFile;
+      private final Process process;
+      private final Cleaner.Cleanable cleanable;
+      private Reader reader;
+      private GitCommit nextCommit;
+
+      LogIterator(List<String> args, LogFilter filter) {
+         this.args = args;
+         this.filter = filter;
+         try {
+            errorFile = File.createTempFile("git-", ".err");
+            process = start(null, args, Collections.emptyMap(), errorFile);
+         } catch (Exception e) {
+            throw new IllegalStateException("Error executing git " + String.join(" ", args), e);
+         }
+         reader = new BufferedReader(new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8));
+
+         // Destroy the process when the iteration is abandoned before reading all the commits
+         cleanable = cleaner.register(this, new ProcessCleanup(process, errorFile));
+      }
+
+      @Override
+      public boolean hasNext() {
+         if (nextCommit == null && reader != null) {
+            try {
+               nextCommit = readCommit();
+            } catch (Exception e) {
+               throw new IllegalStateException("Error reading git " + String.join(" ", args), e);
+            }
+         }
+
+         return nextCommit != null;
+      }
+
+      @Override
+      public GitCommit next() {
+         if (!hasNext()) {
+            throw new NoSuchElementException();
+         }
+
+         GitCommit commit = nextCommit;
+         nextCommit = null;
+         return commit;
+      }
+
+      private GitCommit readCommit() throws Exception {
+         List<String> fields = new ArrayList<>(COMMIT_FIELDS);
+         String field;
+         while ((field = readField()) != null) {
+            fields.add(field);
+
+            if (fields.size() == COMMIT_FIELDS) {
+               GitCommit commit = parseCommit(fields);
+
+               // git log can only grep the whole message
+               if (filter == null || !filter.hasSubjectPatterns() || filter.acceptsSubject(commit.getShortMessage())) {
+                  return commit;
+               }
+               fields.clear();
+            }
+         }
+
+         close();
+         return null;
+      }
+
+      private String readField() throws Exception {
+         StringBuilder field = new StringBuilder();
+         int c;
+         while ((c = reader.read()) >= 0) {
+            if (c == '\0') {
+               return field.toString();
+            }
+            field.append((char)c);
+         }
+
+         return field.length() > 0 ? field.toString() : null;
+      }
+
+      private void close() throws Exception {
+         try {
+            reader.close();
+            reader = null;
+
+            if (process.waitFor() != 0) {
+               throw newExecutionException(args, errorFile);
+            }
+         } finally {
+            cleanable.clean();
+         }
+      }
+   }
+
+   private static class ProcessCleanup implements Runnable {
+      private final Process process;
+      private final File errorFile;
+
+      ProcessCleanup(Process process, File errorFile) {
+         this.process = process;
+         this.errorFile = errorFile;
+      }
+
+      @Override
+      public void run() {
+         process.destroy();
+         errorFile.delete();
+      }
+   }
+
+   private static class Result {
+      private final int status;
+      private final String output;
+
+      Result(int status, String output) {
+         this.status = status;
+         this.output = output;
+      }
+   }
+}
@@ -0,0 +1,94 @@
+package com.redhat.midstream.updater.git;
+
+import java.io.File;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+import com.google.gson.Gson;
+import org.apache.commons.io.FileUtils;
+
+public class CommitCache {
+   private final static Gson gson = new Gson();
+
+   // The merges and the empty commits have no patch id, they are cached to avoid computing them again
+   private final static String NO_PATCH_ID = "";
+
+   private Map<String, String> patchIds = new HashMap<>();
+   private Map<String, String> signatures = new HashMap<>();
+
+   private transient boolean modified;
+
+   public boolean isModified() {
+      return modified;
+   }
+
+   public String getPatchId(String commitName) {
+      String patchId = patchIds.get(commitName);
+      return NO_PATCH_ID.equals(patchId) ? null : patchId;
+   }
+
+   public boolean containsPatchId(String commitName) {
+      return patchIds.containsKey(commitName);
+   }
+
+   public CommitCache putPatchIds(Map<String, String> patchIds) {
+      this.patchIds.putAll(patchIds);
+      modified |= patchIds.size() > 0;
+      return this;
+   }
+
+   public CommitCache putPatchIds(Collection<GitCommit> commits, Map<String, String> patchIds) {
+      for (GitCommit commit : commits) {
+         this.patchIds.put(commit.getName(), patchIds.getOrDefault(commit.getName(), NO_PATCH_ID));
+      }
+      modified |= commits.size() > 0;
+      return this;
+   }
+
+   public int[] getSignature(String commitName) {
+      String encodedSignature = signatures.get(commitName);
+      if (encodedSignature == null) {
+         return null;
+      }
+
+      int[] signature = new int[CommitSimilarityIndex.SIGNATURE_LENGTH];
+      ByteBuffer.wrap(Base64.getDecoder().decode(encodedSignature)).asIntBuffer().get(signature);
+      return signature;
+   }
+
+   public boolean containsSignature(String commitName) {
+      return signatures.containsKey(commitName);
+   }
+
+   public CommitCache putSignatures(Map<String, int[]> signatures) {
+      for (Map.Entry<String, int[]> signatureEntry : signatures.entrySet()) {
+         // Encode the signatures to reduce the size of the cache file
+         ByteBuffer signatureBuffer = ByteBuffer.allocate(signatureEntry.getValue().length * Integer.BYTES);
+         signatureBuffer.asIntBuffer().put(signatureEntry.getValue());
+         this.signatures.put(signatureEntry.getKey(), Base64.getEncoder().encodeToString(signatureBuffer.array()));
+      }
+      modified |= signatures.size() > 0;
+      return this;
+   }
+
+   public void load(File file) throws Exception {
+      CommitCache commitCache = gson.fromJson(FileUtils.readFileToString(file, Charset.defaultCharset()), CommitCache.class);
+
+      if (commitCache.patchIds != null) {
+         patchIds.putAll(commitCache.patchIds);
+      }
+
+      if (commitCache.signatures != null) {
+         signatures.putAll(commitCache.signatures);
+      }
+   }
+
+   public void store(File file) throws Exception {
+      FileUtils.writeStringToFile(file, gson.toJson(this), Charset.defaultCharset());
+      modified = false;
+   }
+}
@@ -0,0 +1,60 @@
+package com.redhat.midstream.updater.git;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+import org.eclipse.jgit.lib.AnyObjectId;
+import org.eclipse.jgit.lib.ObjectId;
+
+public class CommitIndex {
+   private final static Pattern whitespacePattern = Pattern.compile("\\s+");
+
+   private final Map<ObjectId, GitCommit> commitsById = new HashMap<>();
+   private final Map<String, GitCommit> commitsBySubject = new HashMap<>();
+   private final Map<String, GitCommit> commitsByPatchId = new HashMap<>();
+
+   public static String normalizeSubject(String subject) {
+      return whitespacePattern.matcher(subject.trim()).replaceAll(" ");
+   }
+
+   public CommitIndex add(GitCommit commit) {
+      commitsById.put(commit.getId(), commit);
+
+      // Keep the first commit added for a subject
+      commitsBySubject.putIfAbsent(normalizeSubject(commit.getShortMessage()), commit);
+
+      return this;
+   }
+
+   public CommitIndex putPatchId(GitCommit commit, String patchId) {
+      // Keep the first commit added for a patch id
+      commitsByPatchId.putIfAbsent(patchId, commit);
+
+      return this;
+   }
+
+   public GitCommit get(AnyObjectId id) {
+      return commitsById.get(id);
+   }
+
+   public GitCommit get(String name) {
+      return ObjectId.isId(name) ? commitsById.get(ObjectId.fromString(name)) : null;
+   }
+
+   public GitCommit getBySubject(String subject) {
+      return commitsBySubject.get(normalizeSubject(subject));
+   }
+
+   public GitCommit getByPatchId(String patchId) {
+      return commitsByPatchId.get(patchId);
+   }
+
+   public boolean contains(AnyObjectId id) {
+      return commitsById.containsKey(id);
+   }
+
+   public int size() {
+      return commitsById.size();
+   }
+}
@@ -0,0 +1,127 @@
+package com.redhat.midstream.updater.git;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SplittableRandom;
+
+/**
+ * Indexes the MinHash signatures of the commit diffs in LSH buckets to find the most similar
+ * commit without comparing all the signatures. With 16 bands of 4 rows two commits become
+ * candidates with a probability of 50% at a similarity of 0.5 and of 99% at a similarity of 0.8.
+ */
+public class CommitSimilarityIndex {
+   public static final int SIGNATURE_LENGTH = 64;
+
+   private static final int BANDS = 16;
+   private static final int ROWS = SIGNATURE_LENGTH / BANDS;
+
+   // The seeds must not change to keep the cached signatures valid
+   private static final long[] SEEDS = new SplittableRandom(0x5eed).longs(SIGNATURE_LENGTH).toArray();
+
+   private final Map<Long, List<GitCommit>> buckets = new HashMap<>();
+   private final Map<GitCommit, int[]> signatures = new HashMap<>();
+
+   public static int[] newSignature() {
+      int[] signature = new int[SIGNATURE_LENGTH];
+      Arrays.fill(signature, Integer.MAX_VALUE);
+      return signature;
+   }
+
+   public static void updateSignature(int[] signature, long shingle) {
+      for (int i = 0; i < SIGNATURE_LENGTH; i++) {
+         int value = (int)(mix(shingle ^ SEEDS[i]) >>> 33);
+         if (value < signature[i]) {
+            signature[i] = value;
+         }
+      }
+   }
+
+   public static double similarity(int[] signatureX, int[] signatureY) {
+      int count = 0;
+      for (int i = 0; i < SIGNATURE_LENGTH; i++) {
+         if (signatureX[i] == signatureY[i]) {
+            count++;
+         }
+      }
+
+      return (double)count / SIGNATURE_LENGTH;
+   }
+
+   public CommitSimilarityIndex add(GitCommit commit, int[] signature) {
+      signatures.put(commit, signature);
+
+      for (int band = 0; band < BANDS; band++) {
+         buckets.computeIfAbsent(getBucketKey(signature, band), key -> new ArrayList<>()).add(commit);
+      }
+
+      return this;
+   }
+
+   public int size() {
+      return signatures.size();
+   }
+
+   public Match findMostSimilar(int[] signature, double threshold) {
+      Match match = null;
+      Set<GitCommit> candidates = new HashSet<>();
+
+      for (int band = 0; band < BANDS; band++) {
+         List<GitCommit> bucket = buckets.get(getBucketKey(signature, band));
+
+         if (bucket != null) {
+            for (GitCommit candidate : bucket) {
+               if (candidates.add(candidate)) {
+                  double similarity = similarity(signature, signatures.get(candidate));
+
+                  if (similarity >= threshold && (match == null || similarity > match.getSimilarity())) {
+                     match = new Match(candidate, similarity);
+                  }
+               }
+            }
+         }
+      }
+
+      return match;
+   }
+
+   private static long getBucketKey(int[] signature, int band) {
+      long key = band;
+      for (int row = band * ROWS; row < (band + 1) * ROWS; row++) {
+         key = key * 31 + signature[row];
+      }
+
+      return mix(key);
+   }
+
+   private static long mix(long value) {
+      value ^= value >>> 33;
+      value *= 0xff51afd7ed558ccdL;
+      value ^= value >>> 33;
+      value *= 0xc4ceb9fe1a85ec53L;
+      value ^= value >>> 33;
+      return value;
+   }
+
+   public static class Match {
+      private final GitCommit commit;
+      private final double similarity;
+
+      public Match(GitCommit commit, double similarity) {
+         this.commit = commit;
+         this.similarity = similarity;
+      }
+
+      public GitCommit getCommit() {
+         return commit;
+      }
+
+      public double getSimilarity() {
+         return similarity;
+      }
+   }
+}
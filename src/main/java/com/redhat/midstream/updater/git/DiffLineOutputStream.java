@@ -0,0 +1,56 @@
+package com.redhat.midstream.updater.git;
+
+import java.io.OutputStream;
+import java.util.Arrays;
+
+abstract class DiffLineOutputStream extends OutputStream {
+   protected byte[] line = new byte[256];
+   protected int lineLength;
+
+   protected abstract void processLine();
+
+   public void reset() {
+      lineLength = 0;
+   }
+
+   public void finish() {
+      if (lineLength > 0) {
+         processLine();
+         lineLength = 0;
+      }
+   }
+
+   @Override
+   public void write(int b) {
+      if (b == '\n') {
+         processLine();
+         lineLength = 0;
+      } else {
+         if (lineLength == line.length) {
+            line = Arrays.copyOf(line, line.length * 2);
+         }
+         line[lineLength++] = (byte)b;
+      }
+   }
+
+   @Override
+   public void write(byte[] b, int off, int len) {
+      for (int i = off; i < off + len; i++) {
+         write(b[i]);
+      }
+   }
+
+   protected boolean startsWith(String prefix) {
+      if (lineLength < prefix.length()) {
+         return false;
+      }
+
+      for (int i = 0; i < prefix.length(); i++) {
+         if (line[i] != prefix.charAt(i)) {
+            return false;
+         }
+      }
+
+      return true;
+   }
+}
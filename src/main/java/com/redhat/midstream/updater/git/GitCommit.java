@@ -3,12 +3,15 @@ package com.redhat.midstream.updater.git;
 import java.util.Date;
 import java.util.TimeZone;
 
+import org.eclipse.jgit.lib.ObjectId;
 import org.eclipse.jgit.revwalk.RevCommit;
 
 public interface GitCommit {
 
    String getFullMessage();
 
+   ObjectId getId();
+
    String getName();
 
    String getAuthorName();
@@ -1,8 +1,10 @@
 package com.redhat.midstream.updater.git;
 
 import java.io.File;
+import java.util.Collection;
 import java.util.Date;
 import java.util.List;
+import java.util.Map;
 import java.util.TimeZone;
 
 import org.eclipse.jgit.revwalk.RevCommit;
@@ -14,19 +16,50 @@ public interface GitRepository {
 
    GitRepository clone(String uri, File dir) throws Exception;
 
+   GitRepository init(File dir, File mirrorDir) throws Exception;
+
    GitCommit resolveCommit(String name) throws Exception;
 
+   List<GitCommit> resolveCommits(List<String> names) throws Exception;
+
+   boolean isAncestor(String ancestor, String descendant) throws Exception;
+
+   String getMergeBase(String revisionX, String revisionY) throws Exception;
+
    boolean cherryPick(GitCommit commit) throws Exception;
 
    void resetHard() throws Exception;
 
+   void resetHard(String revision) throws Exception;
+
+   GitCommit cherryPickCommit(GitCommit commit,
+                              String message,
+                              String authorName,
+                              String authorEmail,
+                              Date authorWhen,
+                              TimeZone authorTimezone,
+                              String committerName,
+                              String committerEmail) throws Exception;
+
    List<String> getChangedFiles(GitCommit commit) throws Exception;
 
+   List<String> getChangedFiles(GitCommit commit, String pathSuffix) throws Exception;
+
+   Map<String, String> getPatchIds(Collection<GitCommit> commits) throws Exception;
+
+   Map<String, int[]> getMinHashSignatures(Collection<GitCommit> commits) throws Exception;
+
+   Map<String, String> getChangedBlobIds(GitCommit commit, String revision) throws Exception;
+
+   List<CherryPickCheck> checkCherryPicks(String revision, List<GitCommit> commits) throws Exception;
+
    GitCommit commit(String message, String authorName, String authorEmail, Date authorWhen, TimeZone authorTimezone, String committerName, String committerEmail) throws Exception;
 
    void push(String remote, String name) throws Exception;
 
-   void fetch(String remote) throws Exception;
+   void fetch(String remote, String... branches) throws Exception;
+
+   void fetchBundle(File bundleFile) throws Exception;
 
    void remoteAdd(String name, String uri) throws Exception;
 
@@ -38,6 +71,8 @@ public interface GitRepository {
 
    void checkout(String name) throws Exception;
 
-   Iterable<GitCommit> log(String addStart, String notStart) throws Exception;
+   Iterable<GitCommit> log(String addStart, String... notStarts) throws Exception;
+
+   Iterable<GitCommit> log(LogFilter filter, String addStart, String... notStarts) throws Exception;
 
 }
@@ -0,0 +1,205 @@
+package com.redhat.midstream.updater.git;
+
+import java.io.File;
+import java.util.Collection;
+import java.util.Date;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TimeZone;
+
+/**
+ * Delegates each group of operations to the JGit or to the native git implementation on the
+ * same repository. The working tree operations are always executed by the same implementation
+ * because JGitRepository tracks the working tree left stale by the in-core cherry-picks.
+ */
+public class HybridGitRepository implements GitRepository {
+
+   public enum Operation {
+      LOG,
+      CHANGED_FILES,
+      WORKING_TREE,
+      FETCH,
+      PUSH
+   }
+
+   private final GitRepository jgitRepository;
+   private final GitRepository cliRepository;
+   private final Set<Operation> cliOperations;
+
+   public HybridGitRepository(GitRepository jgitRepository, GitRepository cliRepository, Set<Operation> cliOperations) {
+      this.jgitRepository = jgitRepository;
+      this.cliRepository = cliRepository;
+      this.cliOperations = EnumSet.noneOf(Operation.class);
+      this.cliOperations.addAll(cliOperations);
+   }
+
+   private GitRepository get(Operation operation) {
+      return cliOperations.contains(operation) ? cliRepository : jgitRepository;
+   }
+
+   @Override
+   public File getDirectory() {
+      return jgitRepository.getDirectory();
+   }
+
+   @Override
+   public GitRepository open(File dir) throws Exception {
+      jgitRepository.open(dir);
+      cliRepository.open(dir);
+      return this;
+   }
+
+   @Override
+   public GitRepository clone(String uri, File dir) throws Exception {
+      get(Operation.FETCH).clone(uri, dir);
+      return open(dir);
+   }
+
+   @Override
+   public GitRepository init(File dir, File mirrorDir) throws Exception {
+      get(Operation.FETCH).init(dir, mirrorDir);
+      return open(dir);
+   }
+
+   @Override
+   public GitCommit resolveCommit(String name) throws Exception {
+      return get(Operation.LOG).resolveCommit(name);
+   }
+
+   @Override
+   public List<GitCommit> resolveCommits(List<String> names) throws Exception {
+      return get(Operation.LOG).resolveCommits(names);
+   }
+
+   @Override
+   public boolean isAncestor(String ancestor, String descendant) throws Exception {
+      return get(Operation.LOG).isAncestor(ancestor, descendant);
+   }
+
+   @Override
+   public String getMergeBase(String revisionX, String revisionY) throws Exception {
+      return get(Operation.LOG).getMergeBase(revisionX, revisionY);
+   }
+
+   @Override
+   public boolean cherryPick(GitCommit commit) throws Exception {
+      return get(Operation.WORKING_TREE).cherryPick(commit);
+   }
+
+   @Override
+   public void resetHard() throws Exception {
+      get(Operation.WORKING_TREE).resetHard();
+   }
+
+   @Override
+   public void resetHard(String revision) throws Exception {
+      get(Operation.WORKING_TREE).resetHard(revision);
+   }
+
+   @Override
+   public GitCommit cherryPickCommit(GitCommit commit,
+                                     String message,
+                                     String authorName,
+                                     String authorEmail,
+                                     Date authorWhen,
+                                     TimeZone authorTimezone,
+                                     String committerName,
+                                     String committerEmail) throws Exception {
+      return get(Operation.WORKING_TREE).cherryPickCommit(commit, message, authorName, authorEmail, authorWhen,
+                                                          authorTimezone, committerName, committerEmail);
+   }
+
+   @Override
+   public List<String> getChangedFiles(GitCommit commit) throws Exception {
+      return get(Operation.CHANGED_FILES).getChangedFiles(commit);
+   }
+
+   @Override
+   public List<String> getChangedFiles(GitCommit commit, String pathSuffix) throws Exception {
+      return get(Operation.CHANGED_FILES).getChangedFiles(commit, pathSuffix);
+   }
+
+   @Override
+   public Map<String, String> getPatchIds(Collection<GitCommit> commits) throws Exception {
+      return jgitRepository.getPatchIds(commits);
+   }
+
+   @Override
+   public Map<String, int[]> getMinHashSignatures(Collection<GitCommit> commits) throws Exception {
+      return jgitRepository.getMinHashSignatures(commits);
+   }
+
+   @Override
+   public Map<String, String> getChangedBlobIds(GitCommit commit, String revision) throws Exception {
+      return get(Operation.CHANGED_FILES).getChangedBlobIds(commit, revision);
+   }
+
+   @Override
+   public List<CherryPickCheck> checkCherryPicks(String revision, List<GitCommit> commits) throws Exception {
+      return jgitRepository.checkCherryPicks(revision, commits);
+   }
+
+   @Override
+   public GitCommit commit(String message,
+                           String authorName,
+                           String authorEmail,
+                           Date authorWhen,
+                           TimeZone authorTimezone,
+                           String committerName,
+                           String committerEmail) throws Exception {
+      return get(Operation.WORKING_TREE).commit(message, authorName, authorEmail, authorWhen,
+                                                authorTimezone, committerName, committerEmail);
+   }
+
+   @Override
+   public void push(String remote, String name) throws Exception {
+      get(Operation.PUSH).push(remote, name);
+   }
+
+   @Override
+   public void fetch(String remote, String... branches) throws Exception {
+      get(Operation.FETCH).fetch(remote, branches);
+   }
+
+   @Override
+   public void fetchBundle(File bundleFile) throws Exception {
+      get(Operation.FETCH).fetchBundle(bundleFile);
+   }
+
+   @Override
+   public void remoteAdd(String name, String uri) throws Exception {
+      get(Operation.FETCH).remoteAdd(name, uri);
+   }
+
+   @Override
+   public boolean branchExists(String name) throws Exception {
+      return get(Operation.LOG).branchExists(name);
+   }
+
+   @Override
+   public void branchCreate(String name, String startPoint) throws Exception {
+      get(Operation.WORKING_TREE).branchCreate(name, startPoint);
+   }
+
+   @Override
+   public void branchDelete(String name) throws Exception {
+      get(Operation.WORKING_TREE).branchDelete(name);
+   }
+
+   @Override
+   public void checkout(String name) throws Exception {
+      get(Operation.WORKING_TREE).checkout(name);
+   }
+
+   @Override
+   public Iterable<GitCommit> log(String addStart, String... notStarts) throws Exception {
+      return get(Operation.LOG).log(addStart, notStarts);
+   }
+
+   @Override
+   public Iterable<GitCommit> log(LogFilter filter, String addStart, String... notStarts) throws Exception {
+      return get(Operation.LOG).log(filter, addStart, notStarts);
+   }
+}
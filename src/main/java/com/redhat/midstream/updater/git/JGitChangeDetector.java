@@ -0,0 +1,70 @@
+package com.redhat.midstream.updater.git;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.eclipse.jgit.lib.FileMode;
+import org.eclipse.jgit.lib.ObjectReader;
+import org.eclipse.jgit.lib.Repository;
+import org.eclipse.jgit.revwalk.RevCommit;
+import org.eclipse.jgit.revwalk.RevWalk;
+import org.eclipse.jgit.treewalk.EmptyTreeIterator;
+import org.eclipse.jgit.treewalk.TreeWalk;
+import org.eclipse.jgit.treewalk.filter.AndTreeFilter;
+import org.eclipse.jgit.treewalk.filter.PathSuffixFilter;
+import org.eclipse.jgit.treewalk.filter.TreeFilter;
+
+/**
+ * Detects the files with a given path suffix changed by a commit.
+ *
+ * It walks the commit tree against its first parent tree with a path suffix filter
+ * and compares only the object ids, so no DiffEntry and no content is ever loaded.
+ * The ObjectReader is reused across commits, then the detector is not thread safe.
+ */
+public class JGitChangeDetector implements AutoCloseable {
+   private final ObjectReader reader;
+   private final RevWalk revWalk;
+   private final TreeWalk treeWalk;
+
+   public JGitChangeDetector(Repository repository, String pathSuffix) {
+      reader = repository.newObjectReader();
+      revWalk = new RevWalk(reader);
+      treeWalk = new TreeWalk(repository, reader);
+      treeWalk.setRecursive(true);
+      treeWalk.setFilter(AndTreeFilter.create(PathSuffixFilter.create(pathSuffix), TreeFilter.ANY_DIFF));
+   }
+
+   public List<String> getChangedFiles(RevCommit commit) throws Exception {
+      List<String> changedFiles = new ArrayList<>();
+
+      try {
+         RevCommit parsedCommit = revWalk.parseCommit(commit);
+
+         treeWalk.reset();
+         if (parsedCommit.getParentCount() > 0) {
+            treeWalk.addTree(revWalk.parseCommit(parsedCommit.getParent(0)).getTree());
+         } else {
+            treeWalk.addTree(new EmptyTreeIterator());
+         }
+         treeWalk.addTree(parsedCommit.getTree());
+
+         while (treeWalk.next()) {
+            // Skip the deleted files
+            if (treeWalk.getRawMode(1) != FileMode.TYPE_MISSING) {
+               changedFiles.add(treeWalk.getPathString());
+            }
+         }
+      } finally {
+         revWalk.dispose();
+      }
+
+      return changedFiles;
+   }
+
+   @Override
+   public void close() {
+      treeWalk.close();
+      revWalk.close();
+      reader.close();
+   }
+}
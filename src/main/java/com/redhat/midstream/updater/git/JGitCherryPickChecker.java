@@ -0,0 +1,80 @@
+package com.redhat.midstream.updater.git;
+
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.eclipse.jgit.lib.AnyObjectId;
+import org.eclipse.jgit.lib.Constants;
+import org.eclipse.jgit.lib.ObjectId;
+import org.eclipse.jgit.lib.ObjectInserter;
+import org.eclipse.jgit.lib.Repository;
+import org.eclipse.jgit.merge.MergeStrategy;
+import org.eclipse.jgit.merge.ResolveMerger;
+import org.eclipse.jgit.revwalk.RevCommit;
+import org.eclipse.jgit.revwalk.RevWalk;
+
+/**
+ * Checks if a commit can be cherry-picked on a tree with the in-core merger, without touching
+ * the index and the working tree. The merged trees are inserted but never referenced, so they
+ * are removed by the next garbage collection. It is not thread safe, use a checker for each thread.
+ */
+public class JGitCherryPickChecker implements Closeable {
+   private final Repository repository;
+   private final ObjectInserter inserter;
+   private final RevWalk revWalk;
+
+   private ObjectId resultTreeId;
+
+   public JGitCherryPickChecker(Repository repository) {
+      this.repository = repository;
+      inserter = repository.newObjectInserter();
+      revWalk = new RevWalk(inserter.newReader());
+   }
+
+   public ObjectId getResultTreeId() {
+      return resultTreeId;
+   }
+
+   public void flush() throws Exception {
+      inserter.flush();
+   }
+
+   public List<String> cherryPick(AnyObjectId treeId, RevCommit commit) throws Exception {
+      try {
+         RevCommit parsedCommit = revWalk.parseCommit(commit);
+
+         // Use the first parent as base for the merge commits as git cherry-pick -m 1
+         ObjectId baseTreeId;
+         if (parsedCommit.getParentCount() > 0) {
+            baseTreeId = revWalk.parseCommit(parsedCommit.getParent(0)).getTree();
+         } else {
+            baseTreeId = inserter.insert(Constants.OBJ_TREE, new byte[0]);
+         }
+
+         ResolveMerger merger = (ResolveMerger)MergeStrategy.RECURSIVE.newMerger(inserter, repository.getConfig());
+         merger.setBase(baseTreeId);
+
+         if (merger.merge(false, treeId, parsedCommit.getTree())) {
+            resultTreeId = merger.getResultTreeId();
+            return Collections.emptyList();
+         }
+
+         resultTreeId = null;
+         List<String> conflictingPaths = new ArrayList<>(merger.getUnmergedPaths());
+         if (merger.getFailingPaths() != null) {
+            conflictingPaths.addAll(merger.getFailingPaths().keySet());
+         }
+         return conflictingPaths;
+      } finally {
+         revWalk.dispose();
+      }
+   }
+
+   @Override
+   public void close() {
+      revWalk.close();
+      inserter.close();
+   }
+}
@@ -3,6 +3,7 @@ package com.redhat.midstream.updater.git;
 import java.util.Date;
 import java.util.TimeZone;
 
+import org.eclipse.jgit.lib.ObjectId;
 import org.eclipse.jgit.revwalk.RevCommit;
 
 public class JGitCommit implements GitCommit {
@@ -21,6 +22,11 @@ public class JGitCommit implements GitCommit {
       return revCommit.getFullMessage();
    }
 
+   @Override
+   public ObjectId getId() {
+      return revCommit.getId();
+   }
+
    @Override
    public String getName() {
       return revCommit.getName();
@@ -0,0 +1,36 @@
+package com.redhat.midstream.updater.git;
+
+import org.eclipse.jgit.lib.AnyObjectId;
+import org.eclipse.jgit.lib.ObjectReader;
+import org.eclipse.jgit.lib.Repository;
+import org.eclipse.jgit.revwalk.RevCommit;
+import org.eclipse.jgit.revwalk.RevWalk;
+
+/**
+ * Parses the commits of the lazy handles with a shared ObjectReader.
+ */
+class JGitCommitLoader implements AutoCloseable {
+   private final ObjectReader reader;
+
+   JGitCommitLoader(Repository repository) {
+      reader = repository.newObjectReader();
+   }
+
+   synchronized RevCommit load(AnyObjectId id) throws Exception {
+      // The RevWalk does not close the shared reader
+      try (RevWalk revWalk = new RevWalk(reader)) {
+         RevCommit revCommit = revWalk.parseCommit(id);
+
+         // The diffs against the parents read their trees
+         for (RevCommit parent : revCommit.getParents()) {
+            revWalk.parseHeaders(parent);
+         }
+         return revCommit;
+      }
+   }
+
+   @Override
+   public synchronized void close() {
+      reader.close();
+   }
+}
@@ -0,0 +1,146 @@
+package com.redhat.midstream.updater.git;
+
+import java.io.Closeable;
+
+import org.eclipse.jgit.diff.DiffFormatter;
+import org.eclipse.jgit.diff.RawTextComparator;
+import org.eclipse.jgit.lib.ObjectReader;
+import org.eclipse.jgit.lib.Repository;
+import org.eclipse.jgit.revwalk.RevCommit;
+import org.eclipse.jgit.revwalk.RevWalk;
+import org.eclipse.jgit.treewalk.CanonicalTreeParser;
+import org.eclipse.jgit.treewalk.EmptyTreeIterator;
+
+/**
+ * Computes the MinHash signature of the diff of a commit. The shingles are the sequences of
+ * SHINGLE_SIZE consecutive changed lines of each hunk, without whitespaces, so a backport that
+ * needed a conflict resolution still shares most of its shingles with the original commit.
+ * It is not thread safe, use a calculator for each thread.
+ */
+public class JGitMinHashCalculator implements Closeable {
+   private static final int SHINGLE_SIZE = 3;
+
+   private final ObjectReader reader;
+   private final RevWalk revWalk;
+   private final ShingleOutputStream shingleOutputStream;
+   private final DiffFormatter diffFormatter;
+
+   public JGitMinHashCalculator(Repository repository) {
+      reader = repository.newObjectReader();
+      revWalk = new RevWalk(reader);
+      shingleOutputStream = new ShingleOutputStream();
+      diffFormatter = new DiffFormatter(shingleOutputStream);
+      diffFormatter.setReader(reader, repository.getConfig());
+      diffFormatter.setDiffComparator(RawTextComparator.DEFAULT);
+      diffFormatter.setDetectRenames(false);
+   }
+
+   public int[] getSignature(RevCommit commit) throws Exception {
+      try {
+         RevCommit parsedCommit = revWalk.parseCommit(commit);
+
+         if (parsedCommit.getParentCount() > 1) {
+            return null;
+         }
+
+         CanonicalTreeParser newTreeIter = new CanonicalTreeParser();
+         newTreeIter.reset(reader, parsedCommit.getTree());
+
+         shingleOutputStream.reset();
+         if (parsedCommit.getParentCount() > 0) {
+            CanonicalTreeParser oldTreeIter = new CanonicalTreeParser();
+            oldTreeIter.reset(reader, revWalk.parseCommit(parsedCommit.getParent(0)).getTree());
+            diffFormatter.format(oldTreeIter, newTreeIter);
+         } else {
+            diffFormatter.format(new EmptyTreeIterator(), newTreeIter);
+         }
+         diffFormatter.flush();
+
+         return shingleOutputStream.getSignature();
+      } finally {
+         revWalk.dispose();
+      }
+   }
+
+   @Override
+   public void close() {
+      diffFormatter.close();
+      revWalk.close();
+      reader.close();
+   }
+
+   private static class ShingleOutputStream extends DiffLineOutputStream {
+      private final long[] lineHashes = new long[SHINGLE_SIZE];
+      private int[] signature;
+      private int runLength;
+      private boolean hunkStarted;
+      private boolean empty;
+
+      @Override
+      public void reset() {
+         super.reset();
+         signature = CommitSimilarityIndex.newSignature();
+         runLength = 0;
+         hunkStarted = false;
+         empty = true;
+      }
+
+      public int[] getSignature() {
+         finish();
+         flushRun();
+
+         return empty ? null : signature;
+      }
+
+      @Override
+      protected void processLine() {
+         if (startsWith("@@ ")) {
+            flushRun();
+            hunkStarted = true;
+         } else if (startsWith("diff --git ")) {
+            flushRun();
+            hunkStarted = false;
+         } else if (hunkStarted && lineLength > 0 && (line[0] == '+' || line[0] == '-')) {
+            lineHashes[runLength % SHINGLE_SIZE] = hashLine();
+            runLength++;
+
+            if (runLength >= SHINGLE_SIZE) {
+               addShingle(SHINGLE_SIZE);
+            }
+         } else {
+            flushRun();
+         }
+      }
+
+      private void flushRun() {
+         // Add the runs shorter than a shingle as a single shingle
+         if (runLength > 0 && runLength < SHINGLE_SIZE) {
+            addShingle(runLength);
+         }
+         runLength = 0;
+      }
+
+      private void addShingle(int size) {
+         long shingle = size;
+         for (int i = runLength - size; i < runLength; i++) {
+            shingle = shingle * 0x100000001b3L + lineHashes[i % SHINGLE_SIZE];
+         }
+
+         CommitSimilarityIndex.updateSignature(signature, shingle);
+         empty = false;
+      }
+
+      private long hashLine() {
+         // FNV-1a hash of the line without whitespaces
+         long hash = 0xcbf29ce484222325L;
+         for (int i = 0; i < lineLength; i++) {
+            if (!Character.isWhitespace(line[i])) {
+               hash ^= line[i] & 0xff;
+               hash *= 0x100000001b3L;
+            }
+         }
+
+         return hash;
+      }
+   }
+}
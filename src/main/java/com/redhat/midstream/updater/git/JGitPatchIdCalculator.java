@@ -0,0 +1,127 @@
+package com.redhat.midstream.updater.git;
+
+import java.io.Closeable;
+import java.security.MessageDigest;
+import java.util.Arrays;
+
+import org.eclipse.jgit.diff.DiffFormatter;
+import org.eclipse.jgit.diff.RawTextComparator;
+import org.eclipse.jgit.lib.Constants;
+import org.eclipse.jgit.lib.ObjectId;
+import org.eclipse.jgit.lib.ObjectReader;
+import org.eclipse.jgit.lib.Repository;
+import org.eclipse.jgit.revwalk.RevCommit;
+import org.eclipse.jgit.revwalk.RevWalk;
+import org.eclipse.jgit.treewalk.CanonicalTreeParser;
+import org.eclipse.jgit.treewalk.EmptyTreeIterator;
+
+/**
+ * Computes the stable patch id of a commit, with the same approach of git patch-id --stable:
+ * the diff lines are hashed without whitespaces, ignoring the diff, index and hunk headers,
+ * and the hashes of the files are summed so the result does not depend on the file order.
+ * It is not thread safe, use a calculator for each thread.
+ */
+public class JGitPatchIdCalculator implements Closeable {
+   private final ObjectReader reader;
+   private final RevWalk revWalk;
+   private final PatchIdOutputStream patchIdOutputStream;
+   private final DiffFormatter diffFormatter;
+
+   public JGitPatchIdCalculator(Repository repository) {
+      reader = repository.newObjectReader();
+      revWalk = new RevWalk(reader);
+      patchIdOutputStream = new PatchIdOutputStream();
+      diffFormatter = new DiffFormatter(patchIdOutputStream);
+      diffFormatter.setReader(reader, repository.getConfig());
+      diffFormatter.setDiffComparator(RawTextComparator.DEFAULT);
+      diffFormatter.setDetectRenames(false);
+   }
+
+   public ObjectId getPatchId(RevCommit commit) throws Exception {
+      try {
+         RevCommit parsedCommit = revWalk.parseCommit(commit);
+
+         // The patch id of merge commits is not defined
+         if (parsedCommit.getParentCount() > 1) {
+            return null;
+         }
+
+         CanonicalTreeParser newTreeIter = new CanonicalTreeParser();
+         newTreeIter.reset(reader, parsedCommit.getTree());
+
+         patchIdOutputStream.reset();
+         if (parsedCommit.getParentCount() > 0) {
+            CanonicalTreeParser oldTreeIter = new CanonicalTreeParser();
+            oldTreeIter.reset(reader, revWalk.parseCommit(parsedCommit.getParent(0)).getTree());
+            diffFormatter.format(oldTreeIter, newTreeIter);
+         } else {
+            diffFormatter.format(new EmptyTreeIterator(), newTreeIter);
+         }
+         diffFormatter.flush();
+
+         return patchIdOutputStream.getPatchId();
+      } finally {
+         revWalk.dispose();
+      }
+   }
+
+   @Override
+   public void close() {
+      diffFormatter.close();
+      revWalk.close();
+      reader.close();
+   }
+
+   private static class PatchIdOutputStream extends DiffLineOutputStream {
+      private final MessageDigest fileDigest = Constants.newMessageDigest();
+      private final byte[] patchId = new byte[Constants.OBJECT_ID_LENGTH];
+      private boolean fileStarted;
+      private boolean empty;
+
+      @Override
+      public void reset() {
+         super.reset();
+         Arrays.fill(patchId, (byte)0);
+         fileDigest.reset();
+         fileStarted = false;
+         empty = true;
+      }
+
+      public ObjectId getPatchId() {
+         finish();
+         flushFile();
+
+         return empty ? null : ObjectId.fromRaw(patchId);
+      }
+
+      @Override
+      protected void processLine() {
+         if (startsWith("diff --git ")) {
+            flushFile();
+            fileStarted = true;
+         } else if (fileStarted && !startsWith("index ") && !startsWith("@@ ") && !startsWith("\\ ")) {
+            for (int i = 0; i < lineLength; i++) {
+               if (!Character.isWhitespace(line[i])) {
+                  fileDigest.update(line[i]);
+               }
+            }
+         }
+      }
+
+      private void flushFile() {
+         if (fileStarted) {
+            // Sum the file hash to the patch id
+            byte[] fileHash = fileDigest.digest();
+            int carry = 0;
+            for (int i = 0; i < patchId.length; i++) {
+               carry += (patchId[i] & 0xff) + (fileHash[i] & 0xff);
+               patchId[i] = (byte)carry;
+               carry >>= 8;
+            }
+
+            fileStarted = false;
+            empty = false;
+         }
+      }
+   }
+}
@@ -1,29 +1,68 @@
 package com.redhat.midstream.updater.git;
 
+import java.io.Closeable;
 import java.io.File;
 import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Date;
+import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.Queue;
 import java.util.TimeZone;
-
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.apache.commons.io.FileUtils;
 import org.eclipse.jgit.api.CherryPickResult;
+import org.eclipse.jgit.api.FetchCommand;
 import org.eclipse.jgit.api.Git;
 import org.eclipse.jgit.api.ResetCommand;
 import org.eclipse.jgit.diff.DiffEntry;
+import org.eclipse.jgit.lib.CommitBuilder;
+import org.eclipse.jgit.lib.Constants;
+import org.eclipse.jgit.lib.ObjectId;
+import org.eclipse.jgit.lib.ObjectInserter;
 import org.eclipse.jgit.lib.ObjectReader;
 import org.eclipse.jgit.lib.PersonIdent;
+import org.eclipse.jgit.lib.Ref;
+import org.eclipse.jgit.lib.RefUpdate;
+import org.eclipse.jgit.lib.Repository;
 import org.eclipse.jgit.lib.TextProgressMonitor;
 import org.eclipse.jgit.revwalk.RevCommit;
+import org.eclipse.jgit.revwalk.RevSort;
+import org.eclipse.jgit.revwalk.RevWalk;
+import org.eclipse.jgit.revwalk.filter.AndRevFilter;
+import org.eclipse.jgit.revwalk.filter.AuthorRevFilter;
+import org.eclipse.jgit.revwalk.filter.RevFilter;
 import org.eclipse.jgit.transport.CredentialsProvider;
 import org.eclipse.jgit.transport.RefSpec;
+import org.eclipse.jgit.transport.TagOpt;
 import org.eclipse.jgit.transport.URIish;
 import org.eclipse.jgit.transport.UsernamePasswordCredentialsProvider;
 import org.eclipse.jgit.treewalk.CanonicalTreeParser;
+import org.eclipse.jgit.treewalk.EmptyTreeIterator;
+import org.eclipse.jgit.treewalk.TreeWalk;
+import org.eclipse.jgit.treewalk.filter.TreeFilter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 public class JGitRepository implements GitRepository {
+   private final static Logger logger = LoggerFactory.getLogger(JGitRepository.class);
+
+   private final static String MIRROR_REFS_PREFIX = Constants.R_REMOTES + "mirror/";
+
    private Git git;
+   private Map<String, Queue<JGitChangeDetector>> changeDetectors = new ConcurrentHashMap<>();
+   private boolean workingTreeStale;
+   private JGitCommitLoader commitLoader;
 
    public JGitRepository() {
 
@@ -36,6 +75,9 @@ public class JGitRepository implements GitRepository {
    @Override
    public GitRepository open(File dir) throws Exception {
       git = Git.open(dir);
+      closeChangeDetectors();
+      openCommitLoader();
+      workingTreeStale = false;
       return this;
    }
 
@@ -43,9 +85,47 @@ public class JGitRepository implements GitRepository {
    public GitRepository clone(String uri, File dir) throws Exception {
       git = Git.cloneRepository()
          .setProgressMonitor(new TextProgressMonitor(new PrintWriter(System.out)))
-         .setURI("https://github.com/rh-messaging/activemq-artemis.git")
+         .setURI(uri)
          .setDirectory(dir)
          .call();
+      closeChangeDetectors();
+      openCommitLoader();
+      workingTreeStale = false;
+      return this;
+   }
+
+   @Override
+   public GitRepository init(File dir, File mirrorDir) throws Exception {
+      git = Git.init().setDirectory(dir).call();
+      closeChangeDetectors();
+      openCommitLoader();
+      workingTreeStale = false;
+
+      if (mirrorDir != null) {
+         try (Git mirrorGit = Git.open(mirrorDir)) {
+            Repository mirrorRepository = mirrorGit.getRepository();
+
+            // Share the objects of the mirror instead of copying them
+            File objectsDir = new File(mirrorRepository.getDirectory(), "objects");
+            FileUtils.writeStringToFile(new File(git.getRepository().getDirectory(), "objects/info/alternates"),
+                                        objectsDir.getAbsolutePath() + "\n", StandardCharsets.UTF_8);
+
+            git.close();
+            git = Git.open(dir);
+            openCommitLoader();
+
+            // Copy the mirror branches to negotiate the next fetches from them
+            for (Ref mirrorRef : mirrorRepository.getRefDatabase().getRefsByPrefix(Constants.R_HEADS)) {
+               RefUpdate refUpdate = git.getRepository().updateRef(MIRROR_REFS_PREFIX +
+                                                                   Repository.shortenRefName(mirrorRef.getName()));
+               refUpdate.setNewObjectId(mirrorRef.getObjectId());
+               refUpdate.forceUpdate();
+            }
+         }
+
+         logger.info("Initialized " + dir + " from the mirror " + mirrorDir);
+      }
+
       return this;
    }
 
@@ -55,14 +135,104 @@ public class JGitRepository implements GitRepository {
       return new JGitCommit(revCommit);
    }
 
+   @Override
+   public List<GitCommit> resolveCommits(List<String> names) throws Exception {
+      List<GitCommit> commits = new ArrayList<>(names.size());
+      try (RevWalk revWalk = new RevWalk(git.getRepository())) {
+         for (String name : names) {
+            commits.add(new LazyJGitCommit(revWalk.parseCommit(ObjectId.fromString(name)), commitLoader));
+         }
+      }
+
+      return commits;
+   }
+
+   @Override
+   public boolean isAncestor(String ancestor, String descendant) throws Exception {
+      try (RevWalk revWalk = new RevWalk(git.getRepository())) {
+         return revWalk.isMergedInto(revWalk.parseCommit(git.getRepository().resolve(ancestor)),
+                                     revWalk.parseCommit(git.getRepository().resolve(descendant)));
+      }
+   }
+
+   @Override
+   public String getMergeBase(String revisionX, String revisionY) throws Exception {
+      try (RevWalk revWalk = new RevWalk(git.getRepository())) {
+         revWalk.setRevFilter(RevFilter.MERGE_BASE);
+         revWalk.markStart(revWalk.parseCommit(git.getRepository().resolve(revisionX)));
+         revWalk.markStart(revWalk.parseCommit(git.getRepository().resolve(revisionY)));
+
+         RevCommit mergeBase = revWalk.next();
+
+         return mergeBase != null ? mergeBase.getName() : null;
+      }
+   }
+
    public boolean cherryPick(GitCommit commit) throws Exception {
-      CherryPickResult cherryPickResult = git.cherryPick().include(((JGitCommit)commit).getRevCommit()).setNoCommit(true).call();
+      checkoutWorkingTree();
+
+      CherryPickResult cherryPickResult = git.cherryPick().include(getRevCommit(commit)).setNoCommit(true).call();
 
       return cherryPickResult.getStatus() == CherryPickResult.CherryPickStatus.OK;
    }
 
    public void resetHard() throws Exception {
       git.reset().setMode(ResetCommand.ResetType.HARD).call();
+
+      workingTreeStale = false;
+   }
+
+   @Override
+   public void resetHard(String revision) throws Exception {
+      git.reset().setMode(ResetCommand.ResetType.HARD).setRef(revision).call();
+
+      workingTreeStale = false;
+   }
+
+   @Override
+   public GitCommit cherryPickCommit(GitCommit commit,
+                                     String message,
+                                     String authorName,
+                                     String authorEmail,
+                                     Date authorWhen,
+                                     TimeZone authorTimezone,
+                                     String committerName,
+                                     String committerEmail) throws Exception {
+      Repository repository = git.getRepository();
+      String branch = repository.getFullBranch();
+      RevCommit headCommit = repository.parseCommit(repository.resolve(Constants.HEAD));
+
+      try (JGitCherryPickChecker cherryPickChecker = new JGitCherryPickChecker(repository);
+           ObjectInserter inserter = repository.newObjectInserter()) {
+         if (!cherryPickChecker.cherryPick(headCommit.getTree(), getRevCommit(commit)).isEmpty()) {
+            return null;
+         }
+         cherryPickChecker.flush();
+
+         CommitBuilder commitBuilder = new CommitBuilder();
+         commitBuilder.setTreeId(cherryPickChecker.getResultTreeId());
+         commitBuilder.setParentId(headCommit);
+         commitBuilder.setAuthor(new PersonIdent(authorName, authorEmail, authorWhen, authorTimezone));
+         commitBuilder.setCommitter(new PersonIdent(committerName, committerEmail));
+         commitBuilder.setMessage(message);
+
+         ObjectId commitId = inserter.insert(commitBuilder);
+         inserter.flush();
+
+         // Advance the branch without updating the index and the working tree
+         RefUpdate refUpdate = repository.updateRef(branch);
+         refUpdate.setNewObjectId(commitId);
+         refUpdate.setExpectedOldObjectId(headCommit);
+         refUpdate.setRefLogMessage("cherry-pick: " + commit.getShortMessage(), false);
+         RefUpdate.Result refUpdateResult = refUpdate.update();
+         if (refUpdateResult != RefUpdate.Result.FAST_FORWARD) {
+            throw new IllegalStateException("Error updating " + branch + ": " + refUpdateResult);
+         }
+
+         workingTreeStale = true;
+
+         return new JGitCommit(repository.parseCommit(commitId));
+      }
    }
 
    public List<String> getChangedFiles(GitCommit commit) throws Exception {
@@ -71,8 +241,9 @@ public class JGitRepository implements GitRepository {
          CanonicalTreeParser oldTreeIter = new CanonicalTreeParser();
          CanonicalTreeParser newTreeIter = new CanonicalTreeParser();
 
-         oldTreeIter.reset(reader, ((JGitCommit)commit).getRevCommit().getParent(0).getTree());
-         newTreeIter.reset(reader, ((JGitCommit)commit).getRevCommit().getTree());
+         RevCommit revCommit = getRevCommit(commit);
+         oldTreeIter.reset(reader, revCommit.getParent(0).getTree());
+         newTreeIter.reset(reader, revCommit.getTree());
 
          List<DiffEntry> diffList = git.diff().setOldTree(oldTreeIter).setNewTree(newTreeIter).call();
 
@@ -87,6 +258,169 @@ public class JGitRepository implements GitRepository {
       return changedFiles;
    }
 
+   public List<String> getChangedFiles(GitCommit commit, String pathSuffix) throws Exception {
+      // Borrow a detector from the pool because the detectors are not thread safe
+      Queue<JGitChangeDetector> changeDetectorPool = changeDetectors.computeIfAbsent(
+         pathSuffix, key -> new ConcurrentLinkedQueue<>());
+      JGitChangeDetector changeDetector = changeDetectorPool.poll();
+      if (changeDetector == null) {
+         changeDetector = new JGitChangeDetector(git.getRepository(), pathSuffix);
+      }
+
+      try {
+         return changeDetector.getChangedFiles(getRevCommit(commit));
+      } finally {
+         changeDetectorPool.offer(changeDetector);
+      }
+   }
+
+   @Override
+   public Map<String, String> getPatchIds(Collection<GitCommit> commits) throws Exception {
+      return calculate(commits, "patch ids", () -> new JGitPatchIdCalculator(git.getRepository()),
+         (patchIdCalculator, commit) -> {
+            ObjectId patchId = patchIdCalculator.getPatchId(commit);
+            return patchId != null ? patchId.getName() : null;
+         });
+   }
+
+   @Override
+   public Map<String, int[]> getMinHashSignatures(Collection<GitCommit> commits) throws Exception {
+      return calculate(commits, "MinHash signatures", () -> new JGitMinHashCalculator(git.getRepository()),
+         JGitMinHashCalculator::getSignature);
+   }
+
+   @Override
+   public Map<String, String> getChangedBlobIds(GitCommit commit, String revision) throws Exception {
+      Map<String, String> blobIds = new HashMap<>();
+      Repository repository = git.getRepository();
+      try (ObjectReader reader = repository.newObjectReader();
+           RevWalk revWalk = new RevWalk(reader);
+           TreeWalk treeWalk = new TreeWalk(repository, reader)) {
+         RevCommit parsedCommit = revWalk.parseCommit(getRevCommit(commit));
+
+         if (parsedCommit.getParentCount() > 0) {
+            treeWalk.addTree(revWalk.parseCommit(parsedCommit.getParent(0)).getTree());
+         } else {
+            treeWalk.addTree(new EmptyTreeIterator());
+         }
+         treeWalk.addTree(parsedCommit.getTree());
+         treeWalk.addTree(revWalk.parseCommit(repository.resolve(revision)).getTree());
+         treeWalk.setRecursive(true);
+         treeWalk.setFilter(new CommitDiffFilter());
+
+         while (treeWalk.next()) {
+            blobIds.put(treeWalk.getPathString(), treeWalk.getObjectId(2).getName());
+         }
+      }
+
+      return blobIds;
+   }
+
+   @Override
+   public List<CherryPickCheck> checkCherryPicks(String revision, List<GitCommit> commits) throws Exception {
+      RevCommit headCommit = git.getRepository().parseCommit(git.getRepository().resolve(revision));
+
+      // Cherry-pick each commit on the cumulative result of the previous ones while checking them on the head
+      ExecutorService executor = Executors.newSingleThreadExecutor();
+      try {
+         Future<Map<String, List<String>>> cumulativeConflictsFuture = executor.submit(() -> {
+            Map<String, List<String>> cumulativeConflicts = new HashMap<>();
+            try (JGitCherryPickChecker cherryPickChecker = new JGitCherryPickChecker(git.getRepository())) {
+               ObjectId treeId = headCommit.getTree();
+               for (GitCommit commit : commits) {
+                  List<String> conflicts = cherryPickChecker.cherryPick(treeId, getRevCommit(commit));
+                  if (conflicts.isEmpty()) {
+                     treeId = cherryPickChecker.getResultTreeId();
+                  }
+                  cumulativeConflicts.put(commit.getName(), conflicts);
+               }
+            }
+            return cumulativeConflicts;
+         });
+
+         Map<String, List<String>> headConflicts = calculate(commits, "cherry-pick checks",
+            () -> new JGitCherryPickChecker(git.getRepository()),
+            (cherryPickChecker, commit) -> cherryPickChecker.cherryPick(headCommit.getTree(), commit));
+
+         Map<String, List<String>> cumulativeConflicts = cumulativeConflictsFuture.get();
+
+         List<CherryPickCheck> cherryPickChecks = new ArrayList<>(commits.size());
+         for (GitCommit commit : commits) {
+            cherryPickChecks.add(new CherryPickCheck(commit, headConflicts.get(commit.getName()),
+                                                     cumulativeConflicts.get(commit.getName())));
+         }
+
+         return cherryPickChecks;
+      } finally {
+         executor.shutdown();
+      }
+   }
+
+   private <C extends Closeable, T> Map<String, T> calculate(Collection<GitCommit> commits, String description,
+                                                                 Callable<C> calculatorFactory,
+                                                                 CommitCalculation<C, T> calculation) throws Exception {
+      List<GitCommit> commitList = new ArrayList<>(commits);
+      int taskCount = Math.min(Runtime.getRuntime().availableProcessors(), commitList.size());
+      if (taskCount == 0) {
+         return new HashMap<>();
+      }
+
+      // Split the commits in contiguous chunks, each one with its own calculator and ObjectReader
+      List<Callable<Map<String, T>>> tasks = new ArrayList<>();
+      int chunkSize = (int)Math.ceil((double)commitList.size() / (double)taskCount);
+      for (int i = 0; i < commitList.size(); i += chunkSize) {
+         List<GitCommit> chunk = commitList.subList(i, Math.min(i + chunkSize, commitList.size()));
+
+         tasks.add(() -> {
+            Map<String, T> results = new HashMap<>();
+            try (C calculator = calculatorFactory.call()) {
+               for (GitCommit commit : chunk) {
+                  T result = calculation.calculate(calculator, getRevCommit(commit));
+                  if (result != null) {
+                     results.put(commit.getName(), result);
+                  }
+               }
+            }
+            return results;
+         });
+      }
+
+      ExecutorService executor = Executors.newFixedThreadPool(taskCount);
+      try {
+         long beginTimestamp = System.nanoTime();
+         List<Future<Map<String, T>>> taskFutures = executor.invokeAll(tasks);
+
+         Map<String, T> results = new HashMap<>();
+         for (Future<Map<String, T>> taskFuture : taskFutures) {
+            results.putAll(taskFuture.get());
+         }
+         long endTimestamp = System.nanoTime();
+
+         logger.info("Computed " + results.size() + "/" + commitList.size() + " " + description + " in " + (endTimestamp - beginTimestamp) / 1000000 + " milliseconds");
+
+         return results;
+      } finally {
+         executor.shutdown();
+      }
+   }
+
+   private void closeChangeDetectors() {
+      for (Queue<JGitChangeDetector> changeDetectorPool : changeDetectors.values()) {
+         for (JGitChangeDetector changeDetector : changeDetectorPool) {
+            changeDetector.close();
+         }
+      }
+      changeDetectors.clear();
+   }
+
+   private void openCommitLoader() {
+      // The lazy commits of the previous repository can not be loaded anymore
+      if (commitLoader != null) {
+         commitLoader.close();
+      }
+      commitLoader = new JGitCommitLoader(git.getRepository());
+   }
+
    @Override
    public GitCommit commit(String message,
                            String authorName,
@@ -95,6 +429,8 @@ public class JGitRepository implements GitRepository {
                            TimeZone authorTimezone,
                            String committerName,
                            String committerEmail) throws Exception {
+      checkoutWorkingTree();
+
       RevCommit revCommit = git.commit().setMessage(message)
          .setAuthor(new PersonIdent(authorName, authorEmail, authorWhen, authorTimezone))
          .setCommitter(committerName, committerEmail)
@@ -120,8 +456,29 @@ public class JGitRepository implements GitRepository {
    }
 
    @Override
-   public void fetch(String remote) throws Exception {
-      git.fetch().setRemote(remote).call();
+   public void fetch(String remote, String... branches) throws Exception {
+      FetchCommand fetchCommand = git.fetch().setRemote(remote);
+
+      // Fetch only the branches in use, without tags
+      if (branches.length > 0) {
+         List<RefSpec> refSpecs = new ArrayList<>();
+         for (String branch : branches) {
+            refSpecs.add(new RefSpec("+" + Constants.R_HEADS + branch + ":" + Constants.R_REMOTES + remote + "/" + branch));
+         }
+         fetchCommand.setRefSpecs(refSpecs).setTagOpt(TagOpt.NO_TAGS);
+      }
+
+      fetchCommand.call();
+   }
+
+   @Override
+   public void fetchBundle(File bundleFile) throws Exception {
+      git.fetch().setRemote(bundleFile.getAbsolutePath())
+         .setRefSpecs(new RefSpec("+" + Constants.R_HEADS + "*:" + MIRROR_REFS_PREFIX + "*"))
+         .setTagOpt(TagOpt.NO_TAGS)
+         .call();
+
+      logger.info("Fetched the bundle " + bundleFile);
    }
 
    @Override
@@ -147,28 +504,159 @@ public class JGitRepository implements GitRepository {
    @Override
    public void checkout(String name) throws Exception {
       git.checkout().setName(name).setForced(true).call();
+
+      workingTreeStale = false;
+   }
+
+   private RevCommit getRevCommit(GitCommit commit) throws Exception {
+      // The lazy commits are parsed by their loader and the commits of other implementations here
+      if (commit instanceof JGitCommit) {
+         return ((JGitCommit)commit).getRevCommit();
+      } else if (commit instanceof LazyJGitCommit) {
+         return ((LazyJGitCommit)commit).getRevCommit();
+      }
+
+      try (RevWalk revWalk = new RevWalk(git.getRepository())) {
+         RevCommit revCommit = revWalk.parseCommit(commit.getId());
+         for (RevCommit parent : revCommit.getParents()) {
+            revWalk.parseHeaders(parent);
+         }
+         return revCommit;
+      }
+   }
+
+   private void checkoutWorkingTree() throws Exception {
+      // Update the index and the working tree after the in-core cherry-picks
+      if (workingTreeStale) {
+         resetHard();
+      }
    }
 
    @Override
-   public Iterable<GitCommit> log(String addStart, String notStart) throws Exception {
-      Iterable<RevCommit> logIterable = git.log()
-         .not(git.getRepository().resolve(notStart))
-         .add(git.getRepository().resolve(addStart))
-         .call();
+   public Iterable<GitCommit> log(String addStart, String... notStarts) throws Exception {
+      return log(null, addStart, notStarts);
+   }
+
+   @Override
+   public Iterable<GitCommit> log(LogFilter filter, String addStart, String... notStarts) throws Exception {
+      Repository repository = git.getRepository();
+      RevWalk revWalk = new RevWalk(repository);
+      revWalk.markStart(revWalk.parseCommit(repository.resolve(addStart)));
+      for (String notStart : notStarts) {
+         revWalk.markUninteresting(revWalk.parseCommit(repository.resolve(notStart)));
+      }
+      if (filter != null) {
+         revWalk.setRevFilter(toRevFilter(filter));
+
+         // Emit the parents before their children
+         if (filter.isReverse()) {
+            revWalk.sort(RevSort.TOPO);
+            revWalk.sort(RevSort.REVERSE, true);
+         }
+      }
 
       return () -> {
-         Iterator<RevCommit> logIterator = logIterable.iterator();
+         Iterator<RevCommit> logIterator = revWalk.iterator();
          return new Iterator<>() {
             @Override
             public boolean hasNext() {
-               return logIterator.hasNext();
+               if (!logIterator.hasNext()) {
+                  revWalk.close();
+                  return false;
+               }
+               return true;
             }
 
             @Override
             public GitCommit next() {
-               return new JGitCommit(logIterator.next());
+               return new LazyJGitCommit(logIterator.next(), commitLoader);
             }
          };
       };
    }
+
+   private RevFilter toRevFilter(LogFilter filter) {
+      List<RevFilter> revFilters = new ArrayList<>();
+      if (filter.getMaxParents() == 1) {
+         revFilters.add(RevFilter.NO_MERGES);
+      } else if (filter.getMaxParents() >= 0) {
+         revFilters.add(new MaxParentsRevFilter(filter.getMaxParents()));
+      }
+      if (filter.getAuthorPattern() != null) {
+         revFilters.add(AuthorRevFilter.create(filter.getAuthorPattern()));
+      }
+      if (filter.hasSubjectPatterns()) {
+         revFilters.add(new SubjectRevFilter(filter));
+      }
+
+      if (revFilters.isEmpty()) {
+         return RevFilter.ALL;
+      } else if (revFilters.size() == 1) {
+         return revFilters.get(0);
+      }
+      return AndRevFilter.create(revFilters);
+   }
+
+   private static class MaxParentsRevFilter extends RevFilter {
+      private final int maxParents;
+
+      MaxParentsRevFilter(int maxParents) {
+         this.maxParents = maxParents;
+      }
+
+      @Override
+      public boolean include(RevWalk walker, RevCommit commit) {
+         return commit.getParentCount() <= maxParents;
+      }
+
+      @Override
+      public boolean requiresCommitBody() {
+         return false;
+      }
+
+      @Override
+      public RevFilter clone() {
+         return this;
+      }
+   }
+
+   private static class SubjectRevFilter extends RevFilter {
+      private final LogFilter filter;
+
+      SubjectRevFilter(LogFilter filter) {
+         this.filter = filter;
+      }
+
+      @Override
+      public boolean include(RevWalk walker, RevCommit commit) {
+         return filter.acceptsSubject(commit.getShortMessage());
+      }
+
+      @Override
+      public RevFilter clone() {
+         return this;
+      }
+   }
+
+   // Include only the paths changed between the first two trees, ignoring the others
+   private static class CommitDiffFilter extends TreeFilter {
+      @Override
+      public boolean include(TreeWalk walker) {
+         return walker.getRawMode(0) != walker.getRawMode(1) || !walker.idEqual(0, 1);
+      }
+
+      @Override
+      public boolean shouldBeRecursive() {
+         return false;
+      }
+
+      @Override
+      public TreeFilter clone() {
+         return this;
+      }
+   }
+
+   private interface CommitCalculation<C, T> {
+      T calculate(C calculator, RevCommit commit) throws Exception;
+   }
 }
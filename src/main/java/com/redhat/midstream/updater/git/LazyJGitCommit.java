@@ -0,0 +1,101 @@
+package com.redhat.midstream.updater.git;
+
+import java.lang.ref.SoftReference;
+import java.util.Date;
+import java.util.TimeZone;
+
+import org.eclipse.jgit.lib.ObjectId;
+import org.eclipse.jgit.revwalk.RevCommit;
+
+/**
+ * Keeps only the id and the subject of a commit, so a large history walk does not retain the
+ * commit bodies and the commit graph. The full message and the identities are parsed on demand
+ * and softly cached until the memory is needed.
+ */
+public class LazyJGitCommit implements GitCommit {
+   private final ObjectId id;
+   private final String shortMessage;
+   private final JGitCommitLoader loader;
+
+   private SoftReference<RevCommit> revCommitReference;
+
+   LazyJGitCommit(RevCommit revCommit, JGitCommitLoader loader) {
+      this.id = revCommit.copy();
+      this.shortMessage = revCommit.getShortMessage();
+      this.loader = loader;
+   }
+
+   public RevCommit getRevCommit() {
+      RevCommit revCommit = revCommitReference != null ? revCommitReference.get() : null;
+      if (revCommit == null) {
+         try {
+            revCommit = loader.load(id);
+         } catch (Exception e) {
+            throw new IllegalStateException("Error loading commit " + id.getName(), e);
+         }
+         revCommitReference = new SoftReference<>(revCommit);
+      }
+
+      return revCommit;
+   }
+
+   @Override
+   public String getFullMessage() {
+      return getRevCommit().getFullMessage();
+   }
+
+   @Override
+   public ObjectId getId() {
+      return id;
+   }
+
+   @Override
+   public String getName() {
+      return id.getName();
+   }
+
+   @Override
+   public String getAuthorName() {
+      return getRevCommit().getAuthorIdent().getName();
+   }
+
+   @Override
+   public String getAuthorEmail() {
+      return getRevCommit().getAuthorIdent().getEmailAddress();
+   }
+
+   @Override
+   public Date getAuthorWhen() {
+      return getRevCommit().getAuthorIdent().getWhen();
+   }
+
+   @Override
+   public TimeZone getAuthorTimeZone() {
+      return getRevCommit().getAuthorIdent().getTimeZone();
+   }
+
+   @Override
+   public String getCommitterName() {
+      return getRevCommit().getCommitterIdent().getName();
+   }
+
+   @Override
+   public String getCommitterEmail() {
+      return getRevCommit().getCommitterIdent().getEmailAddress();
+   }
+
+   @Override
+   public Date getCommitterWhen() {
+      return getRevCommit().getCommitterIdent().getWhen();
+   }
+
+   @Override
+   public TimeZone getCommitterTimeZone() {
+      return getRevCommit().getCommitterIdent().getTimeZone();
+   }
+
+   @Override
+   public String getShortMessage() {
+      return shortMessage;
+   }
+}
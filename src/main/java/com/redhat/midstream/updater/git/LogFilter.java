@@ -0,0 +1,72 @@
+package com.redhat.midstream.updater.git;
+
+import java.util.regex.Pattern;
+
+/**
+ * Selects and orders the commits of a log, so the repository implementations can evaluate it
+ * inside their walk instead of materializing the excluded commits.
+ */
+public class LogFilter {
+   private int maxParents = -1;
+   private Pattern subjectPattern;
+   private Pattern excludedSubjectPattern;
+   private String authorPattern;
+   private boolean reverse;
+
+   public int getMaxParents() {
+      return maxParents;
+   }
+
+   public LogFilter setMaxParents(int maxParents) {
+      this.maxParents = maxParents;
+      return this;
+   }
+
+   public Pattern getSubjectPattern() {
+      return subjectPattern;
+   }
+
+   public LogFilter setSubjectPattern(Pattern subjectPattern) {
+      this.subjectPattern = subjectPattern;
+      return this;
+   }
+
+   public Pattern getExcludedSubjectPattern() {
+      return excludedSubjectPattern;
+   }
+
+   public LogFilter setExcludedSubjectPattern(Pattern excludedSubjectPattern) {
+      this.excludedSubjectPattern = excludedSubjectPattern;
+      return this;
+   }
+
+   public String getAuthorPattern() {
+      return authorPattern;
+   }
+
+   public LogFilter setAuthorPattern(String authorPattern) {
+      this.authorPattern = authorPattern;
+      return this;
+   }
+
+   public boolean isReverse() {
+      return reverse;
+   }
+
+   /**
+    * Returns the oldest commits first, in reverse topological order.
+    */
+   public LogFilter setReverse(boolean reverse) {
+      this.reverse = reverse;
+      return this;
+   }
+
+   public boolean hasSubjectPatterns() {
+      return subjectPattern != null || excludedSubjectPattern != null;
+   }
+
+   public boolean acceptsSubject(String subject) {
+      return (subjectPattern == null || subjectPattern.matcher(subject).find()) &&
+         (excludedSubjectPattern == null || !excludedSubjectPattern.matcher(subject).find());
+   }
+}
@@ -0,0 +1,258 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.redhat.midstream.updater.issues;
+
+import java.io.File;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.redhat.midstream.updater.CustomerPriority;
+import com.redhat.midstream.updater.SecurityImpact;
+import org.apache.commons.io.FileUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Serves the issues of a snapshot and appends the issue updates to a JSON lines file instead of
+ * sending them to the server. The created issues get synthetic keys, which are replaced with the
+ * keys of the issues created on the server when the recorded mutations are replayed.
+ */
+public class InMemoryIssueManager implements IssueManager {
+   private final static Logger logger = LoggerFactory.getLogger(InMemoryIssueManager.class);
+
+   private final static String SYNTHETIC_KEY_INFIX = "-OFFLINE-";
+
+   private final static Pattern upstreamIssuePattern = Pattern.compile("ARTEMIS-[0-9]+");
+
+   private final static Gson gson = new Gson();
+
+   private String projectKey;
+   private File mutationsFile;
+
+   private Map<String, Issue> issues;
+   private int syntheticKeyCount;
+
+   private Gson prettyGson = new GsonBuilder().setPrettyPrinting().create();
+
+
+   public InMemoryIssueManager(String projectKey, File mutationsFile) {
+      this.projectKey = projectKey;
+      this.mutationsFile = mutationsFile;
+      this.issues = new ConcurrentHashMap<>();
+   }
+
+   @Override
+   public void loadIssues(boolean parseCustomFields) {
+      throw new IllegalStateException("The issues of " + projectKey + " are only loaded from a snapshot");
+   }
+
+   @Override
+   public void loadIssues(File file) throws Exception {
+      Issue[] issuesArray = prettyGson.fromJson(FileUtils.readFileToString(file, Charset.defaultCharset()), Issue[].class);
+
+      for (Issue issue : issuesArray) {
+         issues.put(issue.getKey(), issue);
+      }
+   }
+
+   @Override
+   public Issue getIssue(String key) {
+      return issues.get(key);
+   }
+
+   @Override
+   public Collection<Issue> getIssues() {
+      return issues.values();
+   }
+
+   @Override
+   public void cacheIssue(Issue issue) {
+      issues.put(issue.getKey(), issue);
+   }
+
+   @Override
+   public void storeIssues(File file) throws Exception {
+      FileUtils.writeStringToFile(file, prettyGson.toJson(issues.values()), Charset.defaultCharset());
+   }
+
+   @Override
+   public void addIssueLabels(String issueKey, String... labels) throws Exception {
+      appendMutation(new IssueMutation().setType(IssueMutation.Type.ADD_LABELS)
+         .setIssueKey(issueKey).setLabels(new ArrayList<>(Arrays.asList(labels))));
+   }
+
+   @Override
+   public void setIssueTargetRelease(String issueKey, String targetRelease) throws Exception {
+      appendMutation(new IssueMutation().setType(IssueMutation.Type.SET_TARGET_RELEASE)
+         .setIssueKey(issueKey).setTargetRelease(targetRelease));
+   }
+
+   @Override
+   public void transitionIssue(String issueKey, IssueState finalStatus) throws Exception {
+      appendMutation(new IssueMutation().setType(IssueMutation.Type.TRANSITION)
+         .setIssueKey(issueKey).setState(finalStatus));
+   }
+
+   @Override
+   public synchronized Issue createIssue(String summary, String description, IssueType type, String assignee, String upstreamIssue, String targetRelease, List<String> labels) throws Exception {
+      // Skip the synthetic keys of the issues replayed from the run journal
+      String issueKey;
+      do {
+         issueKey = projectKey + SYNTHETIC_KEY_INFIX + ++syntheticKeyCount;
+      } while (issues.containsKey(issueKey));
+
+      appendMutation(new IssueMutation().setType(IssueMutation.Type.CREATE).setIssueKey(issueKey)
+         .setSummary(summary).setDescription(description).setIssueType(type).setAssignee(assignee)
+         .setUpstreamIssue(upstreamIssue).setTargetRelease(targetRelease).setLabels(new ArrayList<>(labels)));
+
+      Issue issue = new Issue()
+         .setKey(issueKey)
+         .setAssignee(assignee)
+         .setState(IssueState.NEW)
+         .setSummary(summary)
+         .setDescription(description)
+         .setType(type)
+         .setTargetRelease(targetRelease)
+         .setCustomerPriority(CustomerPriority.NONE)
+         .setSecurityImpact(SecurityImpact.NONE);
+      issue.getLabels().addAll(labels);
+
+      if (upstreamIssue != null) {
+         Matcher upstreamIssueMatcher = upstreamIssuePattern.matcher(upstreamIssue);
+         while (upstreamIssueMatcher.find()) {
+            issue.getIssues().add(upstreamIssueMatcher.group());
+         }
+      }
+
+      issues.put(issue.getKey(), issue);
+
+      return issue;
+   }
+
+   @Override
+   public void linkIssue(String issueKey, String cloningIssueKey, String linkType) throws Exception {
+      appendMutation(new IssueMutation().setType(IssueMutation.Type.LINK)
+         .setIssueKey(issueKey).setLinkedIssueKey(cloningIssueKey).setLinkType(linkType));
+   }
+
+   private synchronized void appendMutation(IssueMutation mutation) throws Exception {
+      logger.debug("Recording " + mutation.getType() + " of issue " + mutation.getIssueKey());
+
+      Files.writeString(mutationsFile.toPath(), gson.toJson(mutation) + "\n", StandardCharsets.UTF_8,
+                        StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+   }
+
+   public synchronized List<IssueMutation> getMutations() throws Exception {
+      List<IssueMutation> mutations = new ArrayList<>();
+
+      if (mutationsFile.exists()) {
+         for (String line : Files.readAllLines(mutationsFile.toPath(), StandardCharsets.UTF_8)) {
+            if (!line.isEmpty()) {
+               mutations.add(gson.fromJson(line, IssueMutation.class));
+            }
+         }
+      }
+
+      return mutations;
+   }
+
+   /**
+    * Sends the recorded mutations to an issue manager, i.e. a JiraIssueManager. The mutations not
+    * replayed yet are stored after each replayed one with the keys of the created issues, so the
+    * next replay resumes from them even if this one is interrupted.
+    */
+   public synchronized int replayMutations(IssueManager issueManager) throws Exception {
+      List<IssueMutation> mutations = getMutations();
+      Map<String, String> createdIssueKeys = new HashMap<>();
+
+      int replayedCount = 0;
+      try {
+         for (IssueMutation mutation : mutations) {
+            replaceSyntheticKeys(mutation, createdIssueKeys);
+
+            IssueMutation.Type type = mutation.getType();
+            if (type == IssueMutation.Type.ADD_LABELS) {
+               issueManager.addIssueLabels(mutation.getIssueKey(), mutation.getLabels().toArray(String[]::new));
+            } else if (type == IssueMutation.Type.SET_TARGET_RELEASE) {
+               issueManager.setIssueTargetRelease(mutation.getIssueKey(), mutation.getTargetRelease());
+            } else if (type == IssueMutation.Type.TRANSITION) {
+               issueManager.transitionIssue(mutation.getIssueKey(), mutation.getState());
+            } else if (type == IssueMutation.Type.CREATE) {
+               Issue createdIssue = issueManager.createIssue(mutation.getSummary(), mutation.getDescription(),
+                  mutation.getIssueType(), mutation.getAssignee(), mutation.getUpstreamIssue(),
+                  mutation.getTargetRelease(), mutation.getLabels());
+
+               logger.info("Created issue " + createdIssue.getKey() + " for " + mutation.getIssueKey());
+               createdIssueKeys.put(mutation.getIssueKey(), createdIssue.getKey());
+            } else if (type == IssueMutation.Type.LINK) {
+               issueManager.linkIssue(mutation.getIssueKey(), mutation.getLinkedIssueKey(), mutation.getLinkType());
+            } else {
+               throw new IllegalStateException("Issue mutation type not supported: " + type);
+            }
+
+            replayedCount++;
+
+            storeMutations(mutations.subList(replayedCount, mutations.size()), createdIssueKeys);
+         }
+      } finally {
+         logger.info("Replayed " + replayedCount + "/" + mutations.size() + " issue mutations of " + projectKey);
+      }
+
+      return replayedCount;
+   }
+
+   private void storeMutations(List<IssueMutation> mutations, Map<String, String> createdIssueKeys) throws Exception {
+      if (mutations.isEmpty()) {
+         Files.deleteIfExists(mutationsFile.toPath());
+         return;
+      }
+
+      StringBuilder mutationsBuilder = new StringBuilder();
+      for (IssueMutation mutation : mutations) {
+         replaceSyntheticKeys(mutation, createdIssueKeys);
+         mutationsBuilder.append(gson.toJson(mutation)).append('\n');
+      }
+
+      // Replace the mutations file atomically to keep it whole if the replay is interrupted
+      Path tempMutationsFile = mutationsFile.toPath().resolveSibling(mutationsFile.getName() + ".tmp");
+      Files.writeString(tempMutationsFile, mutationsBuilder, StandardCharsets.UTF_8);
+      Files.move(tempMutationsFile, mutationsFile.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+   }
+
+   private static void replaceSyntheticKeys(IssueMutation mutation, Map<String, String> createdIssueKeys) {
+      mutation.setIssueKey(createdIssueKeys.getOrDefault(mutation.getIssueKey(), mutation.getIssueKey()));
+      if (mutation.getLinkedIssueKey() != null) {
+         mutation.setLinkedIssueKey(createdIssueKeys.getOrDefault(mutation.getLinkedIssueKey(), mutation.getLinkedIssueKey()));
+      }
+   }
+}
@@ -31,6 +31,8 @@ public interface IssueManager {
 
    Collection<Issue> getIssues();
 
+   void cacheIssue(Issue issue);
+
    void storeIssues(File file) throws Exception;
 
    void addIssueLabels(String issueKey, String... labels) throws Exception;
@@ -0,0 +1,156 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.redhat.midstream.updater.issues;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class IssueMutation {
+   public enum Type {
+      ADD_LABELS,
+      SET_TARGET_RELEASE,
+      TRANSITION,
+      CREATE,
+      LINK
+   }
+
+   private Type type;
+   private String issueKey;
+   private List<String> labels;
+   private String targetRelease;
+   private IssueState state;
+   private String summary;
+   private String description;
+   private IssueType issueType;
+   private String assignee;
+   private String upstreamIssue;
+   private String linkedIssueKey;
+   private String linkType;
+
+   public IssueMutation() {
+      labels = new ArrayList<>();
+   }
+
+   public Type getType() {
+      return type;
+   }
+
+   public IssueMutation setType(Type type) {
+      this.type = type;
+      return this;
+   }
+
+   public String getIssueKey() {
+      return issueKey;
+   }
+
+   public IssueMutation setIssueKey(String issueKey) {
+      this.issueKey = issueKey;
+      return this;
+   }
+
+   public List<String> getLabels() {
+      return labels;
+   }
+
+   public IssueMutation setLabels(List<String> labels) {
+      this.labels = labels;
+      return this;
+   }
+
+   public String getTargetRelease() {
+      return targetRelease;
+   }
+
+   public IssueMutation setTargetRelease(String targetRelease) {
+      this.targetRelease = targetRelease;
+      return this;
+   }
+
+   public IssueState getState() {
+      return state;
+   }
+
+   public IssueMutation setState(IssueState state) {
+      this.state = state;
+      return this;
+   }
+
+   public String getSummary() {
+      return summary;
+   }
+
+   public IssueMutation setSummary(String summary) {
+      this.summary = summary;
+      return this;
+   }
+
+   public String getDescription() {
+      return description;
+   }
+
+   public IssueMutation setDescription(String description) {
+      this.description = description;
+      return this;
+   }
+
+   public IssueType getIssueType() {
+      return issueType;
+   }
+
+   public IssueMutation setIssueType(IssueType issueType) {
+      this.issueType = issueType;
+      return this;
+   }
+
+   public String getAssignee() {
+      return assignee;
+   }
+
+   public IssueMutation setAssignee(String assignee) {
+      this.assignee = assignee;
+      return this;
+   }
+
+   public String getUpstreamIssue() {
+      return upstreamIssue;
+   }
+
+   public IssueMutation setUpstreamIssue(String upstreamIssue) {
+      this.upstreamIssue = upstreamIssue;
+      return this;
+   }
+
+   public String getLinkedIssueKey() {
+      return linkedIssueKey;
+   }
+
+   public IssueMutation setLinkedIssueKey(String linkedIssueKey) {
+      this.linkedIssueKey = linkedIssueKey;
+      return this;
+   }
+
+   public String getLinkType() {
+      return linkType;
+   }
+
+   public IssueMutation setLinkType(String linkType) {
+      this.linkType = linkType;
+      return this;
+   }
+}
@@ -27,10 +27,10 @@ import java.net.URL;
 import java.nio.charset.Charset;
 import java.util.ArrayList;
 import java.util.Collection;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
 import java.util.regex.Matcher;
@@ -70,7 +70,7 @@ public class JiraIssueManager implements IssueManager {
       this.serverURL = serverURL;
       this.authString = authString;
       this.projectKey = projectKey;
-      this.issues = new HashMap<>();
+      this.issues = new ConcurrentHashMap<>();
    }
 
    @Override
@@ -83,6 +83,11 @@ public class JiraIssueManager implements IssueManager {
       return issues.values();
    }
 
+   @Override
+   public void cacheIssue(Issue issue) {
+      issues.put(issue.getKey(), issue);
+   }
+
    @Override
    public Issue createIssue(String summary, String description, IssueType type, String assignee, String upstreamIssue, String targetRelease, List<String> labels) throws Exception {
 
@@ -443,7 +448,7 @@ public class JiraIssueManager implements IssueManager {
       FileUtils.writeStringToFile(file, gson.toJson(issues.values()), Charset.defaultCharset());
    }
 
-   private Issue parseIssue(JsonObject issueObject, boolean parseCustomFields) {
+   Issue parseIssue(JsonObject issueObject, boolean parseCustomFields) {
       String issueKey = issueObject.getAsJsonPrimitive("key").getAsString();
       logger.debug("loading issue " + issueKey);
 
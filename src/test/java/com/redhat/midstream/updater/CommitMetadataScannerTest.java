@@ -0,0 +1,50 @@
+package com.redhat.midstream.updater;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+
+import org.junit.Test;
+
+public class CommitMetadataScannerTest {
+
+   @Test
+   public void testScanCherryPickedCommit() {
+      CommitMetadata metadata = new CommitMetadataScanner("ARTEMIS").scan(
+         "ARTEMIS-123 Fix the\nsubject ARTEMIS-45\n\nBody ARTEMIS-6\n\n" +
+         "(cherry picked from commit 0123456789abcdef0123456789abcdef01234567)\n\n" +
+         "downstream: ENTMQBR-1\n");
+
+      assertEquals("ARTEMIS-123 Fix the subject ARTEMIS-45", metadata.getSubject());
+      assertEquals(Arrays.asList("ARTEMIS-123", "ARTEMIS-45"), metadata.getIssueKeys());
+      assertEquals("0123456789abcdef0123456789abcdef01234567", metadata.getCherryPickedCommit());
+      assertEquals("ENTMQBR-1", metadata.getTrailer(CommitMetadata.DOWNSTREAM_TRAILER));
+      assertNull(metadata.getReleaseVersion());
+      assertFalse(metadata.isNoIssue());
+   }
+
+   @Test
+   public void testScanReleaseVersion() {
+      CommitMetadataScanner scanner = new CommitMetadataScanner("ARTEMIS");
+
+      assertEquals("7.11.0.CR1", scanner.scan("Prepare release 7.11.0.CR1").getReleaseVersion());
+      assertEquals("7.8.2.GA", scanner.scan("7.8.2.GA").getReleaseVersion());
+      assertNull(scanner.scan("Prepare release 7.11").getReleaseVersion());
+
+      CommitMetadata metadata = scanner.scan("NO-JIRA Fix ARTEMIS- typo");
+      assertTrue(metadata.isNoIssue());
+      assertTrue(metadata.getIssueKeys().isEmpty());
+   }
+
+   @Test
+   public void testScanSubject() {
+      CommitMetadata metadata = new CommitMetadataScanner("ARTEMIS").scanSubject("ARTEMIS-123 Fix the subject ARTEMIS-45");
+
+      assertEquals(Arrays.asList("ARTEMIS-123", "ARTEMIS-45"), metadata.getIssueKeys());
+      assertNull(metadata.getCherryPickedCommit());
+      assertTrue(metadata.getTrailers().isEmpty());
+   }
+}
@@ -0,0 +1,37 @@
+package com.redhat.midstream.updater;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class ConfirmedTaskStoreTest {
+
+   @Rule
+   public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+   @Test
+   public void testLoadAppendedConfirmations() throws Exception {
+      File file = new File(temporaryFolder.getRoot(), "confirmed-commits.json");
+      Files.write(file.toPath(), ("[{\"upstreamCommit\": \"c1\", \"tasks\": [" +
+         "{\"type\": \"ADD_DOWNSTREAM_ISSUE_LABEL\", \"key\": \"ENTMQBR-1\", \"value\": \"CR1\"}]}]").getBytes(StandardCharsets.UTF_8));
+
+      new ConfirmedTaskStore().confirm(file, "c2", new CommitTask()
+         .setType(CommitTaskType.CLONE_DOWNSTREAM_ISSUE).setKey("ENTMQBR-2"));
+
+      ConfirmedTaskStore confirmedTaskStore = new ConfirmedTaskStore();
+      confirmedTaskStore.load(file);
+
+      assertEquals(2, confirmedTaskStore.size());
+      assertNotNull(confirmedTaskStore.getTask("c1", CommitTaskType.ADD_DOWNSTREAM_ISSUE_LABEL, "ENTMQBR-1", "CR1"));
+      assertNotNull(confirmedTaskStore.getTask("c2", CommitTaskType.CLONE_DOWNSTREAM_ISSUE, "ENTMQBR-2", null));
+      assertNull(confirmedTaskStore.getTask("c2", CommitTaskType.ADD_DOWNSTREAM_ISSUE_LABEL, "ENTMQBR-1", "CR1"));
+   }
+}
@@ -0,0 +1,84 @@
+package com.redhat.midstream.updater;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+
+import com.redhat.midstream.updater.issues.Issue;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class RunJournalTest {
+
+   @Rule
+   public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+   @Test
+   public void testRecoverInterruptedJournal() throws Exception {
+      File file = new File(temporaryFolder.getRoot(), "run-journal.jsonl");
+
+      try (RunJournal runJournal = new RunJournal(file)) {
+         runJournal.appendTask("c1", new CommitTask().setType(CommitTaskType.ADD_DOWNSTREAM_ISSUE_LABEL)
+            .setKey("ENTMQBR-1").setValue("CR1").setState(CommitTaskState.EXECUTED), null);
+         runJournal.appendCommit(new Commit().setUpstreamCommit("c1").setState(CommitState.DONE));
+      }
+      long length = file.length();
+      Files.write(file.toPath(), "{\"upstreamCommit\":\"c2\",\"comm".getBytes(StandardCharsets.UTF_8), StandardOpenOption.APPEND);
+
+      RunJournal runJournal = new RunJournal(file);
+      assertEquals(2, runJournal.recover().size());
+      assertEquals(length, file.length());
+      assertEquals(CommitState.DONE, runJournal.getCommit("c1").getState());
+      assertEquals("CR1", runJournal.getTasks("c1").get(0).getValue());
+      assertNull(runJournal.getCommit("c2"));
+
+      runJournal.delete();
+      assertFalse(file.exists());
+   }
+
+   @Test
+   public void testRecoverStartedTask() throws Exception {
+      File file = new File(temporaryFolder.getRoot(), "run-journal.jsonl");
+
+      try (RunJournal runJournal = new RunJournal(file)) {
+         runJournal.appendStartedTask("c1", new CommitTask().setType(CommitTaskType.CLONE_DOWNSTREAM_ISSUE)
+            .setKey("ENTMQBR-1").setState(CommitTaskState.STARTED), null);
+         runJournal.appendStartedTask("c1", new CommitTask().setType(CommitTaskType.CLONE_DOWNSTREAM_ISSUE)
+            .setKey("ENTMQBR-1").setState(CommitTaskState.STARTED).setResult("ENTMQBR-2"), new Issue().setKey("ENTMQBR-2"));
+      }
+
+      RunJournal runJournal = new RunJournal(file);
+      assertEquals(2, runJournal.recover().size());
+      assertTrue(runJournal.getTasks("c1").isEmpty());
+      assertEquals("ENTMQBR-2", runJournal.getStartedTask("c1", CommitTaskType.CLONE_DOWNSTREAM_ISSUE, "ENTMQBR-1").getIssue().getKey());
+      assertNull(runJournal.getStartedTask("c1", CommitTaskType.CLONE_DOWNSTREAM_ISSUE, "ENTMQBR-3"));
+   }
+
+   @Test
+   public void testRecoverInvalidEntries() throws Exception {
+      File file = new File(temporaryFolder.getRoot(), "run-journal.jsonl");
+
+      try (RunJournal runJournal = new RunJournal(file)) {
+         runJournal.appendCommit(new Commit().setUpstreamCommit("c1").setState(CommitState.DONE));
+      }
+      Files.write(file.toPath(), "\n{\"upstreamCommit\":\"c2\",\"comm\n".getBytes(StandardCharsets.UTF_8), StandardOpenOption.APPEND);
+      try (RunJournal runJournal = new RunJournal(file)) {
+         runJournal.appendCommit(new Commit().setUpstreamCommit("c3").setState(CommitState.TODO));
+      }
+      long length = file.length();
+
+      RunJournal runJournal = new RunJournal(file);
+      assertEquals(2, runJournal.recover().size());
+      assertEquals(length, file.length());
+      assertEquals(CommitState.DONE, runJournal.getCommit("c1").getState());
+      assertNull(runJournal.getCommit("c2"));
+      assertEquals(CommitState.TODO, runJournal.getCommit("c3").getState());
+   }
+}
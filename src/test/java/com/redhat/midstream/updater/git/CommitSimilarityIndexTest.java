@@ -0,0 +1,50 @@
+package com.redhat.midstream.updater.git;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Collections;
+
+import org.eclipse.jgit.lib.ObjectId;
+import org.junit.Test;
+
+public class CommitSimilarityIndexTest {
+
+   @Test
+   public void testFindMostSimilar() {
+      GitCommit original = commit("1111111111111111111111111111111111111111");
+      GitCommit unrelated = commit("2222222222222222222222222222222222222222");
+
+      CommitSimilarityIndex index = new CommitSimilarityIndex();
+      index.add(original, signature(0, 100));
+      index.add(unrelated, signature(1000, 1100));
+
+      // 90 shared shingles out of 110
+      CommitSimilarityIndex.Match match = index.findMostSimilar(signature(10, 110), 0.6);
+
+      assertSame(original, match.getCommit());
+      assertTrue(match.getSimilarity() > 0.6);
+
+      assertNull(index.findMostSimilar(signature(2000, 2100), 0.6));
+   }
+
+   @Test
+   public void testSimilarity() {
+      assertEquals(1.0, CommitSimilarityIndex.similarity(signature(0, 100), signature(0, 100)), 0);
+      assertEquals(0.0, CommitSimilarityIndex.similarity(signature(0, 100), signature(100, 200)), 0.05);
+   }
+
+   private GitCommit commit(String name) {
+      return new CliGitCommit(ObjectId.fromString(name), Collections.emptyList(), null, null, null, null, null, null, null, null, "");
+   }
+
+   private int[] signature(int firstShingle, int lastShingle) {
+      int[] signature = CommitSimilarityIndex.newSignature();
+      for (int shingle = firstShingle; shingle < lastShingle; shingle++) {
+         CommitSimilarityIndex.updateSignature(signature, shingle);
+      }
+      return signature;
+   }
+}
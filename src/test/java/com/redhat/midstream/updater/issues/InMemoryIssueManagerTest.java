@@ -0,0 +1,99 @@
+package com.redhat.midstream.updater.issues;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class InMemoryIssueManagerTest {
+
+   @Rule
+   public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+   @Test
+   public void testRecordMutations() throws Exception {
+      File file = new File(temporaryFolder.getRoot(), "issue-mutations.jsonl");
+      InMemoryIssueManager issueManager = new InMemoryIssueManager("ENTMQBR", file);
+      issueManager.cacheIssue(new Issue().setKey("ENTMQBR-1").setState(IssueState.TODO));
+
+      issueManager.addIssueLabels("ENTMQBR-1", "CR1");
+      Issue createdIssue = issueManager.createIssue("[7.11] Fix", null, IssueType.BUG, "user0",
+         "https://issues.apache.org/jira/browse/ARTEMIS-1", "AMQ 7.11.0.GA", Arrays.asList("CR1"));
+      issueManager.linkIssue(createdIssue.getKey(), "ENTMQBR-1", "Cloners");
+
+      assertEquals("ENTMQBR-OFFLINE-1", createdIssue.getKey());
+      assertEquals(Arrays.asList("ARTEMIS-1"), createdIssue.getIssues());
+      assertNotNull(issueManager.getIssue(createdIssue.getKey()));
+      assertTrue(issueManager.getIssue("ENTMQBR-1").getLabels().isEmpty());
+
+      List<IssueMutation> mutations = new InMemoryIssueManager("ENTMQBR", file).getMutations();
+      assertEquals(3, mutations.size());
+      assertEquals(IssueMutation.Type.ADD_LABELS, mutations.get(0).getType());
+      assertEquals(Arrays.asList("CR1"), mutations.get(0).getLabels());
+      assertEquals("AMQ 7.11.0.GA", mutations.get(1).getTargetRelease());
+      assertEquals("ENTMQBR-1", mutations.get(2).getLinkedIssueKey());
+   }
+
+   @Test
+   public void testReplayMutations() throws Exception {
+      File file = new File(temporaryFolder.getRoot(), "issue-mutations.jsonl");
+      InMemoryIssueManager issueManager = new InMemoryIssueManager("ENTMQBR", file);
+      Issue createdIssue = issueManager.createIssue("[7.11] Fix", null, IssueType.BUG, "user0",
+         "ARTEMIS-1", "AMQ 7.11.0.GA", Arrays.asList("CR1"));
+      issueManager.linkIssue(createdIssue.getKey(), "ENTMQBR-1", "Cloners");
+      issueManager.transitionIssue(createdIssue.getKey(), IssueState.CLOSED);
+
+      // The server creates the issue with a different key and fails the transition
+      File serverFile = new File(temporaryFolder.getRoot(), "server-issue-mutations.jsonl");
+      InMemoryIssueManager serverIssueManager = new InMemoryIssueManager("ENTMQBR", serverFile) {
+         @Override
+         public synchronized Issue createIssue(String summary, String description, IssueType type, String assignee, String upstreamIssue, String targetRelease, List<String> labels) throws Exception {
+            return super.createIssue(summary, description, type, assignee, upstreamIssue, targetRelease, labels).setKey("ENTMQBR-100");
+         }
+
+         @Override
+         public void linkIssue(String issueKey, String cloningIssueKey, String linkType) throws Exception {
+            // The replayed creation is stored before the next mutation
+            List<IssueMutation> mutations = issueManager.getMutations();
+            assertEquals(2, mutations.size());
+            assertEquals("ENTMQBR-100", mutations.get(0).getIssueKey());
+
+            super.linkIssue(issueKey, cloningIssueKey, linkType);
+         }
+
+         @Override
+         public void transitionIssue(String issueKey, IssueState finalStatus) {
+            throw new IllegalStateException("Transition failed");
+         }
+      };
+
+      try {
+         issueManager.replayMutations(serverIssueManager);
+         fail();
+      } catch (IllegalStateException e) {
+         assertEquals("Transition failed", e.getMessage());
+      }
+
+      List<IssueMutation> serverMutations = serverIssueManager.getMutations();
+      assertEquals(2, serverMutations.size());
+      assertEquals("ENTMQBR-100", serverMutations.get(1).getIssueKey());
+
+      // The failed mutation is kept with the key of the created issue
+      List<IssueMutation> mutations = issueManager.getMutations();
+      assertEquals(1, mutations.size());
+      assertEquals(IssueMutation.Type.TRANSITION, mutations.get(0).getType());
+      assertEquals("ENTMQBR-100", mutations.get(0).getIssueKey());
+
+      assertEquals(1, issueManager.replayMutations(new InMemoryIssueManager("ENTMQBR", serverFile)));
+      assertFalse(file.exists());
+   }
+}